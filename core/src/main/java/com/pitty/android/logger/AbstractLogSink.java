@@ -0,0 +1,21 @@
+package com.pitty.android.logger;
+
+import java.util.List;
+
+/**
+ * The skeleton of {@link LogSink} which delivers batches one event at a time.
+ */
+public abstract class AbstractLogSink implements LogSink {
+
+    @Override
+    public void write(List<LogEvent> events) {
+        for (int i = 0, size = events.size(); i < size; i++) {
+            LogEvent event = events.get(i);
+            write(event.getLevel(), event.getTag(), event.getMessage(), event);
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+}
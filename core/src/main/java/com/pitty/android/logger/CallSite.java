@@ -0,0 +1,54 @@
+package com.pitty.android.logger;
+
+/**
+ * A precomputed location of logging calls, used instead of walking
+ * the stack to find the caller.
+ * <p/>
+ * Call sites are generated at compile time for classes annotated with {@link Logged},
+ * so patterns with %caller or %source cost the same as patterns without them.
+ */
+public final class CallSite {
+    private final StackTraceElement element;
+
+    /**
+     * Creates new {@link CallSite}.
+     *
+     * @param className  the fully qualified class name.
+     * @param methodName the method name.
+     * @param fileName   the source file name, can be {@code null}.
+     * @param lineNumber the line number, or a negative value if unknown.
+     */
+    public CallSite(String className, String methodName, String fileName, int lineNumber) {
+        this.element = new StackTraceElement(className, methodName, fileName, lineNumber);
+    }
+
+    public String getClassName() {
+        return element.getClassName();
+    }
+
+    public String getMethodName() {
+        return element.getMethodName();
+    }
+
+    public String getFileName() {
+        return element.getFileName();
+    }
+
+    public int getLineNumber() {
+        return element.getLineNumber();
+    }
+
+    /**
+     * Returns the call site as a stack trace element, the same instance every time.
+     *
+     * @return the stack trace element.
+     */
+    public StackTraceElement toStackTraceElement() {
+        return element;
+    }
+
+    @Override
+    public String toString() {
+        return element.toString();
+    }
+}
@@ -0,0 +1,185 @@
+package com.pitty.android.logger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link LogSink} joining bursts of messages into fewer writes to another sink.
+ * <p/>
+ * Consecutive messages with the same tag and level written within the window are joined
+ * with '\n' and written as one message, e.g. one {@code Log.println} call instead of hundreds.
+ * The joined message is written when the tag or the level changes, when it would exceed
+ * the max length, when the window elapses or when the sink is flushed.
+ * Messages with a throwable are never joined.
+ * <p/>
+ * Enabled for the default sink by the "coalesce" key of the config file, the window in milliseconds:
+ * <pre>
+ * coalesce=5
+ * </pre>
+ */
+public class CoalescingLogSink extends AbstractLogSink {
+    /**
+     * The max length of the joined message, a logcat entry holds about 4 KB.
+     */
+    public static final int DEFAULT_MAX_LENGTH = 4000;
+
+    // one timer thread for all the sinks, it only runs when messages are pending.
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "CoalescingLogSink");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final LogSink sink;
+    private final long windowMillis;
+    private final int maxLength;
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flushExpired();
+        }
+    };
+
+    private final StringBuilder pending = new StringBuilder();
+    private LEVEL pendingLevel;
+    private String pendingTag;
+    private LogEvent pendingEvent;
+    private long pendingSince;
+    private int pendingCount;
+    private long eventCount;
+    private long writeCount;
+
+    /**
+     * Creates new {@link CoalescingLogSink} joining at most {@link #DEFAULT_MAX_LENGTH} chars.
+     *
+     * @param sink         the sink the joined messages are written to.
+     * @param windowMillis the time a message can wait for the next one.
+     */
+    public CoalescingLogSink(LogSink sink, long windowMillis) {
+        this(sink, windowMillis, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Creates new {@link CoalescingLogSink}.
+     *
+     * @param sink         the sink the joined messages are written to.
+     * @param windowMillis the time a message can wait for the next one.
+     * @param maxLength    the max length of a joined message.
+     */
+    public CoalescingLogSink(LogSink sink, long windowMillis, int maxLength) {
+        this.sink = sink;
+        this.windowMillis = windowMillis;
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public synchronized void write(LEVEL level, String tag, String message, LogEvent event) {
+        eventCount++;
+        boolean joinable = event.getThrowable() == null && message.length() <= maxLength;
+        if (pendingEvent != null && !(joinable && canJoin(level, tag, message, event))) {
+            writePending();
+        }
+        if (!joinable) {
+            writeCount++;
+            sink.write(level, tag, message, event);
+            return;
+        }
+        if (pendingEvent == null) {
+            pendingLevel = level;
+            pendingTag = tag;
+            pendingEvent = event;
+            pendingSince = event.getTimeMillis();
+            pendingCount = 1;
+            pending.append(message);
+            TIMER.schedule(flushTask, windowMillis, TimeUnit.MILLISECONDS);
+        } else {
+            pendingCount++;
+            pending.append('\n').append(message);
+        }
+    }
+
+    private boolean canJoin(LEVEL level, String tag, String message, LogEvent event) {
+        return level == pendingLevel
+                && (tag == null ? pendingTag == null : tag.equals(pendingTag))
+                && pending.length() + 1 + message.length() <= maxLength
+                && event.getTimeMillis() - pendingSince < windowMillis;
+    }
+
+    private void writePending() {
+        String message = pending.toString();
+        LogEvent event = pendingEvent;
+        if (pendingCount > 1) {
+            event = new LogEvent(event.getTimeMillis(), pendingLevel, event.getLoggerName(), pendingTag,
+                    message, null, event.getCaller());
+        }
+        pending.setLength(0);
+        pendingLevel = null;
+        pendingTag = null;
+        pendingEvent = null;
+        pendingCount = 0;
+        writeCount++;
+        sink.write(event.getLevel(), event.getTag(), message, event);
+    }
+
+    private synchronized void flushExpired() {
+        if (pendingEvent == null) {
+            return;
+        }
+        long remaining = pendingSince + windowMillis - System.currentTimeMillis();
+        if (remaining <= 0) {
+            writePending();
+        } else if (remaining < windowMillis) {
+            // the clock lagged behind the timer
+            TIMER.schedule(flushTask, remaining, TimeUnit.MILLISECONDS);
+        }
+        // otherwise a newer message has its own task
+    }
+
+    @Override
+    public void flush() {
+        synchronized (this) {
+            if (pendingEvent != null) {
+                writePending();
+            }
+        }
+        sink.flush();
+    }
+
+    /**
+     * Returns the count of the messages written to this sink.
+     *
+     * @return the count of messages.
+     */
+    public synchronized long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Returns the count of the writes to the underlying sink.
+     *
+     * @return the count of writes.
+     */
+    public synchronized long getWriteCount() {
+        return writeCount;
+    }
+
+    /**
+     * Returns the count of the writes saved by joining messages, pending messages are not counted.
+     *
+     * @return the count of saved writes.
+     */
+    public synchronized long getSavedWriteCount() {
+        return eventCount - pendingCount - writeCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CoalescingLogSink{events=" + eventCount + ", writes=" + writeCount
+                + ", saved=" + getSavedWriteCount() + "}";
+    }
+}
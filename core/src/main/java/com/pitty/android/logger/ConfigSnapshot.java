@@ -0,0 +1,190 @@
+package com.pitty.android.logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+/**
+ * A precompiled binary form of {@link LoggerConfiguration}.
+ * <p/>
+ * Loading the snapshot skips parsing the config file and compiling the patterns.
+ * The snapshot starts with a header:
+ * <table border=1>
+ * <tr><td>int</td><td>magic, "ALCS"</td></tr>
+ * <tr><td>short</td><td>format version</td></tr>
+ * <tr><td>long</td><td>CRC32 of the config file the snapshot was made from</td></tr>
+ * </table>
+ * A snapshot with another magic, version or checksum is stale and is ignored.
+ * <p/>
+ * Snapshots are made at build time:
+ * <pre>
+ * java -cp core.jar com.pitty.android.logger.ConfigSnapshot \
+ *     src/main/assets/android-logger.properties src/main/assets/android-logger.snapshot
+ * </pre>
+ */
+public final class ConfigSnapshot {
+
+    private ConfigSnapshot() {
+        throw new UnsupportedOperationException();
+    }
+
+    private static final int MAGIC = 0x414c4353;
+    private static final short VERSION = 3;
+
+    /**
+     * Returns the checksum of the config file content.
+     *
+     * @param properties the content of the config file.
+     * @return the checksum.
+     */
+    public static long checksum(byte[] properties) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(properties, 0, properties.length);
+        return crc32.getValue();
+    }
+
+    /**
+     * Writes the snapshot of the configuration.
+     *
+     * @param configuration the configuration.
+     * @param checksum      the checksum of the config file the configuration was parsed from.
+     * @return the snapshot.
+     */
+    public static byte[] write(LoggerConfiguration configuration, long checksum) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(checksum);
+            writeLevel(configuration.getGlobalLevel(), out);
+            writeString(configuration.getSink(), out);
+            out.writeInt(configuration.getModules().size());
+            for (LoggerConfiguration.Module module : configuration.getModules().values()) {
+                out.writeUTF(module.getName());
+                writeLevel(module.getLevel(), out);
+                writeString(module.getTag(), out);
+                writeString(module.getTagPattern(), out);
+                LoggerPattern.write(module.getCompiledTagPattern(), out);
+                writeString(module.getMessagePattern(), out);
+                LoggerPattern.write(module.getCompiledMessagePattern(), out);
+                writeString(module.getSink(), out);
+            }
+            out.writeInt(configuration.getOptions().size());
+            for (Map.Entry<String, String> option : configuration.getOptions().entrySet()) {
+                out.writeUTF(option.getKey());
+                writeString(option.getValue(), out);
+            }
+            out.flush();
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the configuration from the snapshot.
+     *
+     * @param snapshot the snapshot, can be {@code null}.
+     * @param checksum the checksum of the current config file.
+     * @return the configuration, or {@code null} if the snapshot is missing, stale or corrupted.
+     */
+    public static LoggerConfiguration read(byte[] snapshot, long checksum) {
+        if (snapshot == null) {
+            return null;
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot));
+        try {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION || in.readLong() != checksum) {
+                return null;
+            }
+            LEVEL globalLevel = readLevel(in);
+            String sink = readString(in);
+            int size = in.readInt();
+            Map<String, LoggerConfiguration.Module> modules = new LinkedHashMap<String, LoggerConfiguration.Module>();
+            for (int i = 0; i < size; i++) {
+                String name = in.readUTF();
+                LEVEL level = readLevel(in);
+                String tag = readString(in);
+                String tagPattern = readString(in);
+                LoggerPattern compiledTagPattern = LoggerPattern.read(in);
+                String messagePattern = readString(in);
+                LoggerPattern compiledMessagePattern = LoggerPattern.read(in);
+                String moduleSink = readString(in);
+                modules.put(name, new LoggerConfiguration.Module(name, level, tag,
+                        tagPattern, compiledTagPattern, messagePattern, compiledMessagePattern, moduleSink));
+            }
+            int optionCount = in.readInt();
+            Map<String, String> options = new HashMap<String, String>();
+            for (int i = 0; i < optionCount; i++) {
+                options.put(in.readUTF(), readString(in));
+            }
+            return new LoggerConfiguration(globalLevel, sink, modules, options);
+        } catch (IOException e) {
+            return null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void writeLevel(LEVEL level, DataOutputStream out) throws IOException {
+        out.writeByte(level == null ? -1 : level.ordinal());
+    }
+
+    private static LEVEL readLevel(DataInputStream in) throws IOException {
+        byte ordinal = in.readByte();
+        return ordinal < 0 ? null : LEVEL.values()[ordinal];
+    }
+
+    private static void writeString(String string, DataOutputStream out) throws IOException {
+        out.writeBoolean(string != null);
+        if (string != null) {
+            out.writeUTF(string);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Makes the snapshot of a config file.
+     *
+     * @param args the path of the config file and the path of the snapshot.
+     * @throws IOException if the files can not be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ConfigSnapshot <android-logger.properties> <android-logger.snapshot>");
+            System.exit(1);
+        }
+        InputStream in = new FileInputStream(args[0]);
+        byte[] propertiesBytes;
+        try {
+            propertiesBytes = Utils.readFully(in);
+        } finally {
+            in.close();
+        }
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(propertiesBytes));
+        byte[] snapshot = write(LoggerConfiguration.parse(properties), checksum(propertiesBytes));
+        OutputStream out = new FileOutputStream(args[1]);
+        try {
+            out.write(snapshot);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.pitty.android.logger;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * {@link LogSink} printing messages to {@link System#out}, or {@link System#err}
+ * for {@link LEVEL#W} and more severe levels.
+ * <p/>
+ * Each message is printed as "LEVEL/TAG: MESSAGE".
+ */
+public class ConsoleSink extends AbstractLogSink {
+
+    @Override
+    public void write(LEVEL level, String tag, String message, LogEvent event) {
+        StringBuilder builder = new StringBuilder(tag.length() + message.length() + 4);
+        append(builder, level, tag, message);
+        streamOf(level).print(builder);
+    }
+
+    @Override
+    public void write(List<LogEvent> events) {
+        // one print per stream, the order between out and err is not preserved anyway.
+        StringBuilder out = new StringBuilder();
+        StringBuilder err = new StringBuilder();
+        for (int i = 0, size = events.size(); i < size; i++) {
+            LogEvent event = events.get(i);
+            append(streamOf(event.getLevel()) == System.err ? err : out,
+                    event.getLevel(), event.getTag(), event.getMessage());
+        }
+        if (out.length() > 0) {
+            System.out.print(out);
+        }
+        if (err.length() > 0) {
+            System.err.print(err);
+        }
+    }
+
+    @Override
+    public void flush() {
+        System.out.flush();
+        System.err.flush();
+    }
+
+    private static PrintStream streamOf(LEVEL level) {
+        return level.ordinal() <= LEVEL.W.ordinal() ? System.err : System.out;
+    }
+
+    private static void append(StringBuilder builder, LEVEL level, String tag, String message) {
+        builder.append(level).append('/').append(tag).append(": ").append(message).append('\n');
+    }
+}
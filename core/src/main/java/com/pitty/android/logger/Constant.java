@@ -0,0 +1,48 @@
+package com.pitty.android.logger;
+
+/**
+ * Created by Pitty on 14/10/20.
+ */
+public class Constant {
+    // static log switcher
+    public static final boolean LOG = true;
+    // assets folder name
+    private static final String ASSETS_FOLDER_NAME = "/assets/";
+    // properties file name in assets
+    private static final String PROPERTIES_NAME = "android-logger.properties";
+    // properties file path
+    protected static final String PROPERTIES_PATH = ASSETS_FOLDER_NAME + PROPERTIES_NAME;
+    // precompiled config snapshot name in assets, see ConfigSnapshot
+    private static final String SNAPSHOT_NAME = "android-logger.snapshot";
+    // precompiled config snapshot path
+    protected static final String SNAPSHOT_PATH = ASSETS_FOLDER_NAME + SNAPSHOT_NAME;
+
+    // Android Log Tag length is default 23
+    public static final int TAG_MAX_LENGTH = 23;
+    // Default Tag
+    public static final String ANONYMOUS_TAG = "null";
+
+    protected static final String CONF_ROOT = "root";
+    protected static final String CONF_LOGGER_MODULE = "module:";
+    protected static final String CONF_SINK = "sink";
+    // window in milliseconds of CoalescingLogSink wrapping the default sink
+    protected static final String CONF_COALESCE = "coalesce";
+    // enables LoggerStats, the period in seconds of the dump, 0 for no dump
+    protected static final String CONF_STATS = "stats";
+    // enables LogProfiler, the count of statements kept
+    protected static final String CONF_PROFILE = "profile";
+    // installs LogFlusher on crash and on exit, the time budget in milliseconds
+    protected static final String CONF_FLUSH_CRASH = "flush.crash";
+    protected static final String CONF_FLUSH_EXIT = "flush.exit";
+    // enables FlightRecorder, the most verbose level recorded and the count of events kept
+    protected static final String CONF_RECORDER = "recorder";
+    // LogFilter expression checked after the level of every logger
+    protected static final String CONF_FILTER = "filter";
+    // enables LoggableCheck, the period in seconds of its refresh, 0 for no periodic refresh
+    protected static final String CONF_LOGGABLE = "loggable";
+    // how the logger factory holds the loggers: "strong" (the default), "weak" or "soft"
+    protected static final String CONF_LOGGERS = "loggers";
+    protected static final String CONF_LOGGER_SPLIT = ":";
+    protected static final String CONF_LOGGER_ITEM_SPLIT = ",";
+    protected static final String CONF_LOGGER_PACKAGE_SPLIT = ".";
+}
@@ -0,0 +1,309 @@
+package com.pitty.android.logger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * {@link LogSink} appending messages to rotated files, with a sparse index of every file
+ * searched by {@link LogFileReader}.
+ * <p/>
+ * Each message is written as "yyyy-MM-dd HH:mm:ss.SSS LEVEL/TAG: MESSAGE", the lines after the
+ * first one of a message start with a tab, so a record starts at every line without a tab.
+ * <p/>
+ * The messages are written to segments "NAME-000001.log", "NAME-000002.log"... A new segment
+ * is started by every sink and when the current one is full, the oldest ones are deleted.
+ * Each segment has an index "NAME-000001.idx" with an entry per block of about
+ * {@code blockSize} bytes: the offsets of its first record and of its end, the min and max time
+ * of its records, and the count of its records by level. The entry of a block is written when
+ * the block is complete, the records after the last entry are scanned by the reader.
+ * <p/>
+ * Errors of the files are ignored, logging must never break the application.
+ * The sink is registered by the application, e.g.
+ * {@code LogSinks.register("file", new FileLogSink(new File(context.getFilesDir(), "logs"), "app"))}.
+ */
+public class FileLogSink extends AbstractLogSink implements SegmentedLogSink {
+    public static final String LOG_SUFFIX = ".log";
+    public static final String INDEX_SUFFIX = ".idx";
+    public static final long DEFAULT_SEGMENT_SIZE = 1024 * 1024;
+    public static final int DEFAULT_SEGMENT_COUNT = 8;
+    public static final int DEFAULT_BLOCK_SIZE = 8 * 1024;
+
+    static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss.SSS";
+    static final int LEVEL_COUNT = LEVEL.values().length;
+    // offset, end offset, min time, max time, count by level
+    static final int INDEX_ENTRY_SIZE = 4 * 8 + LEVEL_COUNT * 4;
+    private static final int WRITE_BUFFER_SIZE = 8 * 1024;
+
+    private final File directory;
+    private final String name;
+    private final long segmentSize;
+    private final int segmentCount;
+    private final int blockSize;
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
+    private final Date date = new Date();
+    private final StringBuilder builder = new StringBuilder();
+
+    private int segment;
+    private OutputStream out;
+    private DataOutputStream index;
+    private long position;
+    // the block being written, blockOffset is -1 if it has no record yet
+    private long blockOffset = -1;
+    private long blockMinTime;
+    private long blockMaxTime;
+    private final int[] blockCounts = new int[LEVEL_COUNT];
+
+    /**
+     * Creates new {@link FileLogSink} with the default sizes.
+     *
+     * @param directory the directory of the files, created if needed.
+     * @param name      the prefix of the file names.
+     */
+    public FileLogSink(File directory, String name) {
+        this(directory, name, DEFAULT_SEGMENT_SIZE, DEFAULT_SEGMENT_COUNT, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates new {@link FileLogSink}.
+     *
+     * @param directory    the directory of the files, created if needed.
+     * @param name         the prefix of the file names.
+     * @param segmentSize  the max size of a segment in bytes, a longer message makes a bigger one.
+     * @param segmentCount the count of segments kept.
+     * @param blockSize    the size in bytes of the blocks indexed.
+     */
+    public FileLogSink(File directory, String name, long segmentSize, int segmentCount, int blockSize) {
+        if (segmentSize <= 0 || segmentCount <= 0 || blockSize <= 0) {
+            throw new IllegalArgumentException("sizes must be positive");
+        }
+        this.directory = directory;
+        this.name = name;
+        this.segmentSize = segmentSize;
+        this.segmentCount = segmentCount;
+        this.blockSize = blockSize;
+        List<File> segments = listSegments(directory, name);
+        this.segment = segments.isEmpty() ? 0 : getSegmentNumber(segments.get(segments.size() - 1), name);
+    }
+
+    @Override
+    public File getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public synchronized List<File> getClosedSegments() {
+        List<File> segments = new ArrayList<File>(listSegments(directory, name));
+        if (null != out) {
+            segments.remove(getSegmentFile(directory, name, segment));
+        }
+        return segments;
+    }
+
+    @Override
+    public synchronized void write(LEVEL level, String tag, String message, LogEvent event) {
+        append(level, tag, message, event.getTimeMillis());
+    }
+
+    @Override
+    public synchronized void write(List<LogEvent> events) {
+        for (int i = 0, size = events.size(); i < size; i++) {
+            LogEvent event = events.get(i);
+            append(event.getLevel(), event.getTag(), event.getMessage(), event.getTimeMillis());
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        try {
+            if (null != out) {
+                // the data first, the index must not point after it
+                out.flush();
+                index.flush();
+            }
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * Writes the index of the last block and closes the files.
+     * The next message opens a new segment.
+     */
+    public synchronized void close() {
+        closeSegment();
+    }
+
+    private void append(LEVEL level, String tag, String message, long timeMillis) {
+        builder.setLength(0);
+        date.setTime(timeMillis);
+        appendRecord(builder, dateFormat.format(date), level, tag, message);
+        byte[] bytes;
+        try {
+            bytes = builder.toString().getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+        try {
+            if (null != out && position > 0 && position + bytes.length > segmentSize) {
+                closeSegment();
+            }
+            if (null == out) {
+                openSegment();
+            }
+            if (blockOffset >= 0 && position - blockOffset >= blockSize) {
+                writeBlock();
+            }
+            if (blockOffset < 0) {
+                blockOffset = position;
+                blockMinTime = timeMillis;
+                blockMaxTime = timeMillis;
+            }
+            blockMinTime = Math.min(blockMinTime, timeMillis);
+            blockMaxTime = Math.max(blockMaxTime, timeMillis);
+            blockCounts[level.ordinal()]++;
+            out.write(bytes);
+            position += bytes.length;
+        } catch (IOException e) {
+            // drop the message, try a new segment for the next one
+            closeSegment();
+        }
+    }
+
+    /**
+     * Renders a record, with a tab after every line break of the message.
+     */
+    static void appendRecord(StringBuilder builder, String date, LEVEL level, String tag, String message) {
+        builder.append(date).append(' ').append(level).append('/').append(tag).append(": ");
+        if (null != message) {
+            for (int i = 0, length = message.length(); i < length; i++) {
+                char c = message.charAt(i);
+                builder.append(c);
+                if (c == '\n') {
+                    builder.append('\t');
+                }
+            }
+        }
+        builder.append('\n');
+    }
+
+    private void openSegment() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("can not create " + directory);
+        }
+        segment++;
+        out = new BufferedOutputStream(new FileOutputStream(getSegmentFile(directory, name, segment)), WRITE_BUFFER_SIZE);
+        index = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(getIndexFile(getSegmentFile(directory, name, segment)))));
+        position = 0;
+        blockOffset = -1;
+        deleteOldSegments();
+    }
+
+    private void closeSegment() {
+        if (null == out) {
+            return;
+        }
+        try {
+            if (blockOffset >= 0) {
+                writeBlock();
+            }
+            out.close();
+            index.close();
+        } catch (IOException e) {
+            // ignore
+        }
+        out = null;
+        index = null;
+    }
+
+    private void writeBlock() throws IOException {
+        index.writeLong(blockOffset);
+        index.writeLong(position);
+        index.writeLong(blockMinTime);
+        index.writeLong(blockMaxTime);
+        for (int i = 0; i < LEVEL_COUNT; i++) {
+            index.writeInt(blockCounts[i]);
+        }
+        blockOffset = -1;
+        Arrays.fill(blockCounts, 0);
+    }
+
+    private void deleteOldSegments() {
+        List<File> segments = listSegments(directory, name);
+        for (int i = 0; i < segments.size() - segmentCount; i++) {
+            File file = segments.get(i);
+            file.delete();
+            getIndexFile(file).delete();
+        }
+    }
+
+    static File getSegmentFile(File directory, String name, int segment) {
+        return new File(directory, String.format("%s-%06d%s", name, segment, LOG_SUFFIX));
+    }
+
+    static File getIndexFile(File segmentFile) {
+        String path = segmentFile.getPath();
+        return new File(path.substring(0, path.length() - LOG_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    static int getSegmentNumber(File file, String name) {
+        String fileName = file.getName();
+        try {
+            return Integer.parseInt(fileName.substring(name.length() + 1, fileName.length() - LOG_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Lists the segments of the sink, from the oldest.
+     *
+     * @param directory the directory of the files.
+     * @param name      the prefix of the file names.
+     * @return the segment files.
+     */
+    static List<File> listSegments(File directory, final String name) {
+        File[] files = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String fileName) {
+                return fileName.startsWith(name + "-") && fileName.endsWith(LOG_SUFFIX);
+            }
+        });
+        if (null == files) {
+            return Collections.emptyList();
+        }
+        List<File> segments = new ArrayList<File>(files.length);
+        for (File file : files) {
+            if (getSegmentNumber(file, name) >= 0) {
+                segments.add(file);
+            }
+        }
+        Collections.sort(segments, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                int l = getSegmentNumber(lhs, name);
+                int r = getSegmentNumber(rhs, name);
+                return l < r ? -1 : (l == r ? 0 : 1);
+            }
+        });
+        return segments;
+    }
+}
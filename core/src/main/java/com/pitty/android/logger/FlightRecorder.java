@@ -0,0 +1,434 @@
+package com.pitty.android.logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps the last events in memory, e.g. to attach them to a bug report, including the
+ * levels not printed by the handlers.
+ * <p/>
+ * The events are kept in a ring of slots allocated once. The format and the arguments are kept
+ * as they are and only rendered when the ring is dumped, so recording an event costs no
+ * formatting, no caller lookup and no lock: a producer claims the next sequence, marks the slot
+ * as being written, fills it and marks it as written. The dump copies the slots without
+ * stopping the producers and skips the ones written meanwhile. The fields of the slots are
+ * volatile, so a copy can not see the fields of an event written after the state it checked.
+ * <p/>
+ * As the arguments are rendered late, a mutable argument is printed with its state at the dump.
+ * <p/>
+ * Recording is disabled by default and no recorder is allocated. It is enabled by the "recorder" key
+ * of the config file, the most verbose level recorded and the count of events kept:
+ * <pre>
+ * recorder=D:2048
+ * </pre>
+ */
+public final class FlightRecorder {
+    public static final int DEFAULT_CAPACITY = 2048;
+
+    private static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss.SSS";
+
+    // the ordinal of the most verbose level recorded, -1 if disabled
+    private static volatile int threshold = -1;
+    private static volatile FlightRecorder defaultRecorder;
+
+    /**
+     * Returns the recorder the handlers record to.
+     *
+     * @return the recorder, {@code null} if none is set.
+     */
+    public static FlightRecorder getDefault() {
+        return defaultRecorder;
+    }
+
+    public static void setDefault(FlightRecorder recorder) {
+        defaultRecorder = recorder;
+    }
+
+    /**
+     * Sets the most verbose level recorded, independently of the levels of the handlers.
+     *
+     * @param level the level, {@code null} or {@link LEVEL#O} to disable recording.
+     */
+    public static void setLevel(LEVEL level) {
+        threshold = null == level || level == LEVEL.O ? -1 : level.ordinal();
+    }
+
+    /**
+     * Checks if the level is recorded.
+     *
+     * @param level the level.
+     * @return {@code true} if the events with this level are recorded, {@code false} if there is no recorder.
+     */
+    public static boolean isRecorded(LEVEL level) {
+        return level.ordinal() <= threshold && null != defaultRecorder;
+    }
+
+    /**
+     * An event slot. The fields are written by one producer between the odd and
+     * the even state of the slot, and read between two checks of the state: volatile, the second
+     * check can not be done before the reads.
+     */
+    private static final class Slot {
+        volatile long timeMillis;
+        volatile LEVEL level;
+        volatile String loggerName;
+        volatile String threadName;
+        volatile Throwable throwable;
+        volatile String format;
+        volatile Object[] args;
+        volatile boolean printf;
+    }
+
+    /**
+     * The handler of the events recorded but not printed, e.g. of a tag closed by the
+     * {@link LoggableCheck}: it records them to the default recorder and prints nothing.
+     */
+    static final LoggerHandler RECORDING_HANDLER = new LoggerHandler() {
+        @Override
+        public boolean isEnabled(LEVEL level) {
+            return false;
+        }
+
+        @Override
+        public void print(String loggerName, LEVEL level, Throwable throwable, String messageFormat, Object... args) {
+            FlightRecorder recorder = defaultRecorder;
+            if (null != recorder && isRecorded(level)) {
+                recorder.recordPrintf(loggerName, level, throwable, messageFormat, args);
+            }
+        }
+
+        @Override
+        public void print(LEVEL level, Throwable throwable, String messageFormat, Object... args) {
+            print(getTagName(), level, throwable, messageFormat, args);
+        }
+
+        @Override
+        public void print(CallSite callSite, String loggerName, LEVEL level,
+                          Throwable throwable, String messageFormat, Object... args) {
+            print(loggerName, level, throwable, messageFormat, args);
+        }
+
+        @Override
+        public void log(CallSite callSite, String loggerName, LEVEL level,
+                        Throwable throwable, String format, Object... args) {
+            FlightRecorder recorder = defaultRecorder;
+            if (null != recorder && isRecorded(level)) {
+                recorder.record(loggerName, level, throwable, format, args);
+            }
+        }
+
+        @Override
+        public void log(CallSite callSite, String loggerName, LEVEL level,
+                        Throwable throwable, String format, LogArguments arguments) {
+            FlightRecorder recorder = defaultRecorder;
+            if (null != recorder && isRecorded(level)) {
+                recorder.record(loggerName, level, throwable, format, arguments);
+            }
+        }
+
+        @Override
+        public String getTagName() {
+            return Constant.ANONYMOUS_TAG;
+        }
+    };
+
+    private final Slot[] slots;
+    private final int mask;
+    // 2 * sequence + 1 while the slot is written, 2 * sequence + 2 once written, 0 if never written
+    private final AtomicLongArray states;
+    private final AtomicLong next = new AtomicLong();
+    private final AtomicLong lostCount = new AtomicLong();
+
+    /**
+     * Creates new {@link FlightRecorder}.
+     *
+     * @param capacity the count of events kept, rounded up to a power of two.
+     */
+    public FlightRecorder(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("invalid capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        mask = size - 1;
+        states = new AtomicLongArray(size);
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Returns the count of events recorded since the creation.
+     *
+     * @return the count, including the overwritten events.
+     */
+    public long getRecordedCount() {
+        return next.get();
+    }
+
+    /**
+     * Returns the count of events dropped because their slot was still being written
+     * by a producer a whole ring behind, or already written by a newer sequence.
+     *
+     * @return the count.
+     */
+    public long getLostCount() {
+        return lostCount.get();
+    }
+
+    /**
+     * Records an SLF4J event.
+     *
+     * @param loggerName the logger name.
+     * @param level      the level.
+     * @param throwable  the throwable, can be {@code null}.
+     * @param format     the SLF4J format, can be {@code null}.
+     * @param args       the arguments, kept as they are, can be {@code null}.
+     */
+    public void record(String loggerName, LEVEL level, Throwable throwable, String format, Object[] args) {
+        record(loggerName, level, throwable, format, args, false);
+    }
+
+    /**
+     * Records an SLF4J event with unboxed arguments, which are boxed as they are reused by the caller.
+     *
+     * @param loggerName the logger name.
+     * @param level      the level.
+     * @param throwable  the throwable, can be {@code null}.
+     * @param format     the SLF4J format, can be {@code null}.
+     * @param arguments  the arguments, can be {@code null}.
+     */
+    public void record(String loggerName, LEVEL level, Throwable throwable, String format, LogArguments arguments) {
+        Object[] args = null;
+        if (null != arguments && arguments.size() > 0) {
+            args = new Object[arguments.size()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = arguments.get(i);
+            }
+        }
+        record(loggerName, level, throwable, format, args, false);
+    }
+
+    /**
+     * Records an event of {@link LoggerHandler#print(String, LEVEL, Throwable, String, Object...)}.
+     *
+     * @param loggerName the logger name.
+     * @param level      the level.
+     * @param throwable  the throwable, can be {@code null}.
+     * @param format     the {@link String#format(String, Object...)} format, can be {@code null}.
+     * @param args       the arguments, kept as they are, can be {@code null}.
+     */
+    public void recordPrintf(String loggerName, LEVEL level, Throwable throwable, String format, Object[] args) {
+        record(loggerName, level, throwable, format, args, true);
+    }
+
+    private void record(String loggerName, LEVEL level, Throwable throwable, String format, Object[] args,
+                        boolean printf) {
+        long sequence = next.getAndIncrement();
+        int index = (int) (sequence & mask);
+        long state = states.get(index);
+        // a producer a whole ring behind is still writing the slot, never write it concurrently;
+        // a producer a whole ring late finds a newer event, never replace it with an older one
+        if ((state & 1) != 0 || state >= 2 * sequence + 1
+                || !states.compareAndSet(index, state, 2 * sequence + 1)) {
+            lostCount.incrementAndGet();
+            return;
+        }
+        Slot slot = slots[index];
+        slot.timeMillis = System.currentTimeMillis();
+        slot.level = level;
+        slot.loggerName = loggerName;
+        slot.threadName = Thread.currentThread().getName();
+        slot.throwable = throwable;
+        slot.format = format;
+        slot.args = args;
+        slot.printf = printf;
+        states.set(index, 2 * sequence + 2);
+    }
+
+    /**
+     * Copies the events kept, without stopping the producers.
+     *
+     * @return the events from the oldest, the events written during the copy are skipped.
+     */
+    public List<Event> snapshot() {
+        long end = next.get();
+        long start = Math.max(0, end - slots.length);
+        List<Event> events = new ArrayList<Event>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            int index = (int) (sequence & mask);
+            long written = 2 * sequence + 2;
+            if (states.get(index) != written) {
+                // being written, overwritten or lost
+                continue;
+            }
+            Slot slot = slots[index];
+            Event event = new Event(slot.timeMillis, slot.level, slot.loggerName, slot.threadName,
+                    slot.throwable, slot.format, slot.args, slot.printf);
+            // the slot was not reused during the copy
+            if (states.get(index) == written) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Writes the events kept to the writer, one line per event followed by the stack trace
+     * of the throwable if any.
+     *
+     * @param writer the writer, not closed.
+     * @return the count of events written.
+     * @throws IOException if the writer throws.
+     */
+    public int dump(Writer writer) throws IOException {
+        SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
+        List<Event> events = snapshot();
+        StringBuilder builder = new StringBuilder(256);
+        for (Event event : events) {
+            builder.setLength(0);
+            event.appendTo(builder, dateFormat);
+            builder.append('\n');
+            writer.write(builder.toString());
+        }
+        writer.flush();
+        return events.size();
+    }
+
+    /**
+     * Writes the events kept to the file, replacing it.
+     *
+     * @param file the file.
+     * @return the count of events written.
+     * @throws IOException if the file can not be written.
+     */
+    public int dump(File file) throws IOException {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            return dump(writer);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * A recorded event, rendered on demand.
+     */
+    public static final class Event {
+        private final long timeMillis;
+        private final LEVEL level;
+        private final String loggerName;
+        private final String threadName;
+        private final Throwable throwable;
+        private final String format;
+        private final Object[] args;
+        private final boolean printf;
+
+        Event(long timeMillis, LEVEL level, String loggerName, String threadName, Throwable throwable,
+              String format, Object[] args, boolean printf) {
+            this.timeMillis = timeMillis;
+            this.level = level;
+            this.loggerName = loggerName;
+            this.threadName = threadName;
+            this.throwable = throwable;
+            this.format = format;
+            this.args = args;
+            this.printf = printf;
+        }
+
+        public long getTimeMillis() {
+            return timeMillis;
+        }
+
+        public LEVEL getLevel() {
+            return level;
+        }
+
+        public String getLoggerName() {
+            return loggerName;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        /**
+         * Returns the throwable of the event or the last argument not consumed by the format.
+         *
+         * @return the throwable, can be {@code null}.
+         */
+        public Throwable getThrowable() {
+            if (null != throwable || printf || null == format) {
+                return throwable;
+            }
+            return MessageTemplateCache.getDefault().get(format).getThrowable(args);
+        }
+
+        /**
+         * Renders the message with the arguments.
+         *
+         * @return the message, can be empty.
+         */
+        public String getMessage() {
+            StringBuilder builder = new StringBuilder();
+            appendMessage(builder);
+            return builder.toString();
+        }
+
+        private void appendMessage(StringBuilder builder) {
+            if (null == format) {
+                return;
+            }
+            if (!printf) {
+                MessageTemplateCache.getDefault().get(format).render(builder, args);
+                return;
+            }
+            try {
+                builder.append(null == args ? format
+                        : String.format(format, PatternLoggerHandler.getSuppliedArguments(args)));
+            } catch (IllegalFormatException e) {
+                builder.append(format);
+            }
+        }
+
+        void appendTo(StringBuilder builder, SimpleDateFormat dateFormat) {
+            builder.append(dateFormat.format(new Date(timeMillis))).append(' ')
+                    .append(level).append('/').append(loggerName)
+                    .append('(').append(threadName).append("): ");
+            try {
+                appendMessage(builder);
+            } catch (RuntimeException e) {
+                // an argument failed now, the dump goes on
+                builder.append("[FAILED toString()]");
+            }
+            Throwable t = getThrowable();
+            if (null != t) {
+                builder.append('\n').append(Utils.getStackTraceString(t));
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            appendTo(builder, new SimpleDateFormat(DATE_FORMAT));
+            return builder.toString();
+        }
+    }
+}
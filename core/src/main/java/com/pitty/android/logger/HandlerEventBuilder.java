@@ -0,0 +1,176 @@
+package com.pitty.android.logger;
+
+/**
+ * The {@link LogEventBuilder} printing to a {@link LoggerHandler}.
+ */
+public final class HandlerEventBuilder implements LogEventBuilder {
+
+    /**
+     * The builder returned for disabled levels, it ignores everything.
+     */
+    public static final LogEventBuilder NOOP = new LogEventBuilder() {
+        @Override
+        public LogEventBuilder add(boolean value) {
+            return this;
+        }
+
+        @Override
+        public LogEventBuilder add(char value) {
+            return this;
+        }
+
+        @Override
+        public LogEventBuilder add(int value) {
+            return this;
+        }
+
+        @Override
+        public LogEventBuilder add(long value) {
+            return this;
+        }
+
+        @Override
+        public LogEventBuilder add(float value) {
+            return this;
+        }
+
+        @Override
+        public LogEventBuilder add(double value) {
+            return this;
+        }
+
+        @Override
+        public LogEventBuilder add(Object value) {
+            return this;
+        }
+
+        @Override
+        public LogEventBuilder setCause(Throwable cause) {
+            return this;
+        }
+
+        @Override
+        public LogEventBuilder setCallSite(CallSite callSite) {
+            return this;
+        }
+
+        @Override
+        public void log(String format) {
+        }
+    };
+
+    private static final ThreadLocal<HandlerEventBuilder> BUILDER = new ThreadLocal<HandlerEventBuilder>() {
+        @Override
+        protected HandlerEventBuilder initialValue() {
+            return new HandlerEventBuilder();
+        }
+    };
+
+    /**
+     * Returns the builder of the current thread, or a new one if it is being used,
+     * e.g. when an argument logs from its {@code toString()}.
+     * <p/>
+     * The new builder becomes the builder of the thread, so a builder whose {@link #log(String)}
+     * was never called, e.g. because an argument threw, is not kept by the thread.
+     * <p/>
+     * The level is not checked, callers return {@link #NOOP} for disabled levels.
+     *
+     * @param handler    the handler.
+     * @param loggerName the logger name.
+     * @param level      the level.
+     * @return the builder.
+     */
+    public static LogEventBuilder get(LoggerHandler handler, String loggerName, LEVEL level) {
+        HandlerEventBuilder builder = BUILDER.get();
+        if (builder.handler != null) {
+            builder = new HandlerEventBuilder();
+            BUILDER.set(builder);
+        }
+        builder.handler = handler;
+        builder.loggerName = loggerName;
+        builder.level = level;
+        return builder;
+    }
+
+    private final LogArguments arguments = new LogArguments();
+    private LoggerHandler handler;
+    private String loggerName;
+    private LEVEL level;
+    private Throwable cause;
+    private CallSite callSite;
+
+    private HandlerEventBuilder() {
+    }
+
+    @Override
+    public LogEventBuilder add(boolean value) {
+        arguments.add(value);
+        return this;
+    }
+
+    @Override
+    public LogEventBuilder add(char value) {
+        arguments.add(value);
+        return this;
+    }
+
+    @Override
+    public LogEventBuilder add(int value) {
+        arguments.add(value);
+        return this;
+    }
+
+    @Override
+    public LogEventBuilder add(long value) {
+        arguments.add(value);
+        return this;
+    }
+
+    @Override
+    public LogEventBuilder add(float value) {
+        arguments.add(value);
+        return this;
+    }
+
+    @Override
+    public LogEventBuilder add(double value) {
+        arguments.add(value);
+        return this;
+    }
+
+    @Override
+    public LogEventBuilder add(Object value) {
+        arguments.add(value);
+        return this;
+    }
+
+    @Override
+    public LogEventBuilder setCause(Throwable cause) {
+        this.cause = cause;
+        return this;
+    }
+
+    @Override
+    public LogEventBuilder setCallSite(CallSite callSite) {
+        this.callSite = callSite;
+        return this;
+    }
+
+    @Override
+    public void log(String format) {
+        LoggerHandler handler = this.handler;
+        if (handler == null) {
+            // used twice
+            return;
+        }
+        try {
+            handler.log(callSite, loggerName, level, cause, format, arguments);
+        } finally {
+            arguments.clear();
+            this.handler = null;
+            this.loggerName = null;
+            this.cause = null;
+            this.callSite = null;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.pitty.android.logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * {@link LogUploader.Transport} posting the batches to an HTTP endpoint with {@link HttpURLConnection}.
+ * <p/>
+ * A batch is posted as gzip encoded text with its id in the "X-Log-Batch" header. A 2xx response
+ * means the batch was received, 3xx, 408, 429 and 5xx responses are retried, the other ones reject it.
+ * A redirect is not followed, the batch is retried until the URL is fixed.
+ */
+public class HttpLogTransport implements LogUploader.Transport {
+    public static final String BATCH_HEADER = "X-Log-Batch";
+    public static final int DEFAULT_TIMEOUT_MILLIS = 30 * 1000;
+
+    private final URL url;
+    private final int timeoutMillis;
+
+    /**
+     * Creates new {@link HttpLogTransport}.
+     *
+     * @param url the endpoint.
+     */
+    public HttpLogTransport(URL url) {
+        this(url, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Creates new {@link HttpLogTransport}.
+     *
+     * @param url           the endpoint.
+     * @param timeoutMillis the connect and read timeout.
+     */
+    public HttpLogTransport(URL url, int timeoutMillis) {
+        this.url = url;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Opens the connection, override to add headers, e.g. an authorization.
+     *
+     * @return the connection, not connected yet.
+     * @throws IOException if it can not be opened.
+     */
+    protected HttpURLConnection openConnection() throws IOException {
+        return (HttpURLConnection) url.openConnection();
+    }
+
+    @Override
+    public void send(String batchId, File batch) throws IOException {
+        HttpURLConnection connection = openConnection();
+        try {
+            connection.setConnectTimeout(timeoutMillis);
+            connection.setReadTimeout(timeoutMillis);
+            connection.setDoOutput(true);
+            // a redirect of a streamed body can not be followed, it is reported as is
+            connection.setInstanceFollowRedirects(false);
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "text/plain; charset=UTF-8");
+            connection.setRequestProperty("Content-Encoding", "gzip");
+            connection.setRequestProperty(BATCH_HEADER, batchId);
+            connection.setFixedLengthStreamingMode((int) batch.length());
+            OutputStream out = connection.getOutputStream();
+            InputStream in = new FileInputStream(batch);
+            try {
+                byte[] buffer = new byte[8192];
+                for (int read; (read = in.read(buffer)) > 0; ) {
+                    out.write(buffer, 0, read);
+                }
+            } finally {
+                in.close();
+                out.close();
+            }
+            int code = connection.getResponseCode();
+            drain(code < 400 ? connection.getInputStream() : connection.getErrorStream());
+            if (code / 100 == 2) {
+                return;
+            }
+            String message = "HTTP " + code + " for batch " + batchId;
+            if (code / 100 == 3 || code == 408 || code == 429 || code >= 500) {
+                throw new IOException(message);
+            }
+            throw new LogUploader.RejectedException(message);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Reads and closes the response.
+     */
+    private static void drain(InputStream in) throws IOException {
+        if (null == in) {
+            return;
+        }
+        try {
+            byte[] buffer = new byte[1024];
+            while (in.read(buffer) > 0) {
+                // ignore
+            }
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.pitty.android.logger;
+
+import org.slf4j.MDC;
+
+import java.util.Map;
+
+/**
+ * The {@link LoggerHandler} writing every event as one line of JSON:
+ * <pre>
+ * {"timestamp":1373647526315,"level":"D","logger":"com.example.Main","tag":"Main","thread":"main",
+ * "caller":"com.example.Main.onCreate:154","mdc":{"user":"42"},"message":"created","throwable":"..."}
+ * </pre>
+ * "caller", "mdc" and "throwable" are omitted when they are unknown or empty.
+ * It is selected by the message pattern {@value #PATTERN} in the configuration, the caller
+ * is then printed only if it is known in advance (see {@link Logged}). The pattern
+ * {@value #PATTERN_CALLER} looks for it in the stack trace as "%caller" does.
+ * <p/>
+ * The event is escaped straight into the buffer of the thread, nothing is allocated per field.
+ */
+public class JsonLoggerHandler extends PatternLoggerHandler {
+    public static final String PATTERN = "%json";
+    public static final String PATTERN_CALLER = "%json{caller}";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final boolean callerNeeded;
+
+    /**
+     * Creates new {@link JsonLoggerHandler}.
+     *
+     * @param level              the level.
+     * @param tag                the tag.
+     * @param tagPattern         the tag pattern.
+     * @param compiledTagPattern the compiled tag pattern.
+     * @param messagePattern     {@link #PATTERN} or {@link #PATTERN_CALLER}.
+     * @param sink               the sink, {@code null} means the default sink.
+     */
+    public JsonLoggerHandler(LEVEL level, String tag, String tagPattern, LoggerPattern compiledTagPattern,
+                             String messagePattern, LogSink sink) {
+        super(level, tag, tagPattern, compiledTagPattern, messagePattern, null, sink);
+        this.callerNeeded = PATTERN_CALLER.equals(messagePattern);
+    }
+
+    /**
+     * Checks if the message pattern selects this handler.
+     *
+     * @param messagePattern the message pattern, can be {@code null}.
+     * @return {@code true} for {@link #PATTERN} and {@link #PATTERN_CALLER}.
+     */
+    public static boolean isJsonPattern(String messagePattern) {
+        return PATTERN.equals(messagePattern) || PATTERN_CALLER.equals(messagePattern);
+    }
+
+    @Override
+    boolean isCallerNeeded() {
+        return callerNeeded || super.isCallerNeeded();
+    }
+
+    @Override
+    void appendText(StringBuilder builder, long timeMillis, String loggerName, String tag, LEVEL level,
+                    StackTraceElement caller, Throwable throwable,
+                    String message, MessageTemplate template, Object[] args, LogArguments arguments) {
+        builder.append("{\"timestamp\":").append(timeMillis);
+        builder.append(",\"level\":\"").append(level.name()).append('"');
+        appendField(builder, "logger", loggerName);
+        appendField(builder, "tag", tag);
+        appendField(builder, "thread", Thread.currentThread().getName());
+        if (caller != null) {
+            builder.append(",\"caller\":\"");
+            appendEscaped(builder, caller.getClassName(), 0, caller.getClassName().length());
+            builder.append('.');
+            appendEscaped(builder, caller.getMethodName(), 0, caller.getMethodName().length());
+            builder.append(':').append(caller.getLineNumber()).append('"');
+        }
+        Map<?, ?> mdc = MDC.getCopyOfContextMap();
+        if (mdc != null && !mdc.isEmpty()) {
+            builder.append(",\"mdc\":{");
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : mdc.entrySet()) {
+                if (!first) {
+                    builder.append(',');
+                }
+                first = false;
+                appendString(builder, String.valueOf(entry.getKey()));
+                builder.append(':');
+                appendString(builder, String.valueOf(entry.getValue()));
+            }
+            builder.append('}');
+        }
+        builder.append(",\"message\":\"");
+        // the message is rendered after the line, escaped, then the raw copy is removed
+        int start = builder.length();
+        appendMessage(builder, message, template, args, arguments);
+        int end = builder.length();
+        appendEscaped(builder, builder, start, end);
+        builder.delete(start, end);
+        builder.append('"');
+        if (throwable != null) {
+            appendField(builder, "throwable", Utils.getStackTraceString(throwable));
+        }
+        builder.append('}');
+    }
+
+    private static void appendField(StringBuilder builder, String name, String value) {
+        if (value != null) {
+            builder.append(",\"").append(name).append("\":");
+            appendString(builder, value);
+        }
+    }
+
+    private static void appendString(StringBuilder builder, String value) {
+        builder.append('"');
+        appendEscaped(builder, value, 0, value.length());
+        builder.append('"');
+    }
+
+    /**
+     * Appends the characters escaped for a JSON string.
+     *
+     * @param builder the builder.
+     * @param chars   the characters, can be the builder itself.
+     * @param start   the index of the first character.
+     * @param end     the index after the last character.
+     */
+    static void appendEscaped(StringBuilder builder, CharSequence chars, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = chars.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                case '\b':
+                    builder.append("\\b");
+                    break;
+                case '\f':
+                    builder.append("\\f");
+                    break;
+                default:
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        builder.append("\\u")
+                                .append(HEX[(c >> 12) & 0xf]).append(HEX[(c >> 8) & 0xf])
+                                .append(HEX[(c >> 4) & 0xf]).append(HEX[c & 0xf]);
+                    } else {
+                        builder.append(c);
+                    }
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.pitty.android.logger;
+
+/**
+ * Created by Pitty on 14/10/20.
+ */
+public enum  LEVEL {
+    O, //OFF
+    A,  // Assert
+    E, // Error
+    W, // Warn
+    I, // Info
+    D, // Debug
+    V // Verbose
+    ;
+
+    // android.util.Log priorities, copied to keep this class free of the Android framework.
+    private static final int VERBOSE = 2;
+    private static final int DEBUG = 3;
+    private static final int INFO = 4;
+    private static final int WARN = 5;
+    private static final int ERROR = 6;
+    private static final int ASSERT = 7;
+
+    /**
+     * Returns the priority used by {@code android.util.Log} for this level.
+     *
+     * @return the priority, or 0 for {@link #O}.
+     */
+    public int toLog() {
+        switch (this) {
+            case A:
+                return ASSERT;
+            case E:
+                return ERROR;
+            case W:
+                return WARN;
+            case I:
+                return INFO;
+            case D:
+                return DEBUG;
+            case V:
+                return VERBOSE;
+            default:
+                return 0;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.pitty.android.logger;
+
+/**
+ * A growable list of message arguments which keeps primitive values unboxed.
+ * <p/>
+ * Instances are reused, they are not thread safe.
+ */
+public final class LogArguments {
+    private static final byte TYPE_BOOLEAN = 0;
+    private static final byte TYPE_CHAR = 1;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_FLOAT = 4;
+    private static final byte TYPE_DOUBLE = 5;
+    private static final byte TYPE_OBJECT = 6;
+
+    private byte[] types = new byte[8];
+    private long[] values = new long[8];
+    private Object[] objects = new Object[8];
+    private int size;
+
+    public LogArguments add(boolean value) {
+        return add(TYPE_BOOLEAN, value ? 1 : 0, null);
+    }
+
+    public LogArguments add(char value) {
+        return add(TYPE_CHAR, value, null);
+    }
+
+    public LogArguments add(int value) {
+        return add(TYPE_INT, value, null);
+    }
+
+    public LogArguments add(long value) {
+        return add(TYPE_LONG, value, null);
+    }
+
+    public LogArguments add(float value) {
+        return add(TYPE_FLOAT, Float.floatToRawIntBits(value), null);
+    }
+
+    public LogArguments add(double value) {
+        return add(TYPE_DOUBLE, Double.doubleToRawLongBits(value), null);
+    }
+
+    public LogArguments add(Object value) {
+        return add(TYPE_OBJECT, 0, value);
+    }
+
+    private LogArguments add(byte type, long value, Object object) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            byte[] newTypes = new byte[capacity];
+            long[] newValues = new long[capacity];
+            Object[] newObjects = new Object[capacity];
+            System.arraycopy(types, 0, newTypes, 0, size);
+            System.arraycopy(values, 0, newValues, 0, size);
+            System.arraycopy(objects, 0, newObjects, 0, size);
+            types = newTypes;
+            values = newValues;
+            objects = newObjects;
+        }
+        types[size] = type;
+        values[size] = value;
+        objects[size] = object;
+        size++;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the arguments and the references to them.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            objects[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Appends the argument to the builder without boxing primitive values.
+     *
+     * @param builder the builder.
+     * @param index   the index of the argument.
+     */
+    public void appendTo(StringBuilder builder, int index) {
+        long value = values[index];
+        switch (types[index]) {
+            case TYPE_BOOLEAN:
+                builder.append(value != 0);
+                break;
+            case TYPE_CHAR:
+                builder.append((char) value);
+                break;
+            case TYPE_INT:
+                builder.append((int) value);
+                break;
+            case TYPE_LONG:
+                builder.append(value);
+                break;
+            case TYPE_FLOAT:
+                builder.append(Float.intBitsToFloat((int) value));
+                break;
+            case TYPE_DOUBLE:
+                builder.append(Double.longBitsToDouble(value));
+                break;
+            default:
+                MessageTemplate.appendArgument(builder, objects[index], null);
+                break;
+        }
+    }
+
+    /**
+     * Returns the argument, boxed if it is primitive.
+     *
+     * @param index the index of the argument.
+     * @return the argument.
+     */
+    public Object get(int index) {
+        long value = values[index];
+        switch (types[index]) {
+            case TYPE_BOOLEAN:
+                return value != 0;
+            case TYPE_CHAR:
+                return (char) value;
+            case TYPE_INT:
+                return (int) value;
+            case TYPE_LONG:
+                return value;
+            case TYPE_FLOAT:
+                return Float.intBitsToFloat((int) value);
+            case TYPE_DOUBLE:
+                return Double.longBitsToDouble(value);
+            default:
+                return objects[index];
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.pitty.android.logger;
+
+/**
+ * A single log event produced by a {@link LoggerHandler} and passed to a {@link LogSink}.
+ * <p/>
+ * The event carries the rendered tag and message together with the raw data
+ * they were rendered from, so sinks can choose their own output format.
+ */
+public final class LogEvent {
+    private final long timeMillis;
+    private final LEVEL level;
+    private final String loggerName;
+    private final String tag;
+    private final String message;
+    private final Throwable throwable;
+    private final StackTraceElement caller;
+
+    /**
+     * Creates new {@link LogEvent}.
+     *
+     * @param timeMillis the event time, see {@link System#currentTimeMillis()}.
+     * @param level      the level.
+     * @param loggerName the name of the logger.
+     * @param tag        the rendered tag.
+     * @param message    the rendered message.
+     * @param throwable  a throwable object or {@code null}.
+     * @param caller     the caller or {@code null} if it was not resolved.
+     */
+    public LogEvent(long timeMillis, LEVEL level, String loggerName, String tag, String message,
+                    Throwable throwable, StackTraceElement caller) {
+        this.timeMillis = timeMillis;
+        this.level = level;
+        this.loggerName = loggerName;
+        this.tag = tag;
+        this.message = message;
+        this.throwable = throwable;
+        this.caller = caller;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public LEVEL getLevel() {
+        return level;
+    }
+
+    public String getLoggerName() {
+        return loggerName;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Throwable getThrowable() {
+        return throwable;
+    }
+
+    /**
+     * Returns the caller.
+     *
+     * @return the caller or {@code null} if none of the handler patterns needed it.
+     */
+    public StackTraceElement getCaller() {
+        return caller;
+    }
+
+    @Override
+    public String toString() {
+        return level + "/" + tag + ": " + message;
+    }
+}
@@ -0,0 +1,52 @@
+package com.pitty.android.logger;
+
+/**
+ * A fluent log call which does not box primitive arguments:
+ * <pre>
+ * logger.atDebug().add(rtt).add(seq).log("rtt={} seq={}");
+ * </pre>
+ * If the level is disabled a shared no-op builder is returned, so nothing is allocated.
+ * Otherwise the builder of the current thread is reused and primitive arguments are
+ * appended straight to the message buffer.
+ * <p/>
+ * A builder must be used right away by the thread which got it, and only once.
+ */
+public interface LogEventBuilder {
+
+    public LogEventBuilder add(boolean value);
+
+    public LogEventBuilder add(char value);
+
+    public LogEventBuilder add(int value);
+
+    public LogEventBuilder add(long value);
+
+    public LogEventBuilder add(float value);
+
+    public LogEventBuilder add(double value);
+
+    public LogEventBuilder add(Object value);
+
+    /**
+     * Sets the throwable of the event.
+     *
+     * @param cause the throwable.
+     * @return this builder.
+     */
+    public LogEventBuilder setCause(Throwable cause);
+
+    /**
+     * Sets the caller of the event, see {@link Logged}.
+     *
+     * @param callSite the caller.
+     * @return this builder.
+     */
+    public LogEventBuilder setCallSite(CallSite callSite);
+
+    /**
+     * Logs the event.
+     *
+     * @param format the SLF4J format string, with a "{}" placeholder per argument.
+     */
+    public void log(String format);
+}
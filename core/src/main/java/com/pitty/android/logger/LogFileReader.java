@@ -0,0 +1,385 @@
+package com.pitty.android.logger;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Searches the files of a {@link FileLogSink} by time range, level and tag.
+ * <p/>
+ * The index of every segment tells which blocks can hold matching records, only these blocks
+ * and the records written after the last index entry are read, by positional reads of the file
+ * channel into one buffer reused by the blocks of a search. A time window of a few seconds reads
+ * a few blocks whatever the size of the files. The files are not memory mapped: a mapping lives
+ * until the buffer is garbage collected, and holds the deleted segments on the disk until then.
+ * <p/>
+ * The reader can run while the sink writes, it only sees what the sink has flushed.
+ */
+public class LogFileReader {
+
+    /**
+     * Receives the records found.
+     */
+    public interface Callback {
+        /**
+         * Called for every matching record, in the order of the files.
+         *
+         * @param record the record.
+         * @return {@code false} to stop the search.
+         */
+        boolean onRecord(Record record);
+    }
+
+    /**
+     * A record of a file.
+     */
+    public static final class Record {
+        private final long timeMillis;
+        private final LEVEL level;
+        private final String tag;
+        private final String message;
+
+        Record(long timeMillis, LEVEL level, String tag, String message) {
+            this.timeMillis = timeMillis;
+            this.level = level;
+            this.tag = tag;
+            this.message = message;
+        }
+
+        public long getTimeMillis() {
+            return timeMillis;
+        }
+
+        public LEVEL getLevel() {
+            return level;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return new SimpleDateFormat(FileLogSink.DATE_FORMAT).format(timeMillis) + " " + level + "/" + tag + ": " + message;
+        }
+    }
+
+    // "yyyy-MM-dd HH:mm", the rest is "ss.SSS"
+    private static final int MINUTE_LENGTH = 16;
+    private static final int DATE_LENGTH = FileLogSink.DATE_FORMAT.length();
+
+    private final File directory;
+    private final String name;
+    private final SimpleDateFormat minuteFormat = new SimpleDateFormat(FileLogSink.DATE_FORMAT.substring(0, MINUTE_LENGTH));
+    private final byte[] minute = new byte[MINUTE_LENGTH];
+    private long minuteMillis = -1;
+    private long scannedBytes;
+    // the block read, kept for the next block of the search
+    private ByteBuffer block;
+
+    /**
+     * Creates new {@link LogFileReader}.
+     *
+     * @param directory the directory of the files.
+     * @param name      the prefix of the file names.
+     */
+    public LogFileReader(File directory, String name) {
+        this.directory = directory;
+        this.name = name;
+    }
+
+    /**
+     * Creates new {@link LogFileReader} of the files of the sink.
+     *
+     * @param sink the sink.
+     */
+    public LogFileReader(SegmentedLogSink sink) {
+        this(sink.getDirectory(), sink.getName());
+    }
+
+    /**
+     * Returns the count of bytes of records read by the searches, to check the index is used.
+     *
+     * @return the count.
+     */
+    public long getScannedBytes() {
+        return scannedBytes;
+    }
+
+    /**
+     * Finds the records of a time range.
+     *
+     * @param fromMillis the min time, included.
+     * @param toMillis   the max time, included.
+     * @param level      the most verbose level accepted, {@code null} for all.
+     * @param tag        the tag, {@code null} for all.
+     * @return the records.
+     * @throws IOException if a file can not be read.
+     */
+    public List<Record> search(long fromMillis, long toMillis, LEVEL level, String tag) throws IOException {
+        final List<Record> records = new ArrayList<Record>();
+        search(fromMillis, toMillis, level, tag, new Callback() {
+            @Override
+            public boolean onRecord(Record record) {
+                records.add(record);
+                return true;
+            }
+        });
+        return records;
+    }
+
+    /**
+     * Streams the records of a time range to the callback.
+     *
+     * @param fromMillis the min time, included.
+     * @param toMillis   the max time, included.
+     * @param level      the most verbose level accepted, {@code null} for all.
+     * @param tag        the tag, {@code null} for all.
+     * @param callback   the callback.
+     * @throws IOException if a file can not be read.
+     */
+    public void search(long fromMillis, long toMillis, LEVEL level, String tag, Callback callback) throws IOException {
+        int maxLevel = null == level ? FileLogSink.LEVEL_COUNT - 1 : level.ordinal();
+        try {
+            for (File segment : FileLogSink.listSegments(directory, name)) {
+                if (!searchSegment(segment, fromMillis, toMillis, maxLevel, tag, callback)) {
+                    return;
+                }
+            }
+        } finally {
+            block = null;
+        }
+    }
+
+    private boolean searchSegment(File segment, long fromMillis, long toMillis, int maxLevel, String tag,
+                                  Callback callback) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(segment, "r");
+        try {
+            long length = file.length();
+            if (length == 0) {
+                return true;
+            }
+            if (length > Integer.MAX_VALUE) {
+                length = Integer.MAX_VALUE;
+            }
+            FileChannel channel = file.getChannel();
+            long indexed = 0;
+            DataInputStream index = openIndex(segment);
+            if (null != index) {
+                try {
+                    long[] entry = new long[4];
+                    int[] counts = new int[FileLogSink.LEVEL_COUNT];
+                    while (readEntry(index, entry, counts)) {
+                        long offset = entry[0];
+                        long end = entry[1];
+                        if (end > length) {
+                            // the data was not flushed with the index
+                            break;
+                        }
+                        indexed = end;
+                        if (entry[3] < fromMillis || entry[2] > toMillis || !hasLevel(counts, maxLevel)) {
+                            continue;
+                        }
+                        if (!scan(read(channel, offset, end), fromMillis, toMillis, maxLevel, tag, callback)) {
+                            return false;
+                        }
+                    }
+                } finally {
+                    index.close();
+                }
+            }
+            // the records of the block not indexed yet
+            return scan(read(channel, indexed, length), fromMillis, toMillis, maxLevel, tag, callback);
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Reads the bytes between start and end, less if the file was truncated, into the block buffer.
+     */
+    private ByteBuffer read(FileChannel channel, long start, long end) throws IOException {
+        int size = (int) (end - start);
+        if (null == block || block.capacity() < size) {
+            block = ByteBuffer.allocate(Math.max(size, FileLogSink.DEFAULT_BLOCK_SIZE));
+        }
+        block.clear();
+        block.limit(size);
+        while (block.hasRemaining()) {
+            if (channel.read(block, start + block.position()) < 0) {
+                break;
+            }
+        }
+        block.flip();
+        return block;
+    }
+
+    private static DataInputStream openIndex(File segment) {
+        File indexFile = FileLogSink.getIndexFile(segment);
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        try {
+            return new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+        } catch (IOException e) {
+            // scan the whole segment
+            return null;
+        }
+    }
+
+    private static boolean readEntry(DataInputStream index, long[] entry, int[] counts) throws IOException {
+        try {
+            for (int i = 0; i < entry.length; i++) {
+                entry[i] = index.readLong();
+            }
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = index.readInt();
+            }
+            return true;
+        } catch (EOFException e) {
+            // the last entry may be partly written
+            return false;
+        }
+    }
+
+    private static boolean hasLevel(int[] counts, int maxLevel) {
+        for (int i = 0; i <= maxLevel; i++) {
+            if (counts[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the records of a block.
+     */
+    private boolean scan(ByteBuffer buffer, long fromMillis, long toMillis, int maxLevel,
+                         String tag, Callback callback) {
+        int limit = buffer.limit();
+        int position = 0;
+        while (position < limit) {
+            int recordEnd = findRecordEnd(buffer, position, limit);
+            if (recordEnd < 0) {
+                // a record being written
+                break;
+            }
+            scannedBytes += recordEnd - position;
+            Record record = parse(buffer, position, recordEnd, fromMillis, toMillis, maxLevel, tag);
+            if (null != record && !callback.onRecord(record)) {
+                return false;
+            }
+            position = recordEnd;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the offset after the '\n' of the last line of the record, -1 if the record is not complete.
+     */
+    private static int findRecordEnd(ByteBuffer buffer, int position, int limit) {
+        for (int i = position; i < limit; i++) {
+            if (buffer.get(i) == '\n' && (i + 1 == limit || buffer.get(i + 1) != '\t')) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses the record if it matches, the message is only decoded then.
+     */
+    private Record parse(ByteBuffer buffer, int start, int end, long fromMillis, long toMillis, int maxLevel,
+                         String tag) {
+        // "yyyy-MM-dd HH:mm:ss.SSS L/TAG: MESSAGE\n"
+        if (end - start < DATE_LENGTH + 5 || buffer.get(start + DATE_LENGTH) != ' '
+                || buffer.get(start + DATE_LENGTH + 2) != '/') {
+            return null;
+        }
+        long timeMillis = parseTime(buffer, start);
+        if (timeMillis < fromMillis || timeMillis > toMillis) {
+            return null;
+        }
+        LEVEL level = toLevel(buffer.get(start + DATE_LENGTH + 1));
+        if (null == level || level.ordinal() > maxLevel) {
+            return null;
+        }
+        int tagStart = start + DATE_LENGTH + 3;
+        int tagEnd = tagStart;
+        while (tagEnd + 1 < end && (buffer.get(tagEnd) != ':' || buffer.get(tagEnd + 1) != ' ')) {
+            tagEnd++;
+        }
+        if (tagEnd + 1 >= end) {
+            return null;
+        }
+        String recordTag = decode(buffer, tagStart, tagEnd);
+        if (null != tag && !tag.equals(recordTag)) {
+            return null;
+        }
+        String message = decode(buffer, tagEnd + 2, end - 1);
+        return new Record(timeMillis, level, recordTag, message.replace("\n\t", "\n"));
+    }
+
+    private long parseTime(ByteBuffer buffer, int start) {
+        boolean sameMinute = minuteMillis >= 0;
+        for (int i = 0; i < MINUTE_LENGTH && sameMinute; i++) {
+            sameMinute = minute[i] == buffer.get(start + i);
+        }
+        if (!sameMinute) {
+            for (int i = 0; i < MINUTE_LENGTH; i++) {
+                minute[i] = buffer.get(start + i);
+            }
+            try {
+                minuteMillis = minuteFormat.parse(new String(minute, 0, MINUTE_LENGTH, "US-ASCII")).getTime();
+            } catch (ParseException e) {
+                minuteMillis = -1;
+                return -1;
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }
+        // ":ss.SSS"
+        int seconds = digit(buffer, start + 17) * 10 + digit(buffer, start + 18);
+        int millis = digit(buffer, start + 20) * 100 + digit(buffer, start + 21) * 10 + digit(buffer, start + 22);
+        return minuteMillis + seconds * 1000L + millis;
+    }
+
+    private static int digit(ByteBuffer buffer, int index) {
+        return buffer.get(index) - '0';
+    }
+
+    private static LEVEL toLevel(byte b) {
+        for (LEVEL level : LEVEL.values()) {
+            if (level.name().charAt(0) == b) {
+                return level;
+            }
+        }
+        return null;
+    }
+
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(start);
+        slice.get(bytes);
+        try {
+            return new String(bytes, "UTF-8");
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
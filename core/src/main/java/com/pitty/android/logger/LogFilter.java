@@ -0,0 +1,434 @@
+package com.pitty.android.logger;
+
+import org.slf4j.Marker;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A compiled filter expression of the config file, checked after the level:
+ * <pre>
+ * filter=((logger=com.foo.db.*&amp;level&gt;=W)|(logger~/.*Sync.*&#47;&amp;level&gt;=D))&amp;!marker=HEARTBEAT
+ * </pre>
+ * <table border=1>
+ * <tr><th>Term</th><th>Accepts</th></tr>
+ * <tr><td>level&gt;=W</td><td>the levels at least as severe as W, also &gt;, &lt;=, &lt; and =</td></tr>
+ * <tr><td>logger=com.foo.*</td><td>the logger names matching the glob, '*' is any text and '?' any char</td></tr>
+ * <tr><td>logger~/regex/</td><td>the logger names matching the regex, "\/" escapes '/'</td></tr>
+ * <tr><td>marker=NAME</td><td>the events with a marker named NAME or referencing it</td></tr>
+ * </table>
+ * Terms are combined with '!', '&amp;' and '|', in this order of precedence, and grouped with
+ * parentheses. The config file parser removes all the whitespace, so the expression has none.
+ * <p/>
+ * A logger binds the filter to its name once with {@link #bind(String)}: the logger terms
+ * become constants and the expression is simplified, usually to a table by level.
+ */
+public abstract class LogFilter {
+
+    public static final LogFilter ACCEPT = new ConstantFilter(true);
+    public static final LogFilter REJECT = new ConstantFilter(false);
+
+    /**
+     * Checks the event.
+     *
+     * @param loggerName the logger name.
+     * @param level      the level.
+     * @param marker     the marker, can be {@code null}.
+     * @return {@code true} if the event is printed.
+     */
+    public abstract boolean accept(String loggerName, LEVEL level, Marker marker);
+
+    /**
+     * Evaluates the terms depending on the logger name only.
+     *
+     * @param loggerName the logger name.
+     * @return the simplified filter, {@link #ACCEPT} or {@link #REJECT} if it is constant.
+     */
+    public abstract LogFilter bind(String loggerName);
+
+    /**
+     * Checks if the filter has a marker term.
+     *
+     * @return {@code true} if the markers of the events are checked.
+     */
+    public abstract boolean isMarkerNeeded();
+
+    /**
+     * Compiles the expression.
+     *
+     * @param expression the expression.
+     * @return the filter.
+     * @throws IllegalArgumentException if the expression is not valid.
+     */
+    public static LogFilter compile(String expression) throws IllegalArgumentException {
+        Parser parser = new Parser(expression);
+        LogFilter filter = parser.parseOr();
+        if (parser.position != expression.length()) {
+            throw parser.error("unexpected '" + expression.charAt(parser.position) + "'");
+        }
+        return filter;
+    }
+
+    private static final class Parser {
+        private final String expression;
+        int position;
+
+        Parser(String expression) {
+            this.expression = expression;
+        }
+
+        LogFilter parseOr() {
+            LogFilter filter = parseAnd();
+            while (consume('|')) {
+                filter = or(filter, parseAnd());
+            }
+            return filter;
+        }
+
+        LogFilter parseAnd() {
+            LogFilter filter = parseUnary();
+            while (consume('&')) {
+                filter = and(filter, parseUnary());
+            }
+            return filter;
+        }
+
+        LogFilter parseUnary() {
+            if (consume('!')) {
+                return not(parseUnary());
+            }
+            if (consume('(')) {
+                LogFilter filter = parseOr();
+                if (!consume(')')) {
+                    throw error("')' expected");
+                }
+                return filter;
+            }
+            return parseTerm();
+        }
+
+        LogFilter parseTerm() {
+            if (consume("level")) {
+                int operator;
+                if (consume(">=")) {
+                    operator = LevelFilter.AT_LEAST;
+                } else if (consume("<=")) {
+                    operator = LevelFilter.AT_MOST;
+                } else if (consume('>')) {
+                    operator = LevelFilter.ABOVE;
+                } else if (consume('<')) {
+                    operator = LevelFilter.BELOW;
+                } else if (consume('=')) {
+                    operator = LevelFilter.EQUAL;
+                } else {
+                    throw error("level operator expected");
+                }
+                String name = readName();
+                try {
+                    return new LevelFilter(operator, LEVEL.valueOf(name));
+                } catch (IllegalArgumentException e) {
+                    throw error("unknown level '" + name + "'");
+                }
+            }
+            if (consume("logger=")) {
+                return new LoggerFilter(globToRegex(readName()), true);
+            }
+            if (consume("logger~/")) {
+                StringBuilder regex = new StringBuilder();
+                while (position < expression.length() && expression.charAt(position) != '/') {
+                    char c = expression.charAt(position++);
+                    if (c == '\\' && position < expression.length() && expression.charAt(position) == '/') {
+                        c = expression.charAt(position++);
+                    }
+                    regex.append(c);
+                }
+                if (!consume('/')) {
+                    throw error("'/' expected");
+                }
+                try {
+                    return new LoggerFilter(Pattern.compile(regex.toString()), false);
+                } catch (PatternSyntaxException e) {
+                    throw error("invalid regex: " + e.getDescription());
+                }
+            }
+            if (consume("marker=")) {
+                return new MarkerFilter(readName());
+            }
+            throw error("term expected");
+        }
+
+        private String readName() {
+            int start = position;
+            while (position < expression.length() && "()&|!".indexOf(expression.charAt(position)) < 0) {
+                position++;
+            }
+            if (start == position) {
+                throw error("name expected");
+            }
+            return expression.substring(start, position);
+        }
+
+        private boolean consume(char c) {
+            if (position < expression.length() && expression.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean consume(String s) {
+            if (expression.startsWith(s, position)) {
+                position += s.length();
+                return true;
+            }
+            return false;
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at " + position + " in filter: " + expression);
+        }
+    }
+
+    private static Pattern globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (i > literalStart) {
+                    regex.append(Pattern.quote(glob.substring(literalStart, i)));
+                }
+                regex.append(c == '*' ? ".*" : ".");
+                literalStart = i + 1;
+            }
+        }
+        if (glob.length() > literalStart) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    static LogFilter not(LogFilter filter) {
+        if (filter == ACCEPT) {
+            return REJECT;
+        }
+        if (filter == REJECT) {
+            return ACCEPT;
+        }
+        return new NotFilter(filter);
+    }
+
+    static LogFilter and(LogFilter left, LogFilter right) {
+        if (left == REJECT || right == REJECT) {
+            return REJECT;
+        }
+        if (left == ACCEPT) {
+            return right;
+        }
+        if (right == ACCEPT) {
+            return left;
+        }
+        return new AndFilter(left, right);
+    }
+
+    static LogFilter or(LogFilter left, LogFilter right) {
+        if (left == ACCEPT || right == ACCEPT) {
+            return ACCEPT;
+        }
+        if (left == REJECT) {
+            return right;
+        }
+        if (right == REJECT) {
+            return left;
+        }
+        return new OrFilter(left, right);
+    }
+
+    private static final class ConstantFilter extends LogFilter {
+        private final boolean value;
+
+        ConstantFilter(boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean accept(String loggerName, LEVEL level, Marker marker) {
+            return value;
+        }
+
+        @Override
+        public LogFilter bind(String loggerName) {
+            return this;
+        }
+
+        @Override
+        public boolean isMarkerNeeded() {
+            return false;
+        }
+    }
+
+    private static final class NotFilter extends LogFilter {
+        private final LogFilter filter;
+
+        NotFilter(LogFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean accept(String loggerName, LEVEL level, Marker marker) {
+            return !filter.accept(loggerName, level, marker);
+        }
+
+        @Override
+        public LogFilter bind(String loggerName) {
+            return not(filter.bind(loggerName));
+        }
+
+        @Override
+        public boolean isMarkerNeeded() {
+            return filter.isMarkerNeeded();
+        }
+    }
+
+    private static final class AndFilter extends LogFilter {
+        private final LogFilter left;
+        private final LogFilter right;
+
+        AndFilter(LogFilter left, LogFilter right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean accept(String loggerName, LEVEL level, Marker marker) {
+            return left.accept(loggerName, level, marker) && right.accept(loggerName, level, marker);
+        }
+
+        @Override
+        public LogFilter bind(String loggerName) {
+            return and(left.bind(loggerName), right.bind(loggerName));
+        }
+
+        @Override
+        public boolean isMarkerNeeded() {
+            return left.isMarkerNeeded() || right.isMarkerNeeded();
+        }
+    }
+
+    private static final class OrFilter extends LogFilter {
+        private final LogFilter left;
+        private final LogFilter right;
+
+        OrFilter(LogFilter left, LogFilter right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean accept(String loggerName, LEVEL level, Marker marker) {
+            return left.accept(loggerName, level, marker) || right.accept(loggerName, level, marker);
+        }
+
+        @Override
+        public LogFilter bind(String loggerName) {
+            return or(left.bind(loggerName), right.bind(loggerName));
+        }
+
+        @Override
+        public boolean isMarkerNeeded() {
+            return left.isMarkerNeeded() || right.isMarkerNeeded();
+        }
+    }
+
+    private static final class LevelFilter extends LogFilter {
+        static final int AT_LEAST = 0;
+        static final int AT_MOST = 1;
+        static final int ABOVE = 2;
+        static final int BELOW = 3;
+        static final int EQUAL = 4;
+
+        private final int operator;
+        private final LEVEL level;
+
+        LevelFilter(int operator, LEVEL level) {
+            this.operator = operator;
+            this.level = level;
+        }
+
+        @Override
+        public boolean accept(String loggerName, LEVEL level, Marker marker) {
+            // the more severe, the lower the ordinal
+            int compare = this.level.ordinal() - level.ordinal();
+            switch (operator) {
+                case AT_LEAST:
+                    return compare >= 0;
+                case AT_MOST:
+                    return compare <= 0;
+                case ABOVE:
+                    return compare > 0;
+                case BELOW:
+                    return compare < 0;
+                default:
+                    return compare == 0;
+            }
+        }
+
+        @Override
+        public LogFilter bind(String loggerName) {
+            return this;
+        }
+
+        @Override
+        public boolean isMarkerNeeded() {
+            return false;
+        }
+    }
+
+    private static final class LoggerFilter extends LogFilter {
+        private final Pattern pattern;
+        private final boolean glob;
+
+        LoggerFilter(Pattern pattern, boolean glob) {
+            this.pattern = pattern;
+            this.glob = glob;
+        }
+
+        @Override
+        public boolean accept(String loggerName, LEVEL level, Marker marker) {
+            return loggerName != null && (glob ? pattern.matcher(loggerName).matches() : pattern.matcher(loggerName).find());
+        }
+
+        @Override
+        public LogFilter bind(String loggerName) {
+            return accept(loggerName, null, null) ? ACCEPT : REJECT;
+        }
+
+        @Override
+        public boolean isMarkerNeeded() {
+            return false;
+        }
+    }
+
+    private static final class MarkerFilter extends LogFilter {
+        private final String name;
+
+        MarkerFilter(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean accept(String loggerName, LEVEL level, Marker marker) {
+            return marker != null && marker.contains(name);
+        }
+
+        @Override
+        public LogFilter bind(String loggerName) {
+            return this;
+        }
+
+        @Override
+        public boolean isMarkerNeeded() {
+            return true;
+        }
+    }
+}
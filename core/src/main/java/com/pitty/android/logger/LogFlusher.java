@@ -0,0 +1,121 @@
+package com.pitty.android.logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Flushes the sinks when the app crashes or exits, so the last messages are not lost
+ * in a buffered sink, e.g. {@link CoalescingLogSink}.
+ * <p/>
+ * The flush runs on another thread and is waited for at most the time budget,
+ * a stuck sink can not hang the crash or the exit.
+ * <p/>
+ * Installed by the "flush.crash" and "flush.exit" keys of the config file, the time budget
+ * in milliseconds:
+ * <pre>
+ * flush.crash=500
+ * flush.exit=200
+ * </pre>
+ */
+public final class LogFlusher {
+    public static final String FATAL_TAG = "FATAL";
+
+    private final List<LogSink> sinks;
+    private final long budgetMillis;
+
+    /**
+     * Creates new {@link LogFlusher}.
+     *
+     * @param sinks        the sinks, the first one gets the uncaught throwables.
+     * @param budgetMillis the max time to wait for the flush.
+     */
+    public LogFlusher(Collection<LogSink> sinks, long budgetMillis) {
+        this.sinks = new ArrayList<LogSink>(sinks);
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Flushes the sinks, waiting at most the time budget.
+     *
+     * @return {@code true} if all the sinks were flushed in time.
+     */
+    public boolean flush() {
+        Thread thread = new Thread("LogFlusher") {
+            @Override
+            public void run() {
+                for (LogSink sink : sinks) {
+                    try {
+                        sink.flush();
+                    } catch (RuntimeException e) {
+                        // flush the others
+                    }
+                }
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            thread.join(budgetMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !thread.isAlive();
+    }
+
+    /**
+     * Logs the uncaught throwables and flushes the sinks before the handler installed before.
+     *
+     * @return the installed handler.
+     */
+    public Thread.UncaughtExceptionHandler installUncaughtExceptionHandler() {
+        Thread.UncaughtExceptionHandler handler = new FlushingExceptionHandler(Thread.getDefaultUncaughtExceptionHandler());
+        Thread.setDefaultUncaughtExceptionHandler(handler);
+        return handler;
+    }
+
+    /**
+     * Flushes the sinks when the VM exits.
+     *
+     * @return the installed hook.
+     */
+    public Thread installShutdownHook() {
+        Thread hook = new Thread("LogFlusher-exit") {
+            @Override
+            public void run() {
+                flush();
+            }
+        };
+        Runtime.getRuntime().addShutdownHook(hook);
+        return hook;
+    }
+
+    private final class FlushingExceptionHandler implements Thread.UncaughtExceptionHandler {
+        private final Thread.UncaughtExceptionHandler previous;
+
+        FlushingExceptionHandler(Thread.UncaughtExceptionHandler previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void uncaughtException(Thread thread, Throwable throwable) {
+            try {
+                if (!sinks.isEmpty()) {
+                    String message = "FATAL EXCEPTION: " + thread.getName() + "\n" + Utils.getStackTraceString(throwable);
+                    sinks.get(0).write(LEVEL.E, FATAL_TAG, message, new LogEvent(System.currentTimeMillis(),
+                            LEVEL.E, thread.getName(), FATAL_TAG, message, throwable, null));
+                }
+                flush();
+            } catch (Throwable t) {
+                // never hide the crash
+            }
+            if (previous != null) {
+                previous.uncaughtException(thread, throwable);
+            } else {
+                // what ThreadGroup does without a default handler, calling it would come back here
+                System.err.print("Exception in thread \"" + thread.getName() + "\" ");
+                throwable.printStackTrace(System.err);
+            }
+        }
+    }
+}
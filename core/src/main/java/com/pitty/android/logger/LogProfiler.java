@@ -0,0 +1,240 @@
+package com.pitty.android.logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the log statements which cost the most, with a fixed amount of memory.
+ * <p/>
+ * The statements are keyed by their {@link CallSite} if it is known, by their format otherwise.
+ * The profiler keeps at most {@code capacity} statements with the Space-Saving algorithm:
+ * when a new statement comes and the profiler is full, it replaces the least frequent one
+ * and inherits its count as the error of its own count. So every statement more frequent than
+ * {@code total / capacity} is kept, and the count of a kept statement is over-estimated by at most
+ * its error. The times are only counted since the statement was last added.
+ * <p/>
+ * For every statement, the time spent looking for the caller in the stack trace,
+ * rendering the message and writing it to the sink are summed.
+ * <p/>
+ * Profiling is disabled by default. It is enabled by the "profile" key of the config file,
+ * the count of statements kept:
+ * <pre>
+ * profile=64
+ * </pre>
+ */
+public final class LogProfiler {
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private static volatile boolean enabled;
+    private static volatile LogProfiler defaultProfiler = new LogProfiler(DEFAULT_CAPACITY);
+
+    /**
+     * Returns the profiler the handlers record to.
+     *
+     * @return the profiler.
+     */
+    public static LogProfiler getDefault() {
+        return defaultProfiler;
+    }
+
+    public static void setDefault(LogProfiler profiler) {
+        defaultProfiler = profiler;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        LogProfiler.enabled = enabled;
+    }
+
+    private final int capacity;
+    private final Map<Object, Counter> counterMap;
+    private final Counter[] counters;
+    private int size;
+    private long total;
+
+    /**
+     * Creates new {@link LogProfiler}.
+     *
+     * @param capacity the max count of statements kept.
+     */
+    public LogProfiler(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.counterMap = new HashMap<Object, Counter>(capacity * 2);
+        this.counters = new Counter[capacity];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Records a log statement.
+     *
+     * @param key         the call site or the format of the statement, {@code null} is ignored.
+     * @param callerNanos the time spent looking for the caller.
+     * @param formatNanos the time spent rendering the message.
+     * @param sinkNanos   the time spent writing to the sink.
+     */
+    public synchronized void record(Object key, long callerNanos, long formatNanos, long sinkNanos) {
+        if (key == null) {
+            return;
+        }
+        total++;
+        Counter counter = counterMap.get(key);
+        if (counter == null) {
+            if (size < capacity) {
+                counter = new Counter();
+                counters[size++] = counter;
+            } else {
+                counter = counters[0];
+                for (int i = 1; i < size; i++) {
+                    if (counters[i].count < counter.count) {
+                        counter = counters[i];
+                    }
+                }
+                counterMap.remove(counter.key);
+                counter.error = counter.count;
+                counter.callerNanos = 0;
+                counter.formatNanos = 0;
+                counter.sinkNanos = 0;
+            }
+            counter.key = key;
+            counterMap.put(key, counter);
+        }
+        counter.count++;
+        counter.callerNanos += callerNanos;
+        counter.formatNanos += formatNanos;
+        counter.sinkNanos += sinkNanos;
+    }
+
+    /**
+     * Returns the statements which took the most time.
+     *
+     * @param n the max count of statements.
+     * @return the statements, the most expensive first.
+     */
+    public List<Entry> top(int n) {
+        Entry[] entries;
+        synchronized (this) {
+            entries = new Entry[size];
+            for (int i = 0; i < size; i++) {
+                Counter counter = counters[i];
+                entries[i] = new Entry(counter.key, counter.count, counter.error,
+                        counter.callerNanos, counter.formatNanos, counter.sinkNanos);
+            }
+        }
+        Arrays.sort(entries, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry lhs, Entry rhs) {
+                long l = lhs.getTotalNanos();
+                long r = rhs.getTotalNanos();
+                return l < r ? 1 : (l == r ? 0 : -1);
+            }
+        });
+        List<Entry> top = new ArrayList<Entry>(Arrays.asList(entries).subList(0, Math.min(n, entries.length)));
+        return Collections.unmodifiableList(top);
+    }
+
+    /**
+     * Returns the count of the statements recorded, including the ones not kept.
+     *
+     * @return the count of statements.
+     */
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    public synchronized void clear() {
+        counterMap.clear();
+        Arrays.fill(counters, null);
+        size = 0;
+        total = 0;
+    }
+
+    private static final class Counter {
+        Object key;
+        long count;
+        long error;
+        long callerNanos;
+        long formatNanos;
+        long sinkNanos;
+    }
+
+    /**
+     * A log statement kept by the profiler.
+     */
+    public static final class Entry {
+        private final Object key;
+        private final long count;
+        private final long error;
+        private final long callerNanos;
+        private final long formatNanos;
+        private final long sinkNanos;
+
+        Entry(Object key, long count, long error, long callerNanos, long formatNanos, long sinkNanos) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+            this.callerNanos = callerNanos;
+            this.formatNanos = formatNanos;
+            this.sinkNanos = sinkNanos;
+        }
+
+        /**
+         * Returns the key of the statement.
+         *
+         * @return the {@link CallSite}, the caller or the format of the statement.
+         */
+        public Object getKey() {
+            return key;
+        }
+
+        /**
+         * Returns the count of the statement, over-estimated by at most {@link #getError()}.
+         *
+         * @return the count.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        public long getCallerNanos() {
+            return callerNanos;
+        }
+
+        public long getFormatNanos() {
+            return formatNanos;
+        }
+
+        public long getSinkNanos() {
+            return sinkNanos;
+        }
+
+        public long getTotalNanos() {
+            return callerNanos + formatNanos + sinkNanos;
+        }
+
+        @Override
+        public String toString() {
+            return key + " {count=" + count + (error > 0 ? "-" + error : "")
+                    + ", caller=" + callerNanos / 1000 + "us"
+                    + ", format=" + formatNanos / 1000 + "us"
+                    + ", sink=" + sinkNanos / 1000 + "us}";
+        }
+    }
+}
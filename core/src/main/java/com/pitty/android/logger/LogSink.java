@@ -0,0 +1,39 @@
+package com.pitty.android.logger;
+
+import java.util.List;
+
+/**
+ * The output of a {@link LoggerHandler}.
+ * <p/>
+ * A handler renders the tag and the message of an event and passes them
+ * to its sink. The sink decides where the message goes: logcat, the console,
+ * memory, a file and so on.
+ * <p/>
+ * Sinks are shared by handlers and loggers, so implementations must be thread safe.
+ */
+public interface LogSink {
+
+    /**
+     * Writes a single rendered message.
+     *
+     * @param level   the level.
+     * @param tag     the rendered tag.
+     * @param message the rendered message.
+     * @param event   the event the message was rendered from.
+     */
+    public void write(LEVEL level, String tag, String message, LogEvent event);
+
+    /**
+     * Writes a batch of events in order.
+     * <p/>
+     * Buffered sinks should override it to deliver the whole batch with a single I/O operation.
+     *
+     * @param events the events.
+     */
+    public void write(List<LogEvent> events);
+
+    /**
+     * Flushes buffered messages, if any.
+     */
+    public void flush();
+}
@@ -0,0 +1,141 @@
+package com.pitty.android.logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves {@link LogSink} instances by the names used in the config file.
+ * <p/>
+ * <table border=1>
+ * <tr><th>Name</th><th>Sink</th></tr>
+ * <tr><td>console</td><td>{@link ConsoleSink}, the default on the JVM</td></tr>
+ * <tr><td>memory</td><td>{@link MemorySink}</td></tr>
+ * <tr><td>fully qualified class name</td><td>a new instance of the class, it must have a public no-arg constructor</td></tr>
+ * </table>
+ * <p/>
+ * Platform bindings register their own sinks with {@link #register(String, LogSink)},
+ * e.g. the Android binding registers "logcat" and makes it the default.
+ * <p/>
+ * Several names split by ',' make a sink writing to all of them.
+ * The same name always resolves to the same instance, so the sinks configured in the file
+ * can be retrieved later, e.g. {@code (MemorySink) LogSinks.get("memory")} in tests.
+ */
+public final class LogSinks {
+
+    private LogSinks() {
+        throw new UnsupportedOperationException();
+    }
+
+    // registered by the Android binding.
+    public static final String LOGCAT = "logcat";
+    public static final String CONSOLE = "console";
+    public static final String MEMORY = "memory";
+
+    private static final Map<String, LogSink> sinkMap = new HashMap<String, LogSink>();
+    private static String defaultName = CONSOLE;
+
+    /**
+     * Returns the default sink.
+     *
+     * @return the default sink.
+     */
+    public static synchronized LogSink getDefault() {
+        LogSink sink = get(defaultName);
+        return null == sink ? get(CONSOLE) : sink;
+    }
+
+    /**
+     * Sets the name of the default sink.
+     *
+     * @param name the name.
+     */
+    public static synchronized void setDefault(String name) {
+        defaultName = name;
+    }
+
+    /**
+     * Returns the sink by its name.
+     *
+     * @param name the name or names split by ','.
+     * @return the sink, or {@code null} if the name can not be resolved.
+     */
+    public static synchronized LogSink get(String name) {
+        if (Utils.isEmpty(name)) {
+            return null;
+        }
+        LogSink sink = sinkMap.get(name);
+        if (null == sink) {
+            sink = create(name);
+            if (null != sink) {
+                sinkMap.put(name, sink);
+            }
+        }
+        return sink;
+    }
+
+    /**
+     * Registers a sink with the name, replacing the sink previously registered, if any.
+     *
+     * @param name the name.
+     * @param sink the sink.
+     */
+    public static synchronized void register(String name, LogSink sink) {
+        sinkMap.put(name, sink);
+    }
+
+    private static LogSink create(String name) {
+        if (name.contains(Constant.CONF_LOGGER_ITEM_SPLIT)) {
+            List<LogSink> sinks = new ArrayList<LogSink>();
+            for (String item : name.split(Constant.CONF_LOGGER_ITEM_SPLIT)) {
+                LogSink sink = get(item);
+                if (null != sink) {
+                    sinks.add(sink);
+                }
+            }
+            return sinks.isEmpty() ? null : new CompositeSink(sinks);
+        }
+        if (CONSOLE.equals(name)) {
+            return new ConsoleSink();
+        } else if (MEMORY.equals(name)) {
+            return new MemorySink();
+        }
+        try {
+            // Class.newInstance is deprecated and rethrows the checked exceptions of the constructor
+            return (LogSink) Class.forName(name).getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            // not found, not a sink, no public no-arg constructor, or the constructor threw
+            return null;
+        }
+    }
+
+    private static final class CompositeSink implements LogSink {
+        private final LogSink[] sinks;
+
+        CompositeSink(List<LogSink> sinks) {
+            this.sinks = sinks.toArray(new LogSink[sinks.size()]);
+        }
+
+        @Override
+        public void write(LEVEL level, String tag, String message, LogEvent event) {
+            for (LogSink sink : sinks) {
+                sink.write(level, tag, message, event);
+            }
+        }
+
+        @Override
+        public void write(List<LogEvent> events) {
+            for (LogSink sink : sinks) {
+                sink.write(events);
+            }
+        }
+
+        @Override
+        public void flush() {
+            for (LogSink sink : sinks) {
+                sink.flush();
+            }
+        }
+    }
+}
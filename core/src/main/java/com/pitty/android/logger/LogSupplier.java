@@ -0,0 +1,23 @@
+package com.pitty.android.logger;
+
+/**
+ * A log argument which is computed only if the message is printed:
+ * <pre>
+ * logger.debug("state {}", new LogSupplier() {
+ *     public Object get() {
+ *         return dumpState();
+ *     }
+ * });
+ * </pre>
+ * The supplier is called by the handler, after the level of the message is checked,
+ * on the thread which logs the message. Its value is printed as any other argument.
+ */
+public interface LogSupplier {
+
+    /**
+     * Computes the argument.
+     *
+     * @return the argument, can be {@code null}.
+     */
+    public Object get();
+}
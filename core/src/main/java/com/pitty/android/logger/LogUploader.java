@@ -0,0 +1,440 @@
+package com.pitty.android.logger;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Uploads the closed segments of a {@link FileLogSink} or a {@link SharedFileLogSink}.
+ * <p/>
+ * The segments are packed into gzip batches of at most {@code maxBatchBytes} of text in an
+ * outbox directory, and the batches are sent from the oldest by a {@link Transport}, e.g.
+ * {@link HttpLogTransport}. A batch is deleted once sent or rejected, so the upload goes on after
+ * a restart with the batch it stopped at; each batch keeps its id across the retries, the server
+ * can ignore a batch it already got. The outbox is bounded, the oldest batches are dropped when
+ * it is full.
+ * <p/>
+ * After a failure the next attempt waits an exponential delay with jitter, from
+ * {@code baseDelayMillis} up to {@code maxDelayMillis}. A {@link Condition} can hold the uploads,
+ * e.g. until the device is charging or on an unmetered network.
+ * <pre>
+ * LogUploader uploader = new LogUploader(sink, new File(context.getFilesDir(), "outbox"),
+ *         new HttpLogTransport(new URL("https://logs.example.com/upload")));
+ * uploader.start(15 * 60 * 1000);
+ * </pre>
+ */
+public class LogUploader {
+    public static final long DEFAULT_MAX_BATCH_BYTES = 512 * 1024;
+    public static final long DEFAULT_MAX_OUTBOX_BYTES = 4 * 1024 * 1024;
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 30 * 1000;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 60 * 60 * 1000;
+
+    static final String BATCH_SUFFIX = ".gz";
+    private static final String TEMP_SUFFIX = ".tmp";
+    // the number of the last segment packed
+    private static final String CURSOR_FILE = "cursor";
+
+    /**
+     * Sends a batch.
+     */
+    public interface Transport {
+        /**
+         * Sends the batch, it is retried later if this throws.
+         *
+         * @param batchId the id of the batch, the same for all the attempts.
+         * @param batch   the gzip file of the batch.
+         * @throws RejectedException if the batch must not be retried.
+         * @throws IOException       if the batch must be retried.
+         */
+        void send(String batchId, File batch) throws IOException;
+    }
+
+    /**
+     * Tells if the batches can be sent now, e.g. checking the network and the battery.
+     */
+    public interface Condition {
+        /**
+         * Checks if a batch can be sent.
+         *
+         * @param batchBytes the size of the batch.
+         * @return {@code false} to hold the upload, it is checked again after {@code baseDelayMillis}.
+         */
+        boolean canUpload(long batchBytes);
+    }
+
+    /**
+     * Thrown by a {@link Transport} when the batch is refused and would be refused again.
+     */
+    public static class RejectedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public RejectedException(String message) {
+            super(message);
+        }
+    }
+
+    private static final Condition ALWAYS = new Condition() {
+        @Override
+        public boolean canUpload(long batchBytes) {
+            return true;
+        }
+    };
+
+    private final SegmentedLogSink sink;
+    private final File outbox;
+    private final Transport transport;
+    private final long maxBatchBytes;
+    private final long maxOutboxBytes;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final Random random = new Random();
+    private volatile Condition condition = ALWAYS;
+    // held by upload() while it sends, not by the other methods
+    private final Object sendLock = new Object();
+
+    // the failed attempts since the last success
+    private int failures;
+    private long sentCount;
+    private long droppedCount;
+    // the batch being sent, not dropped by trimOutbox()
+    private File sending;
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> future;
+
+    /**
+     * Creates new {@link LogUploader} with the default sizes and delays.
+     *
+     * @param sink      the sink of the segments.
+     * @param outbox    the directory of the batches, created if needed.
+     * @param transport the transport.
+     */
+    public LogUploader(SegmentedLogSink sink, File outbox, Transport transport) {
+        this(sink, outbox, transport, DEFAULT_MAX_BATCH_BYTES, DEFAULT_MAX_OUTBOX_BYTES,
+                DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * Creates new {@link LogUploader}.
+     *
+     * @param sink            the sink of the segments.
+     * @param outbox          the directory of the batches, created if needed.
+     * @param transport       the transport.
+     * @param maxBatchBytes   the max size of the text of a batch, a bigger segment makes its own batch.
+     * @param maxOutboxBytes  the max size of the batches waiting.
+     * @param baseDelayMillis the delay after the first failure.
+     * @param maxDelayMillis  the max delay after failures.
+     */
+    public LogUploader(SegmentedLogSink sink, File outbox, Transport transport, long maxBatchBytes,
+                       long maxOutboxBytes, long baseDelayMillis, long maxDelayMillis) {
+        if (maxBatchBytes <= 0 || maxOutboxBytes <= 0 || baseDelayMillis <= 0 || maxDelayMillis < baseDelayMillis) {
+            throw new IllegalArgumentException("invalid sizes or delays");
+        }
+        this.sink = sink;
+        this.outbox = outbox;
+        this.transport = transport;
+        this.maxBatchBytes = maxBatchBytes;
+        this.maxOutboxBytes = maxOutboxBytes;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * Sets the condition of the uploads.
+     *
+     * @param condition the condition, {@code null} to always upload.
+     */
+    public void setCondition(Condition condition) {
+        this.condition = null == condition ? ALWAYS : condition;
+    }
+
+    public synchronized long getSentCount() {
+        return sentCount;
+    }
+
+    /**
+     * Returns the count of batches dropped because the outbox was full or the server rejected them.
+     *
+     * @return the count.
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Uploads every period, or sooner after a failure.
+     *
+     * @param periodMillis the delay between two uploads.
+     */
+    public synchronized void start(final long periodMillis) {
+        stop();
+        if (null == executor) {
+            executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "LogUploader");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        schedule(periodMillis, periodMillis);
+    }
+
+    public synchronized void stop() {
+        if (null != future) {
+            future.cancel(false);
+            future = null;
+        }
+    }
+
+    private synchronized void schedule(long delayMillis, final long periodMillis) {
+        future = executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                long delay = upload();
+                synchronized (LogUploader.this) {
+                    if (null != future) {
+                        schedule(delay < 0 ? periodMillis : delay, periodMillis);
+                    }
+                }
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Packs the closed segments and sends the batches until one fails.
+     * <p/>
+     * The batches are sent without the lock of the uploader, so {@link #pack()}, {@link #stop()} and
+     * the counters do not wait for the network; two uploads are not run at the same time.
+     *
+     * @return the delay before the next attempt if a batch is left, -1 if the outbox is empty.
+     */
+    public long upload() {
+        synchronized (sendLock) {
+            try {
+                pack();
+            } catch (IOException e) {
+                // send what is packed already
+            }
+            for (File batch : listBatches()) {
+                if (!condition.canUpload(batch.length())) {
+                    return baseDelayMillis;
+                }
+                synchronized (this) {
+                    if (!batch.isFile()) {
+                        // dropped meanwhile by trimOutbox()
+                        continue;
+                    }
+                    sending = batch;
+                }
+                boolean sent = false;
+                boolean rejected = false;
+                try {
+                    transport.send(getBatchId(batch), batch);
+                    sent = true;
+                } catch (RejectedException e) {
+                    rejected = true;
+                } catch (IOException e) {
+                    // retried
+                } catch (RuntimeException e) {
+                    // retried
+                }
+                synchronized (this) {
+                    sending = null;
+                    if (sent) {
+                        sentCount++;
+                        failures = 0;
+                    } else if (rejected) {
+                        droppedCount++;
+                    } else {
+                        failures++;
+                        return getRetryDelay();
+                    }
+                    batch.delete();
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the delay after the failures: a random delay between the half and the whole of
+     * {@code baseDelayMillis * 2^(failures - 1)}, at most {@code maxDelayMillis}.
+     *
+     * @return the delay.
+     */
+    synchronized long getRetryDelay() {
+        long delay = baseDelayMillis;
+        for (int i = 1; i < failures && delay < maxDelayMillis; i++) {
+            delay *= 2;
+        }
+        delay = Math.min(delay, maxDelayMillis);
+        // the devices failing together do not retry together
+        return delay / 2 + (long) (random.nextDouble() * (delay - delay / 2));
+    }
+
+    /**
+     * Packs the closed segments not packed yet into batches.
+     *
+     * @throws IOException if a batch can not be written.
+     */
+    public synchronized void pack() throws IOException {
+        if (!outbox.isDirectory() && !outbox.mkdirs()) {
+            throw new IOException("can not create " + outbox);
+        }
+        int cursor = readCursor();
+        List<File> segments = FileLogSink.listSegments(sink.getDirectory(), sink.getName());
+        if (!segments.isEmpty() && FileLogSink.getSegmentNumber(segments.get(segments.size() - 1), sink.getName()) < cursor) {
+            // the segments were deleted and numbered again
+            cursor = 0;
+        }
+        List<File> batch = new ArrayList<File>();
+        long batchBytes = 0;
+        for (File segment : sink.getClosedSegments()) {
+            if (FileLogSink.getSegmentNumber(segment, sink.getName()) <= cursor) {
+                continue;
+            }
+            if (!batch.isEmpty() && batchBytes + segment.length() > maxBatchBytes) {
+                writeBatch(batch);
+                batch.clear();
+                batchBytes = 0;
+            }
+            batch.add(segment);
+            batchBytes += segment.length();
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch);
+        }
+        trimOutbox();
+    }
+
+    private void writeBatch(List<File> segments) throws IOException {
+        int first = FileLogSink.getSegmentNumber(segments.get(0), sink.getName());
+        int last = FileLogSink.getSegmentNumber(segments.get(segments.size() - 1), sink.getName());
+        // the time first, the batches are sent in this order
+        String id = String.format("%013d-%s-%06d-%06d", System.currentTimeMillis(), sink.getName(), first, last);
+        File temp = new File(outbox, id + TEMP_SUFFIX);
+        OutputStream out = new GZIPOutputStream(new FileOutputStream(temp));
+        try {
+            byte[] buffer = new byte[8192];
+            for (File segment : segments) {
+                InputStream in = new FileInputStream(segment);
+                try {
+                    for (int read; (read = in.read(buffer)) > 0; ) {
+                        out.write(buffer, 0, read);
+                    }
+                } finally {
+                    in.close();
+                }
+            }
+        } catch (IOException e) {
+            out.close();
+            temp.delete();
+            throw e;
+        }
+        out.close();
+        if (!temp.renameTo(new File(outbox, id + BATCH_SUFFIX))) {
+            temp.delete();
+            throw new IOException("can not rename " + temp);
+        }
+        writeCursor(last);
+    }
+
+    private void trimOutbox() {
+        List<File> batches = listBatches();
+        long total = 0;
+        for (File batch : batches) {
+            total += batch.length();
+        }
+        for (int i = 0; i < batches.size() && total > maxOutboxBytes; i++) {
+            File batch = batches.get(i);
+            if (batch.equals(sending)) {
+                continue;
+            }
+            total -= batch.length();
+            if (batch.delete()) {
+                droppedCount++;
+            }
+        }
+    }
+
+    /**
+     * Lists the batches waiting, from the oldest.
+     *
+     * @return the batch files.
+     */
+    public synchronized List<File> listBatches() {
+        File[] files = outbox.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.getName().endsWith(BATCH_SUFFIX);
+            }
+        });
+        if (null == files) {
+            return Collections.emptyList();
+        }
+        List<File> batches = Arrays.asList(files);
+        Collections.sort(batches, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                return lhs.getName().compareTo(rhs.getName());
+            }
+        });
+        return batches;
+    }
+
+    private static String getBatchId(File batch) {
+        String name = batch.getName();
+        return name.substring(0, name.length() - BATCH_SUFFIX.length());
+    }
+
+    private int readCursor() {
+        File file = new File(outbox, CURSOR_FILE);
+        if (!file.isFile()) {
+            return 0;
+        }
+        try {
+            InputStream in = new FileInputStream(file);
+            try {
+                return Integer.parseInt(new String(Utils.readFully(in), "UTF-8").trim());
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void writeCursor(int segment) throws IOException {
+        File temp = new File(outbox, CURSOR_FILE + TEMP_SUFFIX);
+        OutputStream out = new FileOutputStream(temp);
+        try {
+            out.write(String.valueOf(segment).getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        File file = new File(outbox, CURSOR_FILE);
+        // renameTo does not replace an existing file everywhere
+        if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file))) {
+            throw new IOException("can not write " + file);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.pitty.android.logger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A per-tag level check of the platform, e.g. {@code android.util.Log#isLoggable(String, int)},
+ * combined with the level of the handlers.
+ * <p/>
+ * The platform check can be too slow to be called for every message, so every {@link LoggerBinding}
+ * keeps the levels allowed for its tag and checks them again only after {@link #refresh()}.
+ * {@link #startRefresh(long)} calls it periodically, so a changed property is seen within the period.
+ * <p/>
+ * A level is printed if the handler and this check allow it: the level of the handler is
+ * the most verbose one the check can open. The tag checked is the one printed when the tag pattern
+ * depends only on the logger name, e.g. "App-%logger"; a pattern with the level, the caller, the thread
+ * or the time prints a tag by event, and the tag of the module or of the logger is checked instead.
+ * <p/>
+ * The check is disabled by default. It is enabled by the
+ * "loggable" key of the config file, the period of the refresh in seconds, 0 for no periodic refresh:
+ * <pre>
+ * loggable=30
+ * </pre>
+ */
+public abstract class LoggableCheck {
+    // the bit set in the mask of the levels once they are checked
+    static final int CHECKED = 1 << 30;
+
+    private static volatile LoggableCheck defaultCheck;
+
+    private static ScheduledExecutorService refreshExecutor;
+    private static ScheduledFuture<?> refreshFuture;
+
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**
+     * Returns the check of the bindings.
+     *
+     * @return the check, {@code null} if disabled.
+     */
+    public static LoggableCheck getDefault() {
+        return defaultCheck;
+    }
+
+    /**
+     * Sets the check of the bindings.
+     *
+     * @param check the check, {@code null} to disable it.
+     */
+    public static void setDefault(LoggableCheck check) {
+        defaultCheck = check;
+    }
+
+    /**
+     * Checks a tag and a level with the platform.
+     *
+     * @param tag   the tag.
+     * @param level the level, never {@link LEVEL#O}.
+     * @return {@code true} if messages with this tag and level can be printed.
+     */
+    protected abstract boolean isLoggable(String tag, LEVEL level);
+
+    /**
+     * Makes the bindings check their tag again on the next message.
+     */
+    public void refresh() {
+        generation.incrementAndGet();
+    }
+
+    int getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Returns the levels allowed for the tag, a bit by level ordinal, with {@link #CHECKED} set.
+     */
+    int check(String tag) {
+        int mask = CHECKED;
+        for (LEVEL level : LEVEL.values()) {
+            if (level != LEVEL.O && isLoggable(tag, level)) {
+                mask |= 1 << level.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Refreshes the default check periodically.
+     *
+     * @param periodSeconds the period, {@code 0} to stop.
+     */
+    public static synchronized void startRefresh(long periodSeconds) {
+        if (refreshFuture != null) {
+            refreshFuture.cancel(false);
+            refreshFuture = null;
+        }
+        if (periodSeconds <= 0) {
+            return;
+        }
+        if (refreshExecutor == null) {
+            refreshExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "LoggableCheck");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        refreshFuture = refreshExecutor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                LoggableCheck check = defaultCheck;
+                if (null != check) {
+                    check.refresh();
+                }
+            }
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic refresh.
+     */
+    public static void stopRefresh() {
+        startRefresh(0);
+    }
+}
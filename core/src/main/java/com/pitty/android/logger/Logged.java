@@ -0,0 +1,36 @@
+package com.pitty.android.logger;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a logger to the annotated class at compile time.
+ * <p/>
+ * The annotation processor of the "processor" module generates a class
+ * named after the annotated one with the "Logger" suffix, e.g. {@code MainActivityLogger}
+ * for {@code MainActivity}. It contains:
+ * <ul>
+ * <li>{@code NAME}, {@code TAG}: the logger name and the tag computed from it;</li>
+ * <li>{@code HANDLER_KEY}: the config module the logger resolves to, when the processor
+ * option {@code androidlogger.config} points to the config file;</li>
+ * <li>{@code LOG}: the logger bound with the values above;</li>
+ * <li>a {@link CallSite} constant per method of the class, named after the method.</li>
+ * </ul>
+ * Usage:
+ * <pre>
+ * MainActivityLogger.LOG.log(MainActivityLogger.onCreate, LEVEL.D, null, "created {}", savedState);
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface Logged {
+
+    /**
+     * The logger name, the fully qualified name of the annotated class by default.
+     */
+    String value() default "";
+}
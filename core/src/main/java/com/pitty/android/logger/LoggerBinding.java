@@ -0,0 +1,228 @@
+package com.pitty.android.logger;
+
+import org.slf4j.Marker;
+
+/**
+ * What a logger resolved from the configuration once: its tag, its handler, the level threshold
+ * and the {@link LogFilter} bound to its name.
+ * <p/>
+ * Bindings are owned by one logger and immutable, but for the levels allowed for the tag by the
+ * {@link LoggableCheck}, kept until the check is refreshed. The handlers they point to are shared
+ * by the loggers of a module and hold no per-logger state.
+ */
+public final class LoggerBinding {
+    private final String name;
+    private final String tag;
+    private final LoggerHandler handler;
+    private final LoggerStats stats;
+    // the ordinal of the most verbose level enabled, -1 if the log is closed.
+    private final int threshold;
+    // the filter bound to the logger name, null if it accepts everything
+    private final LogFilter filter;
+    // the result of the filter without a marker, a bit by level ordinal, all set if there is no filter
+    private final int accepted;
+    // the generation of the LoggableCheck in the high bits, the mask of the levels it allows in the low bits
+    private volatile long loggable;
+    // the tag checked by the LoggableCheck, rendered by the tag pattern on the first check
+    private String loggableTag;
+
+    /**
+     * Creates new {@link LoggerBinding}.
+     *
+     * @param name    the logger name.
+     * @param tag     the tag passed to the handler as the logger name.
+     * @param handler the handler, {@code null} if the log is closed.
+     * @param level   the level of the handler, {@code null} if the log is closed.
+     */
+    public LoggerBinding(String name, String tag, LoggerHandler handler, LEVEL level) {
+        this(name, tag, handler, level, null);
+    }
+
+    /**
+     * Creates new {@link LoggerBinding}.
+     *
+     * @param name    the logger name.
+     * @param tag     the tag passed to the handler as the logger name.
+     * @param handler the handler, {@code null} if the log is closed.
+     * @param level   the level of the handler, {@code null} if the log is closed.
+     * @param filter  the filter checked after the level, {@code null} for none.
+     */
+    public LoggerBinding(String name, String tag, LoggerHandler handler, LEVEL level, LogFilter filter) {
+        this.name = name;
+        this.tag = tag;
+        this.handler = handler;
+        this.stats = handler instanceof PatternLoggerHandler ? ((PatternLoggerHandler) handler).getStats() : null;
+        this.threshold = null == handler || null == level ? -1 : level.ordinal();
+        LogFilter bound = null == filter ? LogFilter.ACCEPT : filter.bind(name);
+        if (bound == LogFilter.ACCEPT) {
+            this.filter = null;
+            this.accepted = -1;
+        } else {
+            this.filter = bound;
+            int accepted = 0;
+            for (LEVEL l : LEVEL.values()) {
+                if (bound.accept(name, l, null)) {
+                    accepted |= 1 << l.ordinal();
+                }
+            }
+            this.accepted = accepted;
+        }
+    }
+
+    /**
+     * Creates the binding of a logger to a {@link PatternLoggerHandler}.
+     *
+     * @param name    the logger name.
+     * @param tag     the tag computed from the name, {@code null} to compute it now.
+     * @param handler the handler, {@code null} if the log is closed.
+     * @return the binding.
+     */
+    public static LoggerBinding create(String name, String tag, PatternLoggerHandler handler) {
+        return create(name, tag, handler, null);
+    }
+
+    /**
+     * Creates the binding of a logger to a {@link PatternLoggerHandler} with a filter.
+     *
+     * @param name    the logger name.
+     * @param tag     the tag computed from the name, {@code null} to compute it now.
+     * @param handler the handler, {@code null} if the log is closed.
+     * @param filter  the filter of the config file, {@code null} for none.
+     * @return the binding.
+     */
+    public static LoggerBinding create(String name, String tag, PatternLoggerHandler handler, LogFilter filter) {
+        if (null != handler && !Utils.isEmpty(handler.getTag())) {
+            // the tag configured for the module
+            tag = handler.getTag();
+        } else {
+            // one instance for the loggers with the same tag, and for the name if it is short enough
+            tag = Utils.loggerNameToTag(null == tag ? name : tag).intern();
+        }
+        return new LoggerBinding(name, tag, handler, null == handler ? null : handler.getLevel(), filter);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * Returns the handler.
+     *
+     * @return the handler, {@code null} if the log is closed.
+     */
+    public LoggerHandler getHandler() {
+        return handler;
+    }
+
+    /**
+     * Returns the handler of an event enabled by {@link #isEnabled(LEVEL)}: the handler, or a handler
+     * only recording to the {@link FlightRecorder} if the {@link LoggableCheck} closes the level.
+     *
+     * @param level the level.
+     * @return the handler, {@code null} if the log is closed.
+     */
+    public LoggerHandler getHandler(LEVEL level) {
+        if (level.ordinal() <= threshold && !isLoggable(level) && !LoggerScope.isEnabled(level)) {
+            return FlightRecorder.RECORDING_HANDLER;
+        }
+        return handler;
+    }
+
+    /**
+     * Checks the level against the threshold, without calling the handler,
+     * against the {@link LoggableCheck} of the tag, the {@link LoggerScope} of the thread
+     * and the {@link FlightRecorder} level.
+     *
+     * @param level the level.
+     * @return {@code true} if messages with this level are printed.
+     */
+    public boolean isEnabled(LEVEL level) {
+        if (isLevelEnabled(level) && (accepted & (1 << level.ordinal())) != 0) {
+            return true;
+        }
+        if (null != stats && LoggerStats.isEnabled()) {
+            stats.filtered(level);
+        }
+        return false;
+    }
+
+    /**
+     * Checks the level like {@link #isEnabled(LEVEL)}, then the filter with the marker.
+     *
+     * @param level  the level.
+     * @param marker the marker, can be {@code null}.
+     * @return {@code true} if messages with this level and marker are printed.
+     */
+    public boolean isEnabled(LEVEL level, Marker marker) {
+        if (null == marker || null == filter || !filter.isMarkerNeeded()) {
+            return isEnabled(level);
+        }
+        if (isLevelEnabled(level) && filter.accept(name, level, marker)) {
+            return true;
+        }
+        if (null != stats && LoggerStats.isEnabled()) {
+            stats.filtered(level);
+        }
+        return false;
+    }
+
+    /**
+     * Checks the threshold, narrowed by the {@link LoggableCheck}, and the levels enabled above it.
+     */
+    private boolean isLevelEnabled(LEVEL level) {
+        if (level.ordinal() <= threshold) {
+            // the scope of the thread opens the levels closed by the check too, they are still recorded
+            return isLoggable(level) || isExtraEnabled(level);
+        }
+        return threshold >= 0 && isExtraEnabled(level);
+    }
+
+    /**
+     * Checks the level with the {@link LoggableCheck}, the tag is checked again after a refresh.
+     * The tag is the one printed if the tag pattern depends only on the logger name.
+     *
+     * @param level the level.
+     * @return {@code true} if there is no check or it allows the level for the tag.
+     */
+    boolean isLoggable(LEVEL level) {
+        LoggableCheck check = LoggableCheck.getDefault();
+        if (null == check) {
+            return true;
+        }
+        long loggable = this.loggable;
+        int generation = check.getGeneration();
+        int mask = (int) loggable;
+        if ((mask & LoggableCheck.CHECKED) == 0 || (int) (loggable >>> 32) != generation) {
+            mask = check.check(getLoggableTag());
+            this.loggable = ((long) generation << 32) | (mask & 0xffffffffL);
+        }
+        return (mask & (1 << level.ordinal())) != 0;
+    }
+
+    /**
+     * Returns the tag printed for the logger if the tag pattern depends only on the logger name,
+     * else the tag of the binding.
+     */
+    String getLoggableTag() {
+        String loggableTag = this.loggableTag;
+        if (null == loggableTag) {
+            // a race only renders the tag twice
+            loggableTag = handler instanceof PatternLoggerHandler
+                    ? ((PatternLoggerHandler) handler).getLoggableTag(tag) : tag;
+            this.loggableTag = loggableTag;
+        }
+        return loggableTag;
+    }
+
+    /**
+     * The levels enabled above the threshold: by the scope of the thread, or to be recorded
+     * by the handler but not printed.
+     */
+    private static boolean isExtraEnabled(LEVEL level) {
+        return LoggerScope.isEnabled(level) || FlightRecorder.isRecorded(level);
+    }
+}
@@ -0,0 +1,330 @@
+package com.pitty.android.logger;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * The parsed content of the config file: the root level, the default sink
+ * and the modules with their levels and patterns, compiled on first use.
+ * <p/>
+ * See PRD-v1.0.md for the format of the file.
+ */
+public final class LoggerConfiguration {
+
+    /**
+     * The config of one "module:" entry.
+     */
+    public static final class Module {
+        private final String name;
+        private final LEVEL level;
+        private final String tag;
+        private final String tagPattern;
+        private final String messagePattern;
+        private final String sink;
+        // the patterns compiled by pattern string, shared by the modules of a configuration
+        private final Map<String, LoggerPattern> patterns;
+        // compiled on first use, unless read from a snapshot
+        private LoggerPattern compiledTagPattern;
+        private LoggerPattern compiledMessagePattern;
+        private volatile boolean compiled;
+
+        Module(String name, LEVEL level, String tag, String tagPattern, String messagePattern, String sink,
+               Map<String, LoggerPattern> patterns) {
+            this.name = name;
+            this.level = level;
+            this.tag = tag;
+            this.tagPattern = tagPattern;
+            this.messagePattern = messagePattern;
+            this.sink = sink;
+            this.patterns = patterns;
+        }
+
+        Module(String name, LEVEL level, String tag,
+               String tagPattern, LoggerPattern compiledTagPattern,
+               String messagePattern, LoggerPattern compiledMessagePattern, String sink) {
+            this.name = name;
+            this.level = level;
+            this.tag = tag;
+            this.tagPattern = tagPattern;
+            this.compiledTagPattern = compiledTagPattern;
+            this.messagePattern = messagePattern;
+            this.compiledMessagePattern = compiledMessagePattern;
+            this.sink = sink;
+            this.patterns = null;
+            this.compiled = true;
+        }
+
+        /**
+         * Returns the module name, e.g. "com.example.*".
+         *
+         * @return the module name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the level resolved with the root config.
+         *
+         * @return the level, {@code null} if not set.
+         */
+        public LEVEL getLevel() {
+            return level;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public String getTagPattern() {
+            return tagPattern;
+        }
+
+        LoggerPattern getCompiledTagPattern() {
+            compile();
+            return compiledTagPattern;
+        }
+
+        public String getMessagePattern() {
+            return messagePattern;
+        }
+
+        LoggerPattern getCompiledMessagePattern() {
+            compile();
+            return compiledMessagePattern;
+        }
+
+        private void compile() {
+            if (compiled) {
+                return;
+            }
+            synchronized (patterns) {
+                if (!compiled) {
+                    compiledTagPattern = compile(tagPattern);
+                    compiledMessagePattern = compile(messagePattern);
+                    compiled = true;
+                }
+            }
+        }
+
+        private LoggerPattern compile(String pattern) {
+            if (null == pattern) {
+                return null;
+            }
+            LoggerPattern compiledPattern = patterns.get(pattern);
+            if (null == compiledPattern) {
+                compiledPattern = LoggerPattern.compile(pattern);
+                patterns.put(pattern, compiledPattern);
+            }
+            return compiledPattern;
+        }
+
+        /**
+         * Returns the name of the module sink.
+         *
+         * @return the sink name, {@code null} means the default sink.
+         */
+        public String getSink() {
+            return sink;
+        }
+
+        /**
+         * Returns the sink the handler of this module writes to, without creating the handler.
+         *
+         * @param defaultSink the sink used if the module sink is not set or not found.
+         * @return the sink.
+         */
+        public LogSink resolveSink(LogSink defaultSink) {
+            LogSink moduleSink = LogSinks.get(sink);
+            return null == moduleSink ? defaultSink : moduleSink;
+        }
+
+        /**
+         * Creates the handler of this module.
+         *
+         * @param defaultSink the sink used if the module sink is not set or not found.
+         * @return the handler.
+         */
+        public PatternLoggerHandler createHandler(LogSink defaultSink) {
+            PatternLoggerHandler handler;
+            if (JsonLoggerHandler.isJsonPattern(messagePattern)) {
+                handler = new JsonLoggerHandler(level, tag, tagPattern, getCompiledTagPattern(),
+                        messagePattern, resolveSink(defaultSink));
+            } else {
+                handler = new PatternLoggerHandler(level, tag, tagPattern, getCompiledTagPattern(),
+                        messagePattern, getCompiledMessagePattern(), resolveSink(defaultSink));
+            }
+            handler.setStats(LoggerStats.get(name));
+            return handler;
+        }
+    }
+
+    private final LEVEL globalLevel;
+    private final String sink;
+    private final Map<String, Module> modules;
+    private final Map<String, String> options;
+
+    LoggerConfiguration(LEVEL globalLevel, String sink, Map<String, Module> modules, Map<String, String> options) {
+        this.globalLevel = globalLevel;
+        this.sink = sink;
+        this.modules = Collections.unmodifiableMap(modules);
+        this.options = Collections.unmodifiableMap(options);
+    }
+
+    /**
+     * Returns the root level.
+     *
+     * @return the root level, {@code null} if not set.
+     */
+    public LEVEL getGlobalLevel() {
+        return globalLevel;
+    }
+
+    /**
+     * Returns the name of the default sink.
+     *
+     * @return the sink name, {@code null} if not set.
+     */
+    public String getSink() {
+        return sink;
+    }
+
+    /**
+     * Returns the modules by their names.
+     *
+     * @return the unmodifiable map of modules.
+     */
+    public Map<String, Module> getModules() {
+        return modules;
+    }
+
+    /**
+     * Returns the other keys of the config file, e.g. "coalesce".
+     *
+     * @return the unmodifiable map of options.
+     */
+    public Map<String, String> getOptions() {
+        return options;
+    }
+
+    /**
+     * Returns an option parsed as an integer.
+     *
+     * @param name         the name of the option.
+     * @param defaultValue the value if the option is not set or is not a number.
+     * @return the value.
+     */
+    public int getIntOption(String name, int defaultValue) {
+        String value = options.get(name);
+        if (Utils.isEmpty(value)) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Finds the module of a logger: the module named exactly as the logger, or
+     * the nearest "package.*" module of the logger packages.
+     *
+     * @param modules    the modules or objects created from them, by module names.
+     * @param loggerName the logger name.
+     * @return the module name, or {@code null} if no module matches.
+     */
+    public static String findModule(Map<String, ?> modules, String loggerName) {
+        if (null == loggerName) {
+            return null;
+        }
+        if (modules.containsKey(loggerName)) {
+            return loggerName;
+        }
+        String tmp = loggerName;
+        while (tmp.lastIndexOf(Constant.CONF_LOGGER_PACKAGE_SPLIT) > 0) {
+            tmp = tmp.substring(0, tmp.lastIndexOf(Constant.CONF_LOGGER_PACKAGE_SPLIT));
+            String key = tmp + ".*";
+            if (modules.containsKey(key)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses the config, the patterns of a module are compiled when its handler is created.
+     *
+     * @param properties the content of the config file.
+     * @return the configuration.
+     */
+    public static LoggerConfiguration parse(Properties properties) {
+        Map<String, String> handlerTempMap = new HashMap<String, String>();
+        Map<String, String> options = new HashMap<String, String>();
+        String globalLogger = null;
+        String globalSink = null;
+        // parse properties
+        for (Enumeration<?> names = properties.propertyNames(); names.hasMoreElements(); ) {
+            String name = (String) names.nextElement();
+            String propertyName = Utils.removeWhitespace(name);
+            String propertyValue = Utils.removeWhitespace(properties.getProperty(name));
+
+            if (propertyName.startsWith(Constant.CONF_LOGGER_MODULE)) {
+                String loggerName = propertyName.substring(Constant.CONF_LOGGER_MODULE.length());
+                handlerTempMap.put(loggerName, propertyValue);
+            } else if (propertyName.equals(Constant.CONF_ROOT)) {
+                globalLogger = propertyValue;
+            } else if (propertyName.equals(Constant.CONF_SINK)) {
+                globalSink = propertyValue;
+            } else {
+                options.put(propertyName, propertyValue);
+            }
+        }
+        // parse global (root) config.
+        LEVEL globalLevel = null;
+        Set<String> exListString = new HashSet<String>();
+        if (!Utils.isEmpty(globalLogger)) {
+            String[] globalLoggers = globalLogger.split(Constant.CONF_LOGGER_SPLIT);
+            try {
+                globalLevel = globalLoggers.length > 0 ? LEVEL.valueOf(globalLoggers[0]) : null;
+            } catch (IllegalArgumentException e) {
+            }
+            if (globalLoggers.length > 1) {
+                exListString.addAll(Arrays.asList(globalLoggers[1].split(Constant.CONF_LOGGER_ITEM_SPLIT)));
+            }
+        }
+        // parse module configs.
+        Map<String, Module> modules = new LinkedHashMap<String, Module>();
+        Map<String, LoggerPattern> patterns = new HashMap<String, LoggerPattern>();
+        for (Map.Entry<String, String> entry : handlerTempMap.entrySet()) {
+            String key = entry.getKey();
+            String value = entry.getValue();
+            if (!Utils.isEmpty(value)) {
+                String[] values = value.split(Constant.CONF_LOGGER_SPLIT);
+                LEVEL loggerLevel = globalLevel;
+                if (null == globalLevel || exListString.contains(key)) {
+                    // global not set, or in expect list. use the module set.
+                    try {
+                        loggerLevel = values.length > 0 ? LEVEL.valueOf(values[0]) : globalLevel;
+                    } catch (IllegalArgumentException e) {
+                    }
+                } else {
+                    // global set and not in expect list, use global set.
+                }
+                String tag = values.length > 1 ? values[1] : null;
+                String tagPattern = values.length > 2 ? values[2] : null;
+                String messagePattern = values.length > 3 ? values[3] : null;
+                String sink = values.length > 4 ? values[4] : null;
+                modules.put(key, new Module(key, loggerLevel, tag, tagPattern, messagePattern, sink, patterns));
+            }
+        }
+        return new LoggerConfiguration(globalLevel, globalSink, modules, options);
+    }
+}
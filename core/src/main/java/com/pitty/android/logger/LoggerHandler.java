@@ -0,0 +1,99 @@
+package com.pitty.android.logger;
+
+/**
+ * The log message handler.
+ */
+public interface LoggerHandler {
+
+    /**
+     * Checks if the specified log level is enabled or not for this handler.
+     *
+     * @param level the level.
+     * @return Are messages with this level allowed to be logged or not.
+     */
+    public boolean isEnabled(LEVEL level);
+
+    /**
+     * Prints a log message.
+     * <p/>
+     * This method should automatically check using {@link #isEnabled(com.pitty.android.logger.LEVEL)} method
+     * if the message is allowed to be logged or not.
+     * <p/>
+     * The format string of the log message should be formatted
+     * according to rules of the standard format string described
+     * in JavaDoc of {@link java.util.Formatter}.
+     * Implementations can use {@link java.util.Formatter#format(String, Object...)}
+     * to prepare the log message from format string and array of arguments.
+     *
+     * @param loggerName    a name of a logger that user used to log message.
+     * @param level         a level of the log message
+     * @param throwable     a throwable object or {@code null}.
+     * @param messageFormat a format string of the log message. Can be {@code null}.
+     * @param args          an array of arguments. Can be {@code null}
+     *                      which is considered as an empty array.
+     * @throws IllegalArgumentException if no format string is specified but arguments are presented.
+     */
+    public void print(String loggerName, LEVEL level,
+                      Throwable throwable, String messageFormat, Object... args) throws IllegalArgumentException;
+    public void print(LEVEL level,
+                      Throwable throwable, String messageFormat, Object... args) throws IllegalArgumentException;
+
+    /**
+     * Prints a log message with the caller known in advance.
+     * <p/>
+     * The same as {@link #print(String, LEVEL, Throwable, String, Object...)} but the handler
+     * must not look for the caller in the stack trace.
+     *
+     * @param callSite      the caller, {@code null} means the handler should find it.
+     * @param loggerName    a name of a logger that user used to log message.
+     * @param level         a level of the log message
+     * @param throwable     a throwable object or {@code null}.
+     * @param messageFormat a format string of the log message. Can be {@code null}.
+     * @param args          an array of arguments.
+     * @throws IllegalArgumentException if no format string is specified but arguments are presented.
+     */
+    public void print(CallSite callSite, String loggerName, LEVEL level,
+                      Throwable throwable, String messageFormat, Object... args) throws IllegalArgumentException;
+
+    /**
+     * Prints a log message formatted with SLF4J "{}" placeholders.
+     * <p/>
+     * The format is not processed at all if there are no arguments.
+     * If the throwable is {@code null}, the last argument is used as the throwable
+     * when it is a throwable not consumed by a placeholder, as SLF4J does.
+     *
+     * @param callSite   the caller, {@code null} means the handler should find it if needed.
+     * @param loggerName a name of a logger that user used to log message.
+     * @param level      a level of the log message
+     * @param throwable  a throwable object or {@code null}.
+     * @param format     the SLF4J format string of the log message. Can be {@code null}.
+     * @param args       an array of arguments. Can be {@code null}.
+     */
+    public void log(CallSite callSite, String loggerName, LEVEL level,
+                    Throwable throwable, String format, Object... args);
+
+    /**
+     * Prints a log message formatted with SLF4J "{}" placeholders from unboxed arguments,
+     * see {@link LogEventBuilder}.
+     * <p/>
+     * The same as {@link #log(CallSite, String, LEVEL, Throwable, String, Object...)} but
+     * the last argument is never used as the throwable.
+     *
+     * @param callSite   the caller, {@code null} means the handler should find it if needed.
+     * @param loggerName a name of a logger that user used to log message.
+     * @param level      a level of the log message
+     * @param throwable  a throwable object or {@code null}.
+     * @param format     the SLF4J format string of the log message. Can be {@code null}.
+     * @param arguments  the arguments, the handler must not keep them. Can be {@code null}.
+     */
+    public void log(CallSite callSite, String loggerName, LEVEL level,
+                    Throwable throwable, String format, LogArguments arguments);
+
+    /**
+     * Get the tag.
+     * <p/>
+     * Handlers are shared by loggers, the tag of a logger is in its {@link LoggerBinding}.
+     * @return the tag the handler was created with, {@link Constant#ANONYMOUS_TAG} if not set.
+     */
+    public String getTagName();
+}
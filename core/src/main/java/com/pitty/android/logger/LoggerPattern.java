@@ -0,0 +1,826 @@
+package com.pitty.android.logger;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class responsible for formatting messages for {@link PatternLoggerHandler}.
+ */
+public abstract class LoggerPattern {
+
+    public static class PlainPattern extends LoggerPattern {
+
+        private final String string;
+
+        public PlainPattern(int count, int length, String string) {
+            super(count, length);
+            this.string = string;
+        }
+
+        @Override
+        protected String doApply(StackTraceElement caller, String loggerName, LEVEL level) {
+            return string;
+        }
+
+        @Override
+        protected boolean isLoggerOnly() {
+            return true;
+        }
+
+    }
+
+    public static class DatePattern extends LoggerPattern {
+
+        private final String dateFormatString;
+        // SimpleDateFormat is not thread safe
+        private final ThreadLocal<SimpleDateFormat> dateFormat;
+
+        public DatePattern(int count, int length, String dateFormat) {
+            super(count, length);
+            this.dateFormatString = dateFormat;
+            // throws on a bad format
+            final SimpleDateFormat prototype = new SimpleDateFormat(
+                    dateFormat != null ? dateFormat : "yyyy-MM-dd HH:mm:ss.SSS");
+            this.dateFormat = new ThreadLocal<SimpleDateFormat>() {
+                @Override
+                protected SimpleDateFormat initialValue() {
+                    return (SimpleDateFormat) prototype.clone();
+                }
+            };
+        }
+
+        @Override
+        protected String doApply(StackTraceElement caller, String loggerName, LEVEL level) {
+            return dateFormat.get().format(new Date());
+        }
+
+    }
+
+    public static class LevelPattern extends LoggerPattern {
+
+        public LevelPattern(int count, int length) {
+            super(count, length);
+        }
+
+        @Override
+        protected String doApply(StackTraceElement caller, String loggerName, LEVEL level) {
+            return level.toString();
+        }
+    }
+
+
+    public static class LogPattern extends LoggerPattern {
+
+        private int loggerCount;
+        private int loggerLength;
+
+        public LogPattern(int count, int length, int loggerCount, int loggerLength) {
+            super(count, length);
+            this.loggerCount = loggerCount;
+            this.loggerLength = loggerLength;
+        }
+
+        @Override
+        protected String doApply(StackTraceElement caller, String loggerName, LEVEL level) {
+            return Utils.shortenClassName(loggerName, loggerCount, loggerLength);
+        }
+
+        @Override
+        protected boolean isLoggerOnly() {
+            return true;
+        }
+    }
+
+    public static class CallerPattern extends LoggerPattern {
+
+        private int callerCount;
+        private int callerLength;
+
+        public CallerPattern(int count, int length, int callerCount, int callerLength) {
+            super(count, length);
+            this.callerCount = callerCount;
+            this.callerLength = callerLength;
+        }
+
+        @Override
+        protected String doApply(StackTraceElement caller, String loggerName, LEVEL level) {
+            if (caller == null) {
+                throw new IllegalArgumentException("Caller not found");
+            } else {
+                String callerString;
+                if (caller.getLineNumber() < 0) {
+                    callerString = String.format("%s#%s", caller.getClassName(), caller.getMethodName());
+                } else {
+                    callerString = String.format("%s#%s:%d", caller.getClassName(), caller.getMethodName(), caller.getLineNumber());
+                }
+                return Utils.shortenClassName(callerString, callerCount, callerLength);
+            }
+        }
+
+        @Override
+        protected boolean isCallerNeeded() {
+            return true;
+        }
+    }
+
+    public static class SourcePattern extends LoggerPattern {
+
+        public SourcePattern(int count, int length) {
+            super(count, length);
+        }
+
+        @Override
+        protected String doApply(StackTraceElement caller, String loggerName, LEVEL level) {
+            if (caller == null) {
+                throw new IllegalArgumentException("Caller not found");
+            } else {
+                StringBuilder builder = new StringBuilder();
+                if (caller.isNativeMethod()) {
+                    builder.append("(native)");
+                } else {
+                    if (caller.getFileName() == null) {
+                        builder.append("(unknown)");
+                    } else {
+                        if (caller.getLineNumber() >= 0) {
+                            builder.append(String.format("(%s:%d)", caller.getFileName(), caller.getLineNumber()));
+                        } else {
+                            builder.append(String.format("(%s)", caller.getFileName()));
+                        }
+                    }
+                }
+                return builder.toString();
+            }
+        }
+
+        @Override
+        protected boolean isCallerNeeded() {
+            return true;
+        }
+    }
+
+    public static class ThreadPattern extends LoggerPattern {
+
+        public ThreadPattern(int count, int length) {
+            super(count, length);
+        }
+
+        @Override
+        protected String doApply(StackTraceElement caller, String loggerName, LEVEL level) {
+            return Utils.getThreadName();
+        }
+    }
+
+    public static class ThreadIdPattern extends LoggerPattern {
+
+        public ThreadIdPattern(int count, int length) {
+            super(count, length);
+        }
+
+        @Override
+        protected String doApply(StackTraceElement caller, String loggerName, LEVEL level) {
+            return Utils.getThreadId();
+        }
+    }
+
+    public static class RelativePattern extends LoggerPattern {
+
+        public RelativePattern(int count, int length) {
+            super(count, length);
+        }
+
+        @Override
+        protected String doApply(StackTraceElement caller, String loggerName, LEVEL level) {
+            return String.valueOf(Utils.getRelativeMillis());
+        }
+    }
+
+    public static class ConcatenatePattern extends LoggerPattern {
+
+        private final List<LoggerPattern> loggerPatternList;
+
+        public ConcatenatePattern(int count, int length, List<LoggerPattern> loggerPatternList) {
+            super(count, length);
+            this.loggerPatternList = new ArrayList<LoggerPattern>(loggerPatternList);
+        }
+
+        public void addPattern(LoggerPattern loggerPattern) {
+            loggerPatternList.add(loggerPattern);
+        }
+
+        @Override
+        protected String doApply(StackTraceElement caller, String loggerName, LEVEL level) {
+            StringBuilder builder = new StringBuilder();
+            for (LoggerPattern loggerPattern : loggerPatternList) {
+                builder.append(loggerPattern.apply(caller, loggerName, level));
+            }
+            return builder.toString();
+        }
+
+        @Override
+        protected boolean isCallerNeeded() {
+            for (LoggerPattern loggerPattern : loggerPatternList) {
+                if (loggerPattern.isCallerNeeded()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        protected boolean isLoggerOnly() {
+            for (LoggerPattern loggerPattern : loggerPatternList) {
+                if (!loggerPattern.isLoggerOnly()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The pattern tree lowered to a flat array of instructions, run by one loop over the output
+     * buffer instead of a virtual call and a string per node.
+     * <p/>
+     * A node with a padding or a truncation is run between {@link #OP_GROUP_START}, which pushes
+     * the buffer length, and {@link #OP_GROUP_END}, which pads or truncates what was appended since.
+     * Adjacent literals are merged.
+     */
+    static final class Program {
+        static final int OP_LITERAL = 0;     // constant index
+        static final int OP_DATE = 1;        // constant index of the date format
+        static final int OP_LEVEL = 2;
+        static final int OP_LOGGER = 3;      // count, length
+        static final int OP_CALLER = 4;      // count, length
+        static final int OP_SOURCE = 5;
+        static final int OP_GROUP_START = 6;
+        static final int OP_GROUP_END = 7;   // min, length
+        static final int OP_THREAD = 8;
+        static final int OP_THREAD_ID = 9;
+        static final int OP_RELATIVE = 10;
+
+        private final int[] code;
+        private final Object[] constants;
+        private final int maxDepth;
+
+        private Program(int[] code, Object[] constants, int maxDepth) {
+            this.code = code;
+            this.constants = constants;
+            this.maxDepth = maxDepth;
+        }
+
+        static Program lower(LoggerPattern pattern) {
+            Lowering lowering = new Lowering();
+            lowering.emit(pattern, 0);
+            int[] code = new int[lowering.code.size()];
+            for (int i = 0; i < code.length; i++) {
+                code[i] = lowering.code.get(i);
+            }
+            return new Program(code, lowering.constants.toArray(), lowering.maxDepth);
+        }
+
+        int[] getCode() {
+            return code;
+        }
+
+        void execute(StringBuilder builder, StackTraceElement caller, String loggerName, LEVEL level) {
+            final int[] code = this.code;
+            final Object[] constants = this.constants;
+            int[] groupStarts = maxDepth == 0 ? null : new int[maxDepth];
+            int depth = 0;
+            int pc = 0;
+            while (pc < code.length) {
+                switch (code[pc++]) {
+                    case OP_LITERAL:
+                        builder.append((String) constants[code[pc++]]);
+                        break;
+                    case OP_DATE:
+                        builder.append(((DatePattern) constants[code[pc++]]).dateFormat.get().format(new Date()));
+                        break;
+                    case OP_LEVEL:
+                        builder.append(level.toString());
+                        break;
+                    case OP_LOGGER: {
+                        int loggerCount = code[pc++];
+                        int loggerLength = code[pc++];
+                        builder.append(loggerCount == 0 && loggerLength == 0
+                                ? loggerName : Utils.shortenClassName(loggerName, loggerCount, loggerLength));
+                        break;
+                    }
+                    case OP_CALLER: {
+                        int callerCount = code[pc++];
+                        int callerLength = code[pc++];
+                        appendCaller(builder, caller, callerCount, callerLength);
+                        break;
+                    }
+                    case OP_SOURCE:
+                        appendSource(builder, caller);
+                        break;
+                    case OP_GROUP_START:
+                        groupStarts[depth++] = builder.length();
+                        break;
+                    case OP_GROUP_END: {
+                        int min = code[pc++];
+                        int length = code[pc++];
+                        shorten(builder, groupStarts[--depth], min, length);
+                        break;
+                    }
+                    case OP_THREAD:
+                        builder.append(Utils.getThreadName());
+                        break;
+                    case OP_THREAD_ID:
+                        builder.append(Utils.getThreadId());
+                        break;
+                    case OP_RELATIVE:
+                        builder.append(Utils.getRelativeMillis());
+                        break;
+                    default:
+                        throw new IllegalStateException("bad instruction at " + (pc - 1));
+                }
+            }
+        }
+
+        private static void appendCaller(StringBuilder builder, StackTraceElement caller, int count, int length) {
+            if (caller == null) {
+                throw new IllegalArgumentException("Caller not found");
+            }
+            if (count != 0 || length != 0) {
+                String callerString = caller.getLineNumber() < 0
+                        ? caller.getClassName() + "#" + caller.getMethodName()
+                        : caller.getClassName() + "#" + caller.getMethodName() + ":" + caller.getLineNumber();
+                builder.append(Utils.shortenClassName(callerString, count, length));
+                return;
+            }
+            builder.append(caller.getClassName()).append('#').append(caller.getMethodName());
+            if (caller.getLineNumber() >= 0) {
+                builder.append(':').append(caller.getLineNumber());
+            }
+        }
+
+        private static void appendSource(StringBuilder builder, StackTraceElement caller) {
+            if (caller == null) {
+                throw new IllegalArgumentException("Caller not found");
+            }
+            if (caller.isNativeMethod()) {
+                builder.append("(native)");
+            } else if (caller.getFileName() == null) {
+                builder.append("(unknown)");
+            } else {
+                builder.append('(').append(caller.getFileName());
+                if (caller.getLineNumber() >= 0) {
+                    builder.append(':').append(caller.getLineNumber());
+                }
+                builder.append(')');
+            }
+        }
+
+        /**
+         * {@link Utils#shorten(String, int, int)} of the text appended since start, in place.
+         */
+        static void shorten(StringBuilder builder, int start, int min, int length) {
+            int size = builder.length() - start;
+            if (Math.abs(length) < size) {
+                if (length > 0) {
+                    builder.setLength(start + length);
+                    size = length;
+                } else if (length < 0) {
+                    builder.delete(start, builder.length() + length);
+                    size = -length;
+                }
+            }
+            int padding = Math.abs(min) - size;
+            if (padding > 0) {
+                if (min > 0) {
+                    builder.insert(start, SPACES, 0, Math.min(padding, SPACES.length));
+                    for (padding -= SPACES.length; padding > 0; padding--) {
+                        builder.insert(start, ' ');
+                    }
+                } else {
+                    for (; padding > 0; padding--) {
+                        builder.append(' ');
+                    }
+                }
+            }
+        }
+
+        private static final char[] SPACES = "                                ".toCharArray();
+
+        private static final class Lowering {
+            final List<Integer> code = new ArrayList<Integer>();
+            final List<Object> constants = new ArrayList<Object>();
+            int maxDepth;
+            // the index in code of the last literal operand, -1 if the last instruction is not a literal
+            int lastLiteral = -1;
+
+            void emit(LoggerPattern pattern, int depth) {
+                if (pattern == null) {
+                    return;
+                }
+                boolean group = pattern.count != 0 || pattern.length != 0;
+                if (group) {
+                    depth++;
+                    maxDepth = Math.max(maxDepth, depth);
+                    add(OP_GROUP_START);
+                }
+                if (pattern instanceof PlainPattern) {
+                    emitLiteral(((PlainPattern) pattern).string);
+                } else if (pattern instanceof DatePattern) {
+                    add(OP_DATE, constant(pattern));
+                } else if (pattern instanceof LevelPattern) {
+                    add(OP_LEVEL);
+                } else if (pattern instanceof LogPattern) {
+                    add(OP_LOGGER, ((LogPattern) pattern).loggerCount, ((LogPattern) pattern).loggerLength);
+                } else if (pattern instanceof CallerPattern) {
+                    add(OP_CALLER, ((CallerPattern) pattern).callerCount, ((CallerPattern) pattern).callerLength);
+                } else if (pattern instanceof SourcePattern) {
+                    add(OP_SOURCE);
+                } else if (pattern instanceof ThreadPattern) {
+                    add(OP_THREAD);
+                } else if (pattern instanceof ThreadIdPattern) {
+                    add(OP_THREAD_ID);
+                } else if (pattern instanceof RelativePattern) {
+                    add(OP_RELATIVE);
+                } else if (pattern instanceof ConcatenatePattern) {
+                    for (LoggerPattern child : ((ConcatenatePattern) pattern).loggerPatternList) {
+                        emit(child, depth);
+                    }
+                } else {
+                    throw new IllegalArgumentException("unknown pattern " + pattern.getClass().getName());
+                }
+                if (group) {
+                    add(OP_GROUP_END, pattern.count, pattern.length);
+                }
+            }
+
+            private void emitLiteral(String string) {
+                if (string == null || string.length() == 0) {
+                    return;
+                }
+                if (lastLiteral >= 0) {
+                    int index = code.get(lastLiteral);
+                    constants.set(index, constants.get(index) + string);
+                    return;
+                }
+                add(OP_LITERAL, constant(string));
+                lastLiteral = code.size() - 1;
+            }
+
+            private int constant(Object constant) {
+                constants.add(constant);
+                return constants.size() - 1;
+            }
+
+            private void add(int... instruction) {
+                for (int i : instruction) {
+                    code.add(i);
+                }
+                lastLiteral = -1;
+            }
+        }
+    }
+
+    private final int count;
+    private final int length;
+    // lowered on first use, the tree is still built by the compiler before
+    private Program program;
+
+    private LoggerPattern(int count, int length) {
+        this.count = count;
+        this.length = length;
+    }
+
+    /**
+     * Formats by walking the pattern tree.
+     *
+     * @return the formatted text.
+     */
+    public final String apply(StackTraceElement caller, String loggerName, LEVEL level) {
+        String string = doApply(caller, loggerName, level);
+        return Utils.shorten(string, count, length);
+    }
+
+    /**
+     * Formats like {@link #apply(StackTraceElement, String, LEVEL)}, with the flat program
+     * of the pattern, into the buffer.
+     *
+     * @param builder the buffer.
+     */
+    public final void appendTo(StringBuilder builder, StackTraceElement caller, String loggerName, LEVEL level) {
+        getProgram().execute(builder, caller, loggerName, level);
+    }
+
+    Program getProgram() {
+        Program program = this.program;
+        if (program == null) {
+            // immutable, a race only lowers the tree twice
+            program = Program.lower(this);
+            this.program = program;
+        }
+        return program;
+    }
+
+    protected abstract String doApply(StackTraceElement caller, String loggerName, LEVEL level);
+
+    protected boolean isCallerNeeded() {
+        return false;
+    }
+
+    /**
+     * Checks if the pattern renders only the logger name and literals, the same string for every
+     * event of a logger then.
+     *
+     * @return {@code true} if the logger name is the only input.
+     */
+    protected boolean isLoggerOnly() {
+        return false;
+    }
+
+    public static LoggerPattern compile(String pattern) {
+        try {
+            return pattern == null ? null : new Compiler().compile(pattern);
+        } catch (Exception e) {
+//            LoggerManager.getLogger(Logger.ROOT_LOGGER_NAME)
+//                    .e(e, "cannot parse pattern: '%s'", pattern);
+            return new PlainPattern(0, 0, pattern);
+        }
+
+    }
+
+    // Type codes of the patterns in the binary form, see {@link #write(LoggerPattern, DataOutput)}.
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_PLAIN = 1;
+    private static final byte TYPE_DATE = 2;
+    private static final byte TYPE_LEVEL = 3;
+    private static final byte TYPE_LOGGER = 4;
+    private static final byte TYPE_CALLER = 5;
+    private static final byte TYPE_SOURCE = 6;
+    private static final byte TYPE_CONCATENATE = 7;
+    private static final byte TYPE_THREAD = 8;
+    private static final byte TYPE_THREAD_ID = 9;
+    private static final byte TYPE_RELATIVE = 10;
+
+    /**
+     * Writes the compiled pattern tree in a compact binary form,
+     * so it can be restored by {@link #read(DataInput)} without compiling the pattern again.
+     *
+     * @param pattern the pattern, can be {@code null}.
+     * @param out     the output.
+     * @throws IOException if the output fails.
+     */
+    static void write(LoggerPattern pattern, DataOutput out) throws IOException {
+        if (pattern == null) {
+            out.writeByte(TYPE_NULL);
+            return;
+        }
+        if (pattern instanceof PlainPattern) {
+            out.writeByte(TYPE_PLAIN);
+        } else if (pattern instanceof DatePattern) {
+            out.writeByte(TYPE_DATE);
+        } else if (pattern instanceof LevelPattern) {
+            out.writeByte(TYPE_LEVEL);
+        } else if (pattern instanceof LogPattern) {
+            out.writeByte(TYPE_LOGGER);
+        } else if (pattern instanceof CallerPattern) {
+            out.writeByte(TYPE_CALLER);
+        } else if (pattern instanceof SourcePattern) {
+            out.writeByte(TYPE_SOURCE);
+        } else if (pattern instanceof ConcatenatePattern) {
+            out.writeByte(TYPE_CONCATENATE);
+        } else if (pattern instanceof ThreadPattern) {
+            out.writeByte(TYPE_THREAD);
+        } else if (pattern instanceof ThreadIdPattern) {
+            out.writeByte(TYPE_THREAD_ID);
+        } else if (pattern instanceof RelativePattern) {
+            out.writeByte(TYPE_RELATIVE);
+        } else {
+            throw new IOException("unknown pattern " + pattern.getClass().getName());
+        }
+        out.writeInt(pattern.count);
+        out.writeInt(pattern.length);
+        if (pattern instanceof PlainPattern) {
+            out.writeUTF(((PlainPattern) pattern).string);
+        } else if (pattern instanceof DatePattern) {
+            String dateFormat = ((DatePattern) pattern).dateFormatString;
+            out.writeBoolean(dateFormat != null);
+            if (dateFormat != null) {
+                out.writeUTF(dateFormat);
+            }
+        } else if (pattern instanceof LogPattern) {
+            out.writeInt(((LogPattern) pattern).loggerCount);
+            out.writeInt(((LogPattern) pattern).loggerLength);
+        } else if (pattern instanceof CallerPattern) {
+            out.writeInt(((CallerPattern) pattern).callerCount);
+            out.writeInt(((CallerPattern) pattern).callerLength);
+        } else if (pattern instanceof ConcatenatePattern) {
+            List<LoggerPattern> loggerPatternList = ((ConcatenatePattern) pattern).loggerPatternList;
+            out.writeInt(loggerPatternList.size());
+            for (LoggerPattern loggerPattern : loggerPatternList) {
+                write(loggerPattern, out);
+            }
+        }
+    }
+
+    /**
+     * Reads the compiled pattern tree written by {@link #write(LoggerPattern, DataOutput)}.
+     *
+     * @param in the input.
+     * @return the pattern, can be {@code null}.
+     * @throws IOException if the input fails or has an unknown format.
+     */
+    static LoggerPattern read(DataInput in) throws IOException {
+        byte type = in.readByte();
+        if (type == TYPE_NULL) {
+            return null;
+        }
+        int count = in.readInt();
+        int length = in.readInt();
+        switch (type) {
+            case TYPE_PLAIN:
+                return new PlainPattern(count, length, in.readUTF());
+            case TYPE_DATE:
+                return new DatePattern(count, length, in.readBoolean() ? in.readUTF() : null);
+            case TYPE_LEVEL:
+                return new LevelPattern(count, length);
+            case TYPE_LOGGER:
+                return new LogPattern(count, length, in.readInt(), in.readInt());
+            case TYPE_CALLER:
+                return new CallerPattern(count, length, in.readInt(), in.readInt());
+            case TYPE_SOURCE:
+                return new SourcePattern(count, length);
+            case TYPE_THREAD:
+                return new ThreadPattern(count, length);
+            case TYPE_THREAD_ID:
+                return new ThreadIdPattern(count, length);
+            case TYPE_RELATIVE:
+                return new RelativePattern(count, length);
+            case TYPE_CONCATENATE:
+                int size = in.readInt();
+                List<LoggerPattern> loggerPatternList = new ArrayList<LoggerPattern>(size);
+                for (int i = 0; i < size; i++) {
+                    loggerPatternList.add(read(in));
+                }
+                return new ConcatenatePattern(count, length, loggerPatternList);
+            default:
+                throw new IOException("unknown pattern type " + type);
+        }
+    }
+
+    public static class Compiler {
+
+        private String patternString;
+        private int position;
+        private List<ConcatenatePattern> queue;
+
+        private final Pattern PERCENT_PATTERN = Pattern.compile("%%");
+        private final Pattern NEWLINE_PATTERN = Pattern.compile("%n");
+        private final Pattern LEVEL_PATTERN = Pattern.compile("%([+-]?\\d+)?(\\.([+-]?\\d+))?level");
+        private final Pattern LOGGER_PATTERN =
+                Pattern.compile("%([+-]?\\d+)?(\\.([+-]?\\d+))?logger(\\{([+-]?\\d+)?(\\.([+-]?\\d+))?\\})?");
+        private final Pattern CALLER_PATTERN =
+                Pattern.compile("%([+-]?\\d+)?(\\.([+-]?\\d+))?caller(\\{([+-]?\\d+)?(\\.([+-]?\\d+))?\\})?");
+        private final Pattern SOURCE_PATTERN = Pattern.compile("%([+-]?\\d+)?(\\.([+-]?\\d+))?source");
+        private final Pattern DATE_PATTERN = Pattern.compile("%date(\\{(.*?)\\})?");
+        private final Pattern CONCATENATE_PATTERN = Pattern.compile("%([+-]?\\d+)?(\\.([+-]?\\d+))?\\(");
+        private final Pattern DATE_PATTERN_SHORT = Pattern.compile("%d(\\{(.*?)\\})?");
+        private final Pattern LEVEL_PATTERN_SHORT = Pattern.compile("%([+-]?\\d+)?(\\.([+-]?\\d+))?p");
+        private final Pattern LOGGER_PATTERN_SHORT =
+                Pattern.compile("%([+-]?\\d+)?(\\.([+-]?\\d+))?c(\\{([+-]?\\d+)?(\\.([+-]?\\d+))?\\})?");
+        private final Pattern CALLER_PATTERN_SHORT =
+                Pattern.compile("%([+-]?\\d+)?(\\.([+-]?\\d+))?C(\\{([+-]?\\d+)?(\\.([+-]?\\d+))?\\})?");
+        private final Pattern SOURCE_PATTERN_SHORT = Pattern.compile("%([+-]?\\d+)?(\\.([+-]?\\d+))?s");
+        private final Pattern THREAD_PATTERN = Pattern.compile("%([+-]?\\d+)?(\\.([+-]?\\d+))?thread");
+        private final Pattern THREAD_ID_PATTERN = Pattern.compile("%([+-]?\\d+)?(\\.([+-]?\\d+))?tid");
+        private final Pattern RELATIVE_PATTERN = Pattern.compile("%([+-]?\\d+)?(\\.([+-]?\\d+))?relative");
+        private final Pattern THREAD_PATTERN_SHORT = Pattern.compile("%([+-]?\\d+)?(\\.([+-]?\\d+))?t");
+        private final Pattern RELATIVE_PATTERN_SHORT = Pattern.compile("%([+-]?\\d+)?(\\.([+-]?\\d+))?r");
+
+        public LoggerPattern compile(String string) {
+            if (string == null) {
+                return null;
+            }
+
+            this.position = 0;
+            this.patternString = string;
+            this.queue = new ArrayList<ConcatenatePattern>();
+            queue.add(new ConcatenatePattern(0, 0, new ArrayList<LoggerPattern>()));
+
+            while (string.length() > position) {
+
+                int index = string.indexOf("%", position);
+                int bracketIndex = string.indexOf(")", position);
+                if (queue.size() > 1 && bracketIndex < index) {
+                    queue.get(queue.size() - 1).addPattern(new PlainPattern(0, 0, string.substring(position, bracketIndex)));
+                    queue.get(queue.size() - 2).addPattern(queue.remove(queue.size() - 1));
+                    position = bracketIndex + 1;
+                }
+                if (index == -1) {
+                    queue.get(queue.size() - 1).addPattern(new PlainPattern(0, 0, string.substring(position)));
+                    break;
+                } else {
+                    queue.get(queue.size() - 1).addPattern(new PlainPattern(0, 0, string.substring(position, index)));
+                    position = index;
+                    parse();
+                }
+            }
+
+            return queue.get(0);
+        }
+
+        private void parse() {
+            Matcher matcher;
+            if ((matcher = findPattern(PERCENT_PATTERN)) != null) {
+                queue.get(queue.size() - 1).addPattern(new PlainPattern(0, 0, "%"));
+                position = matcher.end();
+                return;
+            }
+            if ((matcher = findPattern(NEWLINE_PATTERN)) != null) {
+                queue.get(queue.size() - 1).addPattern(new PlainPattern(0, 0, "\n"));
+                position = matcher.end();
+                return;
+            }
+            if ((matcher = findPattern(LEVEL_PATTERN)) != null || (matcher = findPattern(LEVEL_PATTERN_SHORT)) != null) {
+                int count = Integer.parseInt(matcher.group(1) == null ? "0" : matcher.group(1));
+                int length = Integer.parseInt(matcher.group(3) == null ? "0" : matcher.group(3));
+                queue.get(queue.size() - 1).addPattern(new LevelPattern(count, length));
+                position = matcher.end();
+                return;
+            }
+            // the order is important because short logger pattern may match long caller occurrence
+            if ((matcher = findPattern(CALLER_PATTERN)) != null || (matcher = findPattern(CALLER_PATTERN_SHORT)) != null) {
+                int count = Integer.parseInt(matcher.group(1) == null ? "0" : matcher.group(1));
+                int length = Integer.parseInt(matcher.group(3) == null ? "0" : matcher.group(3));
+                int countCaller = Integer.parseInt(matcher.group(5) == null ? "0" : matcher.group(5));
+                int lengthCaller = Integer.parseInt(matcher.group(7) == null ? "0" : matcher.group(7));
+                queue.get(queue.size() - 1).addPattern(new CallerPattern(count, length, countCaller, lengthCaller));
+                position = matcher.end();
+                return;
+            }
+            if ((matcher = findPattern(SOURCE_PATTERN)) != null || (matcher = findPattern(SOURCE_PATTERN_SHORT)) != null) {
+                int count = Integer.parseInt(matcher.group(1) == null ? "0" : matcher.group(1));
+                int length = Integer.parseInt(matcher.group(3) == null ? "0" : matcher.group(3));
+                queue.get(queue.size() - 1).addPattern(new SourcePattern(count, length));
+                position = matcher.end();
+                return;
+            }
+            // the order is important because short thread pattern may match long thread id occurrence
+            if ((matcher = findPattern(THREAD_ID_PATTERN)) != null) {
+                int count = Integer.parseInt(matcher.group(1) == null ? "0" : matcher.group(1));
+                int length = Integer.parseInt(matcher.group(3) == null ? "0" : matcher.group(3));
+                queue.get(queue.size() - 1).addPattern(new ThreadIdPattern(count, length));
+                position = matcher.end();
+                return;
+            }
+            if ((matcher = findPattern(THREAD_PATTERN)) != null || (matcher = findPattern(THREAD_PATTERN_SHORT)) != null) {
+                int count = Integer.parseInt(matcher.group(1) == null ? "0" : matcher.group(1));
+                int length = Integer.parseInt(matcher.group(3) == null ? "0" : matcher.group(3));
+                queue.get(queue.size() - 1).addPattern(new ThreadPattern(count, length));
+                position = matcher.end();
+                return;
+            }
+            if ((matcher = findPattern(RELATIVE_PATTERN)) != null || (matcher = findPattern(RELATIVE_PATTERN_SHORT)) != null) {
+                int count = Integer.parseInt(matcher.group(1) == null ? "0" : matcher.group(1));
+                int length = Integer.parseInt(matcher.group(3) == null ? "0" : matcher.group(3));
+                queue.get(queue.size() - 1).addPattern(new RelativePattern(count, length));
+                position = matcher.end();
+                return;
+            }
+            if ((matcher = findPattern(LOGGER_PATTERN)) != null || (matcher = findPattern(LOGGER_PATTERN_SHORT)) != null) {
+                int count = Integer.parseInt(matcher.group(1) == null ? "0" : matcher.group(1));
+                int length = Integer.parseInt(matcher.group(3) == null ? "0" : matcher.group(3));
+                int countLogger = Integer.parseInt(matcher.group(5) == null ? "0" : matcher.group(5));
+                int lengthLogger = Integer.parseInt(matcher.group(7) == null ? "0" : matcher.group(7));
+                queue.get(queue.size() - 1).addPattern(new LogPattern(count, length, countLogger, lengthLogger));
+                position = matcher.end();
+                return;
+            }
+            if ((matcher = findPattern(DATE_PATTERN)) != null || (matcher = findPattern(DATE_PATTERN_SHORT)) != null) {
+                String dateFormat = matcher.group(2);
+                queue.get(queue.size() - 1).addPattern(new DatePattern(0, 0, dateFormat));
+                position = matcher.end();
+                return;
+            }
+            if ((matcher = findPattern(CONCATENATE_PATTERN)) != null) {
+                int count = Integer.parseInt(matcher.group(1) == null ? "0" : matcher.group(1));
+                int length = Integer.parseInt(matcher.group(3) == null ? "0" : matcher.group(3));
+                queue.add(new ConcatenatePattern(count, length, new ArrayList<LoggerPattern>()));
+                position = matcher.end();
+                return;
+            }
+
+            throw new IllegalArgumentException();
+        }
+
+        private Matcher findPattern(Pattern pattern) {
+            Matcher matcher = pattern.matcher(patternString);
+            return matcher.find(position) && matcher.start() == position ? matcher : null;
+        }
+    }
+}
+
+
@@ -0,0 +1,193 @@
+package com.pitty.android.logger;
+
+import java.io.Closeable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Makes the loggers more verbose on the current thread only, e.g. to debug one request:
+ * <pre>
+ * LoggerScope.Token token = LoggerScope.enter(LEVEL.V);
+ * try {
+ *     handleRequest();
+ * } finally {
+ *     token.close();
+ * }
+ * </pre>
+ * or {@code LoggerScope.verbose(runnable)}. The tasks wrapped by {@link #wrap(Runnable)} or
+ * submitted to an executor wrapped by {@link #wrap(Executor)} run with the level of the thread
+ * which wrapped or submitted them.
+ * <p/>
+ * The level can only make the handlers print more, not less. The level checks read the
+ * thread local only while a scope is open somewhere, so they cost nothing otherwise.
+ */
+public final class LoggerScope {
+
+    private LoggerScope() {
+        throw new UnsupportedOperationException();
+    }
+
+    // the count of the open scopes of all the threads
+    private static final AtomicInteger active = new AtomicInteger();
+    private static final ThreadLocal<LEVEL> LEVEL_OVERRIDE = new ThreadLocal<LEVEL>();
+
+    /**
+     * Closes a scope, restoring the level of the thread before it was opened.
+     * It must be closed once, by the thread which opened it.
+     */
+    public static final class Token implements Closeable {
+        private final LEVEL previous;
+        private boolean closed;
+
+        private Token(LEVEL previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (previous == null) {
+                LEVEL_OVERRIDE.remove();
+            } else {
+                LEVEL_OVERRIDE.set(previous);
+            }
+            active.decrementAndGet();
+        }
+    }
+
+    /**
+     * Opens a scope with the level on the current thread.
+     *
+     * @param level the most verbose level printed, {@code null} keeps the current level.
+     * @return the token closing the scope.
+     */
+    public static Token enter(LEVEL level) {
+        LEVEL previous = LEVEL_OVERRIDE.get();
+        active.incrementAndGet();
+        if (level != null) {
+            LEVEL_OVERRIDE.set(level);
+        }
+        return new Token(previous);
+    }
+
+    /**
+     * Runs the task in a scope with the level.
+     *
+     * @param level the most verbose level printed.
+     * @param task  the task.
+     */
+    public static void run(LEVEL level, Runnable task) {
+        Token token = enter(level);
+        try {
+            task.run();
+        } finally {
+            token.close();
+        }
+    }
+
+    /**
+     * Calls the task in a scope with the level.
+     *
+     * @param level the most verbose level printed.
+     * @param task  the task.
+     * @return the result of the task.
+     * @throws Exception if the task throws.
+     */
+    public static <T> T call(LEVEL level, Callable<T> task) throws Exception {
+        Token token = enter(level);
+        try {
+            return task.call();
+        } finally {
+            token.close();
+        }
+    }
+
+    /**
+     * Runs the task with every level printed on the current thread.
+     *
+     * @param task the task.
+     */
+    public static void verbose(Runnable task) {
+        run(LEVEL.V, task);
+    }
+
+    /**
+     * Returns the level of the current thread.
+     *
+     * @return the level, {@code null} if there is no scope.
+     */
+    public static LEVEL getLevel() {
+        return active.get() == 0 ? null : LEVEL_OVERRIDE.get();
+    }
+
+    /**
+     * Checks if the scope of the current thread prints the level.
+     *
+     * @param level the level.
+     * @return {@code true} if the level is printed whatever the handler level is.
+     */
+    public static boolean isEnabled(LEVEL level) {
+        if (active.get() == 0) {
+            return false;
+        }
+        LEVEL override = LEVEL_OVERRIDE.get();
+        return override != null && level.ordinal() <= override.ordinal();
+    }
+
+    /**
+     * Wraps the task so it runs with the level of the current thread.
+     *
+     * @param task the task.
+     * @return the wrapped task, or the task if there is no scope.
+     */
+    public static Runnable wrap(final Runnable task) {
+        final LEVEL level = getLevel();
+        if (level == null) {
+            return task;
+        }
+        return new Runnable() {
+            @Override
+            public void run() {
+                LoggerScope.run(level, task);
+            }
+        };
+    }
+
+    /**
+     * Wraps the task so it runs with the level of the current thread.
+     *
+     * @param task the task.
+     * @return the wrapped task, or the task if there is no scope.
+     */
+    public static <T> Callable<T> wrap(final Callable<T> task) {
+        final LEVEL level = getLevel();
+        if (level == null) {
+            return task;
+        }
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return LoggerScope.call(level, task);
+            }
+        };
+    }
+
+    /**
+     * Wraps the executor so the tasks run with the level of the thread submitting them.
+     *
+     * @param executor the executor.
+     * @return the wrapped executor.
+     */
+    public static Executor wrap(final Executor executor) {
+        return new Executor() {
+            @Override
+            public void execute(Runnable task) {
+                executor.execute(wrap(task));
+            }
+        };
+    }
+}
@@ -0,0 +1,281 @@
+package com.pitty.android.logger;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The counters of a handler, by level:
+ * <table border=1>
+ * <tr><td>accepted</td><td>messages written to the sink</td></tr>
+ * <tr><td>filtered</td><td>level checks which failed</td></tr>
+ * <tr><td>dropped</td><td>messages lost because the sink failed</td></tr>
+ * <tr><td>chars</td><td>length of the messages written to the sink</td></tr>
+ * </table>
+ * The stats of the configured modules are named after the modules, the default handlers
+ * share the stats named {@value #DEFAULT}.
+ * <p/>
+ * Counting is disabled by default. It is enabled by the "stats" key of the config file,
+ * the period in seconds of a dump to the default sink, 0 means no dump:
+ * <pre>
+ * stats=60
+ * </pre>
+ * The counters are striped by thread, so threads logging at the same time
+ * do not contend on the same cache line.
+ */
+public final class LoggerStats {
+    public static final String DEFAULT = "root";
+
+    private static final int ACCEPTED = 0;
+    private static final int FILTERED = 1;
+    private static final int DROPPED = 2;
+    private static final int CHARS = 3;
+    private static final int KINDS = 4;
+
+    private static final int LEVELS = LEVEL.values().length;
+    // the counters of a stripe, padded so that stripes do not share cache lines
+    private static final int STRIPE_SIZE = KINDS * LEVELS + 8;
+    private static final int STRIPES;
+
+    static {
+        int stripes = 1;
+        int processors = Runtime.getRuntime().availableProcessors();
+        while (stripes < processors && stripes < 16) {
+            stripes <<= 1;
+        }
+        STRIPES = stripes;
+    }
+
+    private static volatile boolean enabled;
+    private static final ConcurrentMap<String, LoggerStats> statsMap = new ConcurrentHashMap<String, LoggerStats>();
+    private static ScheduledExecutorService dumpExecutor;
+    private static ScheduledFuture<?> dumpFuture;
+
+    /**
+     * Returns the stats with the name, they are created if needed.
+     *
+     * @param name the name of the stats.
+     * @return the stats.
+     */
+    public static LoggerStats get(String name) {
+        LoggerStats stats = statsMap.get(name);
+        if (stats == null) {
+            LoggerStats newStats = new LoggerStats(name);
+            stats = statsMap.putIfAbsent(name, newStats);
+            if (stats == null) {
+                stats = newStats;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the snapshots of all the stats.
+     *
+     * @return the snapshots by the names of the stats.
+     */
+    public static Map<String, Snapshot> snapshots() {
+        Map<String, Snapshot> snapshots = new LinkedHashMap<String, Snapshot>();
+        for (LoggerStats stats : statsMap.values()) {
+            snapshots.put(stats.name, stats.snapshot());
+        }
+        return Collections.unmodifiableMap(snapshots);
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables counting, the counters are kept.
+     *
+     * @param enabled {@code true} to count.
+     */
+    public static void setEnabled(boolean enabled) {
+        LoggerStats.enabled = enabled;
+    }
+
+    /**
+     * Writes the snapshots to the sink periodically, replacing the previous dump, if any.
+     *
+     * @param periodSeconds the period, 0 stops the dump.
+     * @param sink          the sink.
+     */
+    public static synchronized void startDump(long periodSeconds, final LogSink sink) {
+        if (dumpFuture != null) {
+            dumpFuture.cancel(false);
+            dumpFuture = null;
+        }
+        if (periodSeconds <= 0) {
+            return;
+        }
+        if (dumpExecutor == null) {
+            dumpExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "LoggerStats");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        dumpFuture = dumpExecutor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                dump(sink);
+            }
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Writes the snapshots to the sink, one message per stats.
+     *
+     * @param sink the sink.
+     */
+    public static void dump(LogSink sink) {
+        long now = System.currentTimeMillis();
+        for (Snapshot snapshot : snapshots().values()) {
+            String message = snapshot.toString();
+            sink.write(LEVEL.I, "LoggerStats", message,
+                    new LogEvent(now, LEVEL.I, LoggerStats.class.getName(), "LoggerStats", message, null, null));
+        }
+    }
+
+    private final String name;
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * STRIPE_SIZE);
+
+    private LoggerStats(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private static int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPES - 1);
+    }
+
+    private void add(int kind, LEVEL level, long delta) {
+        cells.getAndAdd(stripe() * STRIPE_SIZE + kind * LEVELS + level.ordinal(), delta);
+    }
+
+    void accepted(LEVEL level, int chars) {
+        int base = stripe() * STRIPE_SIZE + level.ordinal();
+        cells.getAndIncrement(base + ACCEPTED * LEVELS);
+        cells.getAndAdd(base + CHARS * LEVELS, chars);
+    }
+
+    void filtered(LEVEL level) {
+        add(FILTERED, level, 1);
+    }
+
+    void dropped(LEVEL level) {
+        add(DROPPED, level, 1);
+    }
+
+    /**
+     * Returns the current values of the counters.
+     *
+     * @return the snapshot.
+     */
+    public Snapshot snapshot() {
+        long[] sums = new long[KINDS * LEVELS];
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += cells.get(stripe * STRIPE_SIZE + i);
+            }
+        }
+        return new Snapshot(name, sums);
+    }
+
+    /**
+     * Resets the counters, the events counted at the same time may be lost.
+     */
+    public void reset() {
+        for (int i = 0; i < cells.length(); i++) {
+            cells.set(i, 0);
+        }
+    }
+
+    /**
+     * The values of the counters of a {@link LoggerStats} at a moment.
+     */
+    public static final class Snapshot {
+        private final String name;
+        private final long[] sums;
+
+        Snapshot(String name, long[] sums) {
+            this.name = name;
+            this.sums = sums;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getAccepted(LEVEL level) {
+            return sums[ACCEPTED * LEVELS + level.ordinal()];
+        }
+
+        public long getFiltered(LEVEL level) {
+            return sums[FILTERED * LEVELS + level.ordinal()];
+        }
+
+        public long getDropped(LEVEL level) {
+            return sums[DROPPED * LEVELS + level.ordinal()];
+        }
+
+        public long getChars(LEVEL level) {
+            return sums[CHARS * LEVELS + level.ordinal()];
+        }
+
+        public long getAccepted() {
+            return total(ACCEPTED);
+        }
+
+        public long getFiltered() {
+            return total(FILTERED);
+        }
+
+        public long getDropped() {
+            return total(DROPPED);
+        }
+
+        public long getChars() {
+            return total(CHARS);
+        }
+
+        private long total(int kind) {
+            long total = 0;
+            for (int i = 0; i < LEVELS; i++) {
+                total += sums[kind * LEVELS + i];
+            }
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(name).append(':');
+            for (LEVEL level : LEVEL.values()) {
+                if (getAccepted(level) + getFiltered(level) + getDropped(level) > 0) {
+                    builder.append(' ').append(level.name())
+                            .append("{accepted=").append(getAccepted(level))
+                            .append(", filtered=").append(getFiltered(level))
+                            .append(", dropped=").append(getDropped(level))
+                            .append(", chars=").append(getChars(level)).append('}');
+                }
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.pitty.android.logger;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * {@link LogSink} keeping the last events in memory.
+ * <p/>
+ * Useful to capture the output in tests. When the capacity is exceeded
+ * the oldest events are discarded.
+ */
+public class MemorySink extends AbstractLogSink {
+    // Default count of the events kept.
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final int capacity;
+    private final LinkedList<LogEvent> events = new LinkedList<LogEvent>();
+
+    public MemorySink() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates new {@link MemorySink}.
+     *
+     * @param capacity the maximum count of events kept.
+     */
+    public MemorySink(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void write(LEVEL level, String tag, String message, LogEvent event) {
+        synchronized (events) {
+            add(event);
+        }
+    }
+
+    @Override
+    public void write(List<LogEvent> events) {
+        synchronized (this.events) {
+            for (int i = 0, size = events.size(); i < size; i++) {
+                add(events.get(i));
+            }
+        }
+    }
+
+    private void add(LogEvent event) {
+        if (events.size() >= capacity) {
+            events.removeFirst();
+        }
+        events.addLast(event);
+    }
+
+    /**
+     * Returns a copy of the events kept, the oldest first.
+     *
+     * @return the events.
+     */
+    public List<LogEvent> getEvents() {
+        synchronized (events) {
+            return new ArrayList<LogEvent>(events);
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Discards all the events kept.
+     */
+    public void clear() {
+        synchronized (events) {
+            events.clear();
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.pitty.android.logger;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A parsed SLF4J message format: the literal segments between the "{}" placeholders.
+ * <p/>
+ * Rendering a template gives exactly the same result as
+ * {@code org.slf4j.helpers.MessageFormatter#arrayFormat(String, Object[])}, including
+ * the escaped placeholders "\{}" and "\\{}" and the rendering of arrays,
+ * but the format is scanned only once, when the template is parsed.
+ * Templates are immutable and are shared through {@link MessageTemplateCache}.
+ */
+public final class MessageTemplate {
+    private static final String DELIM = "{}";
+    private static final char ESCAPE = '\\';
+
+    private final String format;
+    // literals[k] precedes the placeholder k, literals[count] is the escaped tail.
+    private final String[] literals;
+    // rawStart[k] is the format index after the placeholder k - 1,
+    // the rest of the format is printed as is from it if there is no argument k.
+    private final int[] rawStart;
+
+    private MessageTemplate(String format, String[] literals, int[] rawStart) {
+        this.format = format;
+        this.literals = literals;
+        this.rawStart = rawStart;
+    }
+
+    /**
+     * Parses the format.
+     *
+     * @param format the SLF4J format string.
+     * @return the template.
+     */
+    public static MessageTemplate parse(String format) {
+        int count = 0;
+        for (int j = format.indexOf(DELIM); j != -1; j = format.indexOf(DELIM, j + 2)) {
+            if (!isEscaped(format, j) || isDoubleEscaped(format, j)) {
+                count++;
+            }
+        }
+        String[] literals = new String[count + 1];
+        int[] rawStart = new int[count + 1];
+        StringBuilder builder = new StringBuilder();
+        int i = 0;
+        int k = 0;
+        while (k <= count) {
+            int j = format.indexOf(DELIM, i);
+            if (j == -1) {
+                builder.append(format, i, format.length());
+                literals[k] = builder.toString();
+                break;
+            }
+            if (isEscaped(format, j)) {
+                builder.append(format, i, j - 1);
+                if (!isDoubleEscaped(format, j)) {
+                    // "\{}" prints "{}" without consuming an argument
+                    builder.append('{');
+                    i = j + 1;
+                    continue;
+                }
+            } else {
+                builder.append(format, i, j);
+            }
+            literals[k] = builder.toString();
+            builder.setLength(0);
+            i = j + 2;
+            rawStart[++k] = i;
+        }
+        return new MessageTemplate(format, literals, rawStart);
+    }
+
+    private static boolean isEscaped(String format, int delimiterIndex) {
+        return delimiterIndex > 0 && format.charAt(delimiterIndex - 1) == ESCAPE;
+    }
+
+    private static boolean isDoubleEscaped(String format, int delimiterIndex) {
+        return delimiterIndex >= 2 && format.charAt(delimiterIndex - 2) == ESCAPE;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns the count of the "{}" placeholders.
+     *
+     * @return the count of placeholders.
+     */
+    public int getPlaceholderCount() {
+        return literals.length - 1;
+    }
+
+    /**
+     * Returns the throwable of the arguments: the last argument if it is a throwable
+     * not consumed by a placeholder.
+     *
+     * @param args the arguments, can be {@code null}.
+     * @return the throwable or {@code null}.
+     */
+    public Throwable getThrowable(Object[] args) {
+        if (args == null || args.length <= getPlaceholderCount()) {
+            return null;
+        }
+        Object last = args[args.length - 1];
+        return last instanceof Throwable ? (Throwable) last : null;
+    }
+
+    /**
+     * Appends the message to the builder.
+     *
+     * @param builder the builder.
+     * @param args    the arguments, can be {@code null}.
+     */
+    public void render(StringBuilder builder, Object[] args) {
+        int argCount = args == null ? 0 : args.length;
+        int count = getPlaceholderCount();
+        if (argCount == 0) {
+            builder.append(format);
+            return;
+        }
+        int k = 0;
+        for (; k < count && k < argCount; k++) {
+            builder.append(literals[k]);
+            appendArgument(builder, args[k], null);
+        }
+        if (argCount > count) {
+            builder.append(literals[count]);
+        } else {
+            builder.append(format, rawStart[k], format.length());
+        }
+    }
+
+    /**
+     * Appends the message to the builder, primitive arguments are not boxed.
+     *
+     * @param builder   the builder.
+     * @param arguments the arguments, can be {@code null}.
+     */
+    public void render(StringBuilder builder, LogArguments arguments) {
+        int argCount = arguments == null ? 0 : arguments.size();
+        int count = getPlaceholderCount();
+        if (argCount == 0) {
+            builder.append(format);
+            return;
+        }
+        int k = 0;
+        for (; k < count && k < argCount; k++) {
+            builder.append(literals[k]);
+            arguments.appendTo(builder, k);
+        }
+        if (argCount > count) {
+            builder.append(literals[count]);
+        } else {
+            builder.append(format, rawStart[k], format.length());
+        }
+    }
+
+    /**
+     * Appends the argument like SLF4J does: arrays are printed with their elements.
+     * A {@link LogSupplier} is called and its value is appended.
+     */
+    static void appendArgument(StringBuilder builder, Object o, Map<Object[], Object> seen) {
+        if (o instanceof LogSupplier) {
+            try {
+                o = ((LogSupplier) o).get();
+            } catch (Throwable t) {
+                builder.append("[FAILED get()]");
+                return;
+            }
+        }
+        if (o == null) {
+            builder.append("null");
+        } else if (!o.getClass().isArray()) {
+            try {
+                builder.append(o.toString());
+            } catch (Throwable t) {
+                builder.append("[FAILED toString()]");
+            }
+        } else if (o instanceof boolean[]) {
+            boolean[] a = (boolean[]) o;
+            builder.append('[');
+            for (int i = 0; i < a.length; i++) {
+                if (i > 0) builder.append(", ");
+                builder.append(a[i]);
+            }
+            builder.append(']');
+        } else if (o instanceof byte[]) {
+            byte[] a = (byte[]) o;
+            builder.append('[');
+            for (int i = 0; i < a.length; i++) {
+                if (i > 0) builder.append(", ");
+                builder.append(a[i]);
+            }
+            builder.append(']');
+        } else if (o instanceof char[]) {
+            char[] a = (char[]) o;
+            builder.append('[');
+            for (int i = 0; i < a.length; i++) {
+                if (i > 0) builder.append(", ");
+                builder.append(a[i]);
+            }
+            builder.append(']');
+        } else if (o instanceof short[]) {
+            short[] a = (short[]) o;
+            builder.append('[');
+            for (int i = 0; i < a.length; i++) {
+                if (i > 0) builder.append(", ");
+                builder.append(a[i]);
+            }
+            builder.append(']');
+        } else if (o instanceof int[]) {
+            int[] a = (int[]) o;
+            builder.append('[');
+            for (int i = 0; i < a.length; i++) {
+                if (i > 0) builder.append(", ");
+                builder.append(a[i]);
+            }
+            builder.append(']');
+        } else if (o instanceof long[]) {
+            long[] a = (long[]) o;
+            builder.append('[');
+            for (int i = 0; i < a.length; i++) {
+                if (i > 0) builder.append(", ");
+                builder.append(a[i]);
+            }
+            builder.append(']');
+        } else if (o instanceof float[]) {
+            float[] a = (float[]) o;
+            builder.append('[');
+            for (int i = 0; i < a.length; i++) {
+                if (i > 0) builder.append(", ");
+                builder.append(a[i]);
+            }
+            builder.append(']');
+        } else if (o instanceof double[]) {
+            double[] a = (double[]) o;
+            builder.append('[');
+            for (int i = 0; i < a.length; i++) {
+                if (i > 0) builder.append(", ");
+                builder.append(a[i]);
+            }
+            builder.append(']');
+        } else {
+            Object[] a = (Object[]) o;
+            if (seen == null) {
+                seen = new IdentityHashMap<Object[], Object>();
+            }
+            builder.append('[');
+            if (seen.containsKey(a)) {
+                builder.append("...");
+            } else {
+                seen.put(a, null);
+                for (int i = 0; i < a.length; i++) {
+                    if (i > 0) builder.append(", ");
+                    appendArgument(builder, a[i], seen);
+                }
+                seen.remove(a);
+            }
+            builder.append(']');
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.pitty.android.logger;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded cache of {@link MessageTemplate}s keyed by the identity of the format string.
+ * <p/>
+ * Format strings are almost always literals, so the same instance comes with every call.
+ * The cache is a direct-mapped table indexed by {@link System#identityHashCode(Object)}:
+ * a lookup is one array read and one reference comparison, without locks.
+ * <p/>
+ * A slot is taken over only if its template was not used since the last collision,
+ * so one-off formats built at runtime do not evict the hot literals. Formats longer than
+ * {@link #MAX_FORMAT_LENGTH} are never cached.
+ * <p/>
+ * The hits and misses are counted in stripes by thread, like {@link LoggerStats}, so threads logging
+ * at the same time do not contend on the same cache line.
+ */
+public final class MessageTemplateCache {
+    // Default count of slots, must be a power of 2.
+    public static final int DEFAULT_CAPACITY = 512;
+    // Longer formats are parsed on every call.
+    public static final int MAX_FORMAT_LENGTH = 1024;
+
+    private static final int HITS = 0;
+    private static final int MISSES = 1;
+    // the counters of a stripe, padded so that stripes do not share cache lines
+    private static final int STRIPE_SIZE = 2 + 8;
+    private static final int STRIPES;
+
+    static {
+        int stripes = 1;
+        int processors = Runtime.getRuntime().availableProcessors();
+        while (stripes < processors && stripes < 16) {
+            stripes <<= 1;
+        }
+        STRIPES = stripes;
+    }
+
+    private static final MessageTemplateCache DEFAULT = new MessageTemplateCache(DEFAULT_CAPACITY);
+
+    /**
+     * Returns the cache shared by all loggers.
+     *
+     * @return the default cache.
+     */
+    public static MessageTemplateCache getDefault() {
+        return DEFAULT;
+    }
+
+    private static final class Entry {
+        final MessageTemplate template;
+        // set on hits, cleared on collisions.
+        volatile boolean referenced;
+
+        Entry(MessageTemplate template) {
+            this.template = template;
+        }
+    }
+
+    private final Entry[] table;
+    private final int mask;
+    private final AtomicLongArray counters = new AtomicLongArray(STRIPES * STRIPE_SIZE);
+
+    /**
+     * Creates new {@link MessageTemplateCache}.
+     *
+     * @param capacity the count of slots, rounded up to a power of 2.
+     */
+    public MessageTemplateCache(int capacity) {
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.table = new Entry[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the template of the format.
+     *
+     * @param format the format string.
+     * @return the template, parsed now if it is not in the cache.
+     */
+    public MessageTemplate get(String format) {
+        int index = System.identityHashCode(format) & mask;
+        Entry entry = table[index];
+        if (entry != null && entry.template.getFormat() == format) {
+            count(HITS);
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            return entry.template;
+        }
+        count(MISSES);
+        MessageTemplate template = MessageTemplate.parse(format);
+        if (format.length() <= MAX_FORMAT_LENGTH) {
+            if (entry == null || !entry.referenced) {
+                table[index] = new Entry(template);
+            } else {
+                entry.referenced = false;
+            }
+        }
+        return template;
+    }
+
+    private void count(int counter) {
+        long id = Thread.currentThread().getId();
+        int stripe = (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPES - 1);
+        counters.getAndIncrement(stripe * STRIPE_SIZE + counter);
+    }
+
+    private long sum(int counter) {
+        long sum = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            sum += counters.get(stripe * STRIPE_SIZE + counter);
+        }
+        return sum;
+    }
+
+    public long getHitCount() {
+        return sum(HITS);
+    }
+
+    public long getMissCount() {
+        return sum(MISSES);
+    }
+
+    /**
+     * Returns the ratio of lookups served from the cache.
+     *
+     * @return the hit rate from 0 to 1.
+     */
+    public double getHitRate() {
+        long hitCount = getHitCount();
+        long total = hitCount + getMissCount();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Returns the count of cached templates.
+     *
+     * @return the size.
+     */
+    public int getSize() {
+        int size = 0;
+        for (Entry entry : table) {
+            if (entry != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    public int getCapacity() {
+        return table.length;
+    }
+
+    /**
+     * Removes all templates and resets the statistics, the lookups counted at the same time may be lost.
+     */
+    public void clear() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = null;
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MessageTemplateCache{size=%d/%d, hits=%d, misses=%d, hitRate=%.3f}",
+                getSize(), getCapacity(), getHitCount(), getMissCount(), getHitRate());
+    }
+}
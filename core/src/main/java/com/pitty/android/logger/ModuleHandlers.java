@@ -0,0 +1,134 @@
+package com.pitty.android.logger;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The handlers of the modules of a {@link LoggerConfiguration}, each created with its compiled
+ * patterns the first time a logger resolves to its module.
+ * <p/>
+ * Most sessions use a few of the configured modules, so the config is loaded without
+ * compiling any pattern. A handler is created once, later lookups read a volatile field.
+ * <p/>
+ * The modules with the same level, tag, patterns and sink share one handler, unless
+ * {@link LoggerStats} is enabled when it is created: the handler counts the messages of its module.
+ */
+public final class ModuleHandlers {
+
+    /**
+     * A module and its handler once created.
+     */
+    private static final class Entry {
+        final LoggerConfiguration.Module module;
+        volatile PatternLoggerHandler handler;
+
+        Entry(LoggerConfiguration.Module module) {
+            this.module = module;
+        }
+    }
+
+    // not modified after the constructor
+    private final Map<String, Entry> entries;
+    private final LogSink defaultSink;
+    // the handlers by level, tag, patterns and sink, guarded by itself
+    private final Map<List<Object>, PatternLoggerHandler> shared = new HashMap<List<Object>, PatternLoggerHandler>();
+
+    /**
+     * Creates new {@link ModuleHandlers}, no handler is created yet.
+     *
+     * @param modules     the modules.
+     * @param defaultSink the sink of the modules without sink.
+     */
+    public ModuleHandlers(Collection<LoggerConfiguration.Module> modules, LogSink defaultSink) {
+        this.entries = new HashMap<String, Entry>(modules.size() * 4 / 3 + 1);
+        for (LoggerConfiguration.Module module : modules) {
+            entries.put(module.getName(), new Entry(module));
+        }
+        this.defaultSink = defaultSink;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Finds the module of a logger, see {@link LoggerConfiguration#findModule(Map, String)}.
+     *
+     * @param loggerName the logger name.
+     * @return the module name, or {@code null} if no module matches.
+     */
+    public String findModule(String loggerName) {
+        return LoggerConfiguration.findModule(entries, loggerName);
+    }
+
+    /**
+     * Returns the handler of a module, created on the first call.
+     *
+     * @param moduleName the module name.
+     * @return the handler, {@code null} if there is no such module.
+     */
+    public PatternLoggerHandler get(String moduleName) {
+        Entry entry = null == moduleName ? null : entries.get(moduleName);
+        if (null == entry) {
+            return null;
+        }
+        PatternLoggerHandler handler = entry.handler;
+        if (null == handler) {
+            synchronized (shared) {
+                handler = entry.handler;
+                if (null == handler) {
+                    handler = createHandler(entry.module);
+                    entry.handler = handler;
+                }
+            }
+        }
+        return handler;
+    }
+
+    private PatternLoggerHandler createHandler(LoggerConfiguration.Module module) {
+        if (LoggerStats.isEnabled()) {
+            return module.createHandler(defaultSink);
+        }
+        List<Object> key = Arrays.<Object>asList(module.getLevel(), module.getTag(), module.getTagPattern(),
+                module.getMessagePattern(), module.resolveSink(defaultSink));
+        PatternLoggerHandler handler = shared.get(key);
+        if (null == handler) {
+            handler = module.createHandler(defaultSink);
+            shared.put(key, handler);
+        }
+        return handler;
+    }
+
+    /**
+     * Returns the sinks of all modules, created or not, e.g. to flush them.
+     *
+     * @return the sinks.
+     */
+    public Set<LogSink> getSinks() {
+        Set<LogSink> sinks = new LinkedHashSet<LogSink>();
+        for (Entry entry : entries.values()) {
+            sinks.add(entry.module.resolveSink(defaultSink));
+        }
+        return sinks;
+    }
+
+    /**
+     * Returns the count of handlers created so far.
+     *
+     * @return the count.
+     */
+    public int getCreatedCount() {
+        int count = 0;
+        for (Entry entry : entries.values()) {
+            if (null != entry.handler) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,570 @@
+package com.pitty.android.logger;
+
+/**
+ * The basic implementation of {@link LoggerHandler} interface.
+ * <p/>
+ * This log handler is configured with a logging level, a tag and
+ * a message patterns.
+ * <p/>
+ * The logging level parameter is the minimal level of log messages printed
+ * by this handler instance. The logging level can be {@code null} which
+ * means no messages should be printed using this logger.
+ * <p/>
+ * <b>Attention</b>: Android may set its own requirement for logging level
+ * using {@code android.util.Log#isLoggable(String, int)} method. This logger doesn't take
+ * it into account in {@link #isEnabled(LEVEL)} method, the {@link LoggerBinding} of a logger does
+ * if a {@link LoggableCheck} is enabled.
+ * <p/>
+ * The rendered tag and message are written to a {@link LogSink}, which is
+ * {@link LogSinks#getDefault()} unless another sink is specified.
+ * <p/>
+ * The patterns are format strings written according to a special rules described
+ * below. Log messages will be formatted and printed as it is specified in
+ * the tag and the message pattern. The tag pattern configures log tag used
+ * to print messages. The message pattern configures a head of the message but
+ * not whole message printed to log.
+ * <p/>
+ * <table border=1>
+ * <tr>
+ * <th>The tag pattern</th>
+ * <td>TAG</td>
+ * </tr>
+ * <tr>
+ * <th>The message pattern</th>
+ * <td>%d{yyyy-MM-dd}: </td>
+ * </tr>
+ * <tr>
+ * <th>Resulting tag</th>
+ * <td>TAG</td>
+ * </tr>
+ * <tr>
+ * <th>Resulting message</th>
+ * <td>2013-07-12: &lt;incoming message&gt;</td>
+ * </tr>
+ * </table>
+ * <p/>
+ * The tag and the message patterns are wrote according to similar rules.
+ * So we will show only one pattern in further examples.
+ * <p/>
+ * The patterns is strings that contains a set of placeholders and other
+ * special marks. Each special mark should start with '%' sign. To escape
+ * this sign you can double it.
+ * <p/>
+ * The list of special marks and placeholders:
+ * <table border=1>
+ * <caption>Conversion marks</caption>
+ * <tr>
+ * <th>Mark</th><th>Effect</th>
+ * </tr>
+ * <tr>
+ * <td>%%</td>
+ * <td>Escapes special sign. Prints just one '%' instead.</td>
+ * </tr>
+ * <tr>
+ * <td>%n</td>
+ * <td>Prints a new line character '\n'.</td>
+ * </tr>
+ * <tr>
+ * <td>%d{date format} %date{date format}</td>
+ * <td>Prints date/time of a message. Date format
+ * should be supported by {@link java.text.SimpleDateFormat}.
+ * Default date format is "yyyy-MM-dd HH:mm:ss.SSS".</td>
+ * </tr>
+ * <tr>
+ * <td>%p %level</td>
+ * <td>Prints logging level of a message.</td>
+ * </tr>
+ * <tr>
+ * <td>%c{count.length} %logger{count.length}</td>
+ * <td>Prints a name of the logger. The algorithm will shorten some part of
+ * full logger name to the specified length. You can find examples below.
+ * <table border=1>
+ * <tr>
+ * <th>Conversion specifier</th>
+ * <th>Logger name</th>
+ * <th>Result</th>
+ * </tr>
+ * <tr>
+ * <td>%logger</td>
+ * <td>com.example.android.MainActivity</td>
+ * <td>com.example.android.MainActivity</td>
+ * </tr>
+ * <tr>
+ * <td>%logger{0}</td>
+ * <td>com.example.android.MainActivity</td>
+ * <td>com.example.android.MainActivity</td>
+ * </tr>
+ * <tr>
+ * <td>%logger{3}</td>
+ * <td>com.example.android.MainActivity</td>
+ * <td>com.example.android</td>
+ * </tr>
+ * <tr>
+ * <td>%logger{-1}</td>
+ * <td>com.example.android.MainActivity</td>
+ * <td>example.android.MainActivity</td>
+ * </tr>
+ * <tr>
+ * <td>%logger{.0}</td>
+ * <td>com.example.android.MainActivity</td>
+ * <td>com.example.android.MainActivity</td>
+ * </tr>
+ * <td>%logger{.30}</td>
+ * <td>com.example.android.MainActivity</td>
+ * <td>com.example.android.*</td>
+ * </tr>
+ * <tr>
+ * <td>%logger{.15}</td>
+ * <td>com.example.android.MainActivity</td>
+ * <td>com.example.*</td>
+ * </tr>
+ * <tr>
+ * <td>%logger{.-25}</td>
+ * <td>com.example.android.MainActivity</td>
+ * <td>*.android.MainActivity</td>
+ * </tr>
+ * <tr>
+ * <td>%logger{3.-18}</td>
+ * <td>com.example.android.MainActivity</td>
+ * <td>*.example.android</td>
+ * </tr>
+ * <tr>
+ * <td>%logger{-3.-10}</td>
+ * <td>com.example.android.MainActivity$SubClass</td>
+ * <td>MainActivity$SubClass</td>
+ * </tr>
+ * </table>
+ * </td>
+ * </tr>
+ * <tr>
+ * <td>%C{count.length} %caller{count.length}</td>
+ * <td>Prints information about a caller class which causes the logging event.
+ * Additional parameters 'count' and 'length' means the same as
+ * the parameters of %logger. Examples:
+ * <table border=1>
+ * <tr>
+ * <th>Conversion specifier</th>
+ * <th>Caller</th>
+ * <th>Result</th>
+ * </tr>
+ * <tr>
+ * <td>%caller</td>
+ * <td>Class com.example.android.MainActivity at line 154</td>
+ * <td>com.example.android.MainActivity:154</td>
+ * </tr>
+ * <tr>
+ * <td>%caller{-3.-15}</td>
+ * <td>Class com.example.android.MainActivity at line 154</td>
+ * <td>MainActivity:154</td>
+ * </tr>
+ * </table>
+ * </td>
+ * </tr>
+ * <tr>
+ * <td>%(...)</td>
+ * <td>Special mark used to grouping parts of message. Format modifiers
+ * (if specified) are applied on whole group. Examples:
+ * <table border=1>
+ * <tr>
+ * <th>Example</th>
+ * <th>Result</th>
+ * </tr>
+ * <tr>
+ * <td>[%50(%d %caller{-3.-15})]</td>
+ * <td><pre>[          2013-07-12 19:45:26.315 MainActivity:154]</pre></td>
+ * </tr>
+ * <tr>
+ * <td>[%-50(%d %caller{-3.-15})]</td>
+ * <td><pre>[2013-07-12 19:45:26.315 MainActivity:154          ]</pre></td>
+ * </tr>
+ * </table>
+ * </td>
+ * </tr>
+ * </table>
+ * <p/>
+ * After special sign '%' user can add format modifiers. The modifiers
+ * is similar to standard modifiers of {@link java.util.Formatter} conversions.
+ * <table border=1>
+ * <tr>
+ * <th>Example</th>
+ * <th>Result</th>
+ * </tr>
+ * <tr> <td>%6(text)</td>   <td><pre>'  text'</pre></td> </tr>
+ * <tr> <td>%-6(text)</td>  <td><pre>'text  '</pre></td> </tr>
+ * <tr> <td>%.3(text)</td>  <td><pre>'tex'</pre></td>    </tr>
+ * <tr> <td>%.-3(text)</td> <td><pre>'ext'</pre></td>    </tr>
+ * </table>
+ */
+public class PatternLoggerHandler implements LoggerHandler {
+    // buffers larger than this are not kept by threads.
+    private static final int MAX_BUFFER_CAPACITY = 8192;
+    private static final ThreadLocal<StringBuilder> BUFFER = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(256);
+        }
+    };
+
+    private final LEVEL level;
+    private final String tag;
+    private final String tagPattern;
+    private final String messagePattern;
+    private final LoggerPattern compiledTagLoggerPattern;
+    private final LoggerPattern compiledMessageLoggerPattern;
+    private final LogSink sink;
+    private LoggerStats stats = LoggerStats.get(LoggerStats.DEFAULT);
+
+    /**
+     * Creates new {@link PatternLoggerHandler} writing to the default sink.
+     *
+     * @param level          the level.
+     * @param tagPattern     the tag pattern.
+     * @param messagePattern the message pattern.
+     */
+    public PatternLoggerHandler(LEVEL level, String tag, String tagPattern, String messagePattern) {
+        this(level, tag, tagPattern, messagePattern, null);
+    }
+
+    /**
+     * Creates new {@link PatternLoggerHandler}.
+     *
+     * @param level          the level.
+     * @param tagPattern     the tag pattern.
+     * @param messagePattern the message pattern.
+     * @param sink           the sink, {@code null} means the default sink.
+     */
+    public PatternLoggerHandler(LEVEL level, String tag, String tagPattern, String messagePattern, LogSink sink) {
+        this(level, tag, tagPattern, LoggerPattern.compile(tagPattern),
+                messagePattern, LoggerPattern.compile(messagePattern), sink);
+    }
+
+    /**
+     * Creates new {@link PatternLoggerHandler} with already compiled patterns.
+     *
+     * @param level                  the level.
+     * @param tagPattern             the tag pattern.
+     * @param compiledTagPattern     the compiled tag pattern.
+     * @param messagePattern         the message pattern.
+     * @param compiledMessagePattern the compiled message pattern.
+     * @param sink                   the sink, {@code null} means the default sink.
+     */
+    public PatternLoggerHandler(LEVEL level, String tag,
+                                String tagPattern, LoggerPattern compiledTagPattern,
+                                String messagePattern, LoggerPattern compiledMessagePattern, LogSink sink) {
+        if (null == level) {
+            this.level = LEVEL.V;
+        } else {
+            this.level = level;
+        }
+        this.tag = null == tag ? null : Utils.loggerNameToTag(tag);
+        this.tagPattern = tagPattern;
+        this.compiledTagLoggerPattern = compiledTagPattern;
+        this.messagePattern = messagePattern;
+        this.compiledMessageLoggerPattern = compiledMessagePattern;
+        this.sink = null == sink ? LogSinks.getDefault() : sink;
+    }
+
+    /**
+     * Returns the level.
+     *
+     * @return the level.
+     */
+    public LEVEL getLevel() {
+        return level;
+    }
+
+    /**
+     * Returns the tag messagePattern.
+     *
+     * @return the tag messagePattern.
+     */
+    public String getTagPattern() {
+        return tagPattern;
+    }
+
+    /**
+     * Returns the tag checked by the {@link LoggableCheck} for a logger: the tag the pattern renders
+     * if it depends only on the logger name, else the logger name, as the rendered tag changes by event.
+     *
+     * @param loggerName the tag of the binding, passed to the handler as the logger name.
+     * @return the tag to check.
+     */
+    String getLoggableTag(String loggerName) {
+        if (compiledTagLoggerPattern == null || !compiledTagLoggerPattern.isLoggerOnly()) {
+            return loggerName;
+        }
+        StringBuilder builder = new StringBuilder();
+        compiledTagLoggerPattern.appendTo(builder, null, loggerName, LEVEL.V);
+        return builder.toString();
+    }
+
+    /**
+     * Returns the message messagePattern.
+     *
+     * @return the message messagePattern.
+     */
+    public String getMessagePattern() {
+        return messagePattern;
+    }
+
+    /**
+     * Returns the sink.
+     *
+     * @return the sink.
+     */
+    public LogSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Returns the stats the handler counts its messages in.
+     *
+     * @return the stats.
+     */
+    public LoggerStats getStats() {
+        return stats;
+    }
+
+    void setStats(LoggerStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public boolean isEnabled(LEVEL level) {
+        if (null == level) {
+            return false;
+        }
+        if ((this.level != null && this.level.ordinal() >= level.ordinal()) || LoggerScope.isEnabled(level)) {
+            return true;
+        }
+        if (LoggerStats.isEnabled()) {
+            stats.filtered(level);
+        }
+        return false;
+    }
+
+    @Override
+    public void print(LEVEL level,
+                      Throwable throwable, String messageFormat, Object... args) throws IllegalArgumentException {
+        print(getTagName(), level, throwable, messageFormat, args);
+    }
+
+    @Override
+    public void print(String loggerName, LEVEL level, Throwable throwable, String messageFormat, Object... args) throws IllegalArgumentException {
+        print(loggerName, level, null, throwable, messageFormat, args);
+    }
+
+    @Override
+    public void print(CallSite callSite, String loggerName, LEVEL level,
+                      Throwable throwable, String messageFormat, Object... args) throws IllegalArgumentException {
+        print(loggerName, level, callSite == null ? null : callSite.toStackTraceElement(), throwable, messageFormat, args);
+    }
+
+    @Override
+    public void log(CallSite callSite, String loggerName, LEVEL level,
+                    Throwable throwable, String format, Object... args) {
+        FlightRecorder recorder = FlightRecorder.getDefault();
+        if (null != recorder && FlightRecorder.isRecorded(level)) {
+            recorder.record(loggerName, level, throwable, format, args);
+        }
+        if (isEnabled(level)) {
+            MessageTemplate template = null;
+            if (format != null && args != null && args.length > 0) {
+                template = MessageTemplateCache.getDefault().get(format);
+                if (throwable == null) {
+                    throwable = template.getThrowable(args);
+                }
+            }
+            write(loggerName, level, callSite == null ? null : callSite.toStackTraceElement(),
+                    throwable, format, template, args, null, callSite == null ? format : callSite, 0);
+        }
+    }
+
+    @Override
+    public void log(CallSite callSite, String loggerName, LEVEL level,
+                    Throwable throwable, String format, LogArguments arguments) {
+        FlightRecorder recorder = FlightRecorder.getDefault();
+        if (null != recorder && FlightRecorder.isRecorded(level)) {
+            recorder.record(loggerName, level, throwable, format, arguments);
+        }
+        if (isEnabled(level)) {
+            MessageTemplate template = null;
+            if (format != null && arguments != null && arguments.size() > 0) {
+                template = MessageTemplateCache.getDefault().get(format);
+            }
+            write(loggerName, level, callSite == null ? null : callSite.toStackTraceElement(),
+                    throwable, format, template, null, arguments, callSite == null ? format : callSite, 0);
+        }
+    }
+
+    private void print(String loggerName, LEVEL level, StackTraceElement caller,
+                       Throwable throwable, String messageFormat, Object... args) throws IllegalArgumentException {
+        FlightRecorder recorder = FlightRecorder.getDefault();
+        if (null != recorder && FlightRecorder.isRecorded(level)) {
+            recorder.recordPrintf(loggerName, level, throwable, messageFormat, args);
+        }
+        if (isEnabled(level)) {
+            if (messageFormat == null && args != null && args.length > 0) {
+                throw new IllegalArgumentException("message format is not set but arguments are presented");
+            }
+            long start = LogProfiler.isEnabled() ? System.nanoTime() : 0;
+            String message = messageFormat == null ? null : String.format(messageFormat, getSuppliedArguments(args));
+            write(loggerName, level, caller, throwable, message, null, null, null,
+                    caller == null ? messageFormat : caller, start == 0 ? 0 : System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Replaces the {@link LogSupplier} arguments with their values, "[FAILED get()]" if a supplier throws,
+     * as {@link MessageTemplate} does.
+     *
+     * @param args the arguments, can be {@code null}.
+     * @return the arguments, copied if any of them is a supplier.
+     */
+    static Object[] getSuppliedArguments(Object[] args) {
+        if (args == null) {
+            return null;
+        }
+        Object[] supplied = args;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof LogSupplier) {
+                if (supplied == args) {
+                    supplied = args.clone();
+                }
+                try {
+                    supplied[i] = ((LogSupplier) args[i]).get();
+                } catch (RuntimeException e) {
+                    supplied[i] = "[FAILED get()]";
+                }
+            }
+        }
+        return supplied;
+    }
+
+    /**
+     * Renders the event into the buffer of the thread and writes it to the sink.
+     *
+     * @param message   the message if there is no template, can be {@code null}.
+     * @param template  the template rendered with the arguments, can be {@code null}.
+     * @param args      the arguments of the template if they are not in {@code arguments}.
+     * @param arguments the unboxed arguments of the template, can be {@code null}.
+     * @param key       the key of the statement in {@link LogProfiler}.
+     * @param nanos     the time already spent formatting the message.
+     */
+    private void write(String loggerName, LEVEL level, StackTraceElement caller, Throwable throwable,
+                       String message, MessageTemplate template, Object[] args, LogArguments arguments,
+                       Object key, long nanos) {
+        boolean profiling = LogProfiler.isEnabled();
+        long start = profiling ? System.nanoTime() : 0;
+        long callerNanos = 0;
+        if (caller == null && isCallerNeeded()) {
+            caller = Utils.getCaller();
+            if (profiling) {
+                long now = System.nanoTime();
+                callerNanos = now - start;
+                start = now;
+            }
+        }
+
+        StringBuilder builder = BUFFER.get();
+        String tag = loggerName;
+        if (compiledTagLoggerPattern != null) {
+            builder.setLength(0);
+            compiledTagLoggerPattern.appendTo(builder, caller, loggerName, level);
+            tag = builder.toString();
+        }
+        long timeMillis = System.currentTimeMillis();
+
+        builder.setLength(0);
+        appendText(builder, timeMillis, loggerName, tag, level, caller, throwable, message, template, args, arguments);
+        String text = builder.toString();
+        if (builder.capacity() > MAX_BUFFER_CAPACITY) {
+            BUFFER.remove();
+        }
+        long formatNanos = 0;
+        if (profiling) {
+            long now = System.nanoTime();
+            formatNanos = nanos + now - start;
+            start = now;
+        }
+        try {
+            sink.write(level, tag, text,
+                    new LogEvent(timeMillis, level, loggerName, tag, text, throwable, caller));
+        } catch (RuntimeException e) {
+            // a failing sink must not break the caller
+            if (LoggerStats.isEnabled()) {
+                stats.dropped(level);
+            }
+            return;
+        }
+        if (LoggerStats.isEnabled()) {
+            stats.accepted(level, text.length());
+        }
+        if (profiling) {
+            LogProfiler.getDefault().record(key, callerNanos, formatNanos, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Checks if the patterns print the caller, which is looked for in the stack trace then.
+     *
+     * @return {@code true} if the caller is needed.
+     */
+    boolean isCallerNeeded() {
+        return (compiledTagLoggerPattern != null && compiledTagLoggerPattern.isCallerNeeded())
+                || (compiledMessageLoggerPattern != null && compiledMessageLoggerPattern.isCallerNeeded());
+    }
+
+    /**
+     * Appends the text written to the sink: the message head, the message and the stack trace.
+     */
+    void appendText(StringBuilder builder, long timeMillis, String loggerName, String tag, LEVEL level,
+                    StackTraceElement caller, Throwable throwable,
+                    String message, MessageTemplate template, Object[] args, LogArguments arguments) {
+        if (compiledMessageLoggerPattern != null) {
+            int headStart = builder.length();
+            compiledMessageLoggerPattern.appendTo(builder, caller, loggerName, level);
+            if (builder.length() > headStart && !Character.isWhitespace(builder.charAt(headStart))) {
+                builder.append(' ');
+            }
+        }
+        int bodyStart = builder.length();
+        appendMessage(builder, message, template, args, arguments);
+        if (throwable != null) {
+            if (builder.length() > bodyStart) {
+                builder.append('\n');
+            }
+            builder.append(Utils.getStackTraceString(throwable));
+        }
+    }
+
+    /**
+     * Appends the message, rendering the template if there is one.
+     */
+    static void appendMessage(StringBuilder builder,
+                              String message, MessageTemplate template, Object[] args, LogArguments arguments) {
+        if (template != null && arguments != null) {
+            template.render(builder, arguments);
+        } else if (template != null) {
+            template.render(builder, args);
+        } else if (message != null) {
+            builder.append(message);
+        }
+    }
+
+    public String getTagName() {
+        if (null == this.tag) {
+            return Constant.ANONYMOUS_TAG;
+        }
+        return this.tag;
+    }
+
+    /**
+     * Returns the tag the handler was created with.
+     *
+     * @return the tag, {@code null} if not set.
+     */
+    public String getTag() {
+        return tag;
+    }
+}
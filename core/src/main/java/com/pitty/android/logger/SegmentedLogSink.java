@@ -0,0 +1,32 @@
+package com.pitty.android.logger;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * A {@link LogSink} writing the rotated segments of {@link FileLogSink}, read by
+ * {@link LogFileReader} and uploaded by {@link LogUploader}.
+ */
+public interface SegmentedLogSink extends LogSink {
+
+    /**
+     * Returns the directory of the files.
+     *
+     * @return the directory.
+     */
+    public File getDirectory();
+
+    /**
+     * Returns the prefix of the file names.
+     *
+     * @return the name.
+     */
+    public String getName();
+
+    /**
+     * Lists the segments not written anymore, e.g. to upload them.
+     *
+     * @return the segment files, from the oldest.
+     */
+    public List<File> getClosedSegments();
+}
@@ -0,0 +1,406 @@
+package com.pitty.android.logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LogSink} appending the messages of several processes to the same rotated files,
+ * e.g. the main process of an application and its ":sync" and ":push" services.
+ * <p/>
+ * The files have the format of {@link FileLogSink}, are searched by {@link LogFileReader} and
+ * uploaded by {@link LogUploader}.
+ * Every process renders its messages into a batch. The batch and its index entry are appended
+ * under an exclusive {@link FileLock} of the header of "NAME.lock", so the records of the processes
+ * are never interleaved. The header holds the number of the current segment. The process that
+ * fills it starts the next one and deletes the oldest ones.
+ * <p/>
+ * A batch is appended when it is larger than {@code batchSize}, on {@link #flush()} and every
+ * {@code flushMillis}. A process killed during a write can leave a partial record, which the next
+ * record of the file makes unreadable.
+ * <p/>
+ * Errors of the files are ignored, the batch is dropped.
+ */
+public class SharedFileLogSink extends AbstractLogSink implements SegmentedLogSink {
+    public static final String LOCK_SUFFIX = ".lock";
+    public static final int DEFAULT_BATCH_SIZE = 8 * 1024;
+    public static final long DEFAULT_FLUSH_MILLIS = 1000;
+
+    // the number of the current segment, locked by the process appending
+    private static final int HEADER_SIZE = 8;
+    // a FileLock is held by the process, the sinks of the same files in a process wait on a monitor first
+    private static final ConcurrentMap<String, Object> PROCESS_LOCKS = new ConcurrentHashMap<String, Object>();
+
+    private static ScheduledExecutorService flushExecutor;
+
+    private final File directory;
+    private final String name;
+    private final long segmentSize;
+    private final int segmentCount;
+    private final int batchSize;
+    private final long flushMillis;
+    private final Object processLock;
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat(FileLogSink.DATE_FORMAT);
+    private final Date date = new Date();
+    private final StringBuilder builder = new StringBuilder();
+
+    // the records not appended yet
+    private final ByteArrayOutputStream batch = new ByteArrayOutputStream();
+    private long batchMinTime;
+    private long batchMaxTime;
+    private final int[] batchCounts = new int[FileLogSink.LEVEL_COUNT];
+    // the periodic flush, scheduled by the first record after the creation or a close
+    private ScheduledFuture<?> flushFuture;
+
+    // guarded by processLock
+    private FileChannel lockChannel;
+    private int segment;
+    private FileChannel segmentChannel;
+    private FileChannel indexChannel;
+    private long lockWaitNanos;
+    private int batchCount;
+
+    /**
+     * Creates new {@link SharedFileLogSink} with the default sizes.
+     *
+     * @param directory the directory of the files, created if needed.
+     * @param name      the prefix of the file names.
+     */
+    public SharedFileLogSink(File directory, String name) {
+        this(directory, name, FileLogSink.DEFAULT_SEGMENT_SIZE, FileLogSink.DEFAULT_SEGMENT_COUNT,
+                DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_MILLIS);
+    }
+
+    /**
+     * Creates new {@link SharedFileLogSink}.
+     *
+     * @param directory    the directory of the files, created if needed.
+     * @param name         the prefix of the file names.
+     * @param segmentSize  the max size of a segment in bytes, a larger batch makes a bigger one.
+     * @param segmentCount the count of segments kept.
+     * @param batchSize    the size in bytes of the batch appended at once.
+     * @param flushMillis  the max time a record waits in the batch, {@code 0} to wait for a flush.
+     */
+    public SharedFileLogSink(File directory, String name, long segmentSize, int segmentCount,
+                             int batchSize, long flushMillis) {
+        if (segmentSize <= 0 || segmentCount <= 0 || batchSize <= 0 || flushMillis < 0) {
+            throw new IllegalArgumentException("sizes must be positive");
+        }
+        this.directory = directory;
+        this.name = name;
+        this.segmentSize = segmentSize;
+        this.segmentCount = segmentCount;
+        this.batchSize = batchSize;
+        this.flushMillis = flushMillis;
+        String path = getLockFile().getAbsolutePath();
+        Object lock = new Object();
+        Object oldLock = PROCESS_LOCKS.putIfAbsent(path, lock);
+        this.processLock = null == oldLock ? lock : oldLock;
+    }
+
+    @Override
+    public File getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    File getLockFile() {
+        return new File(directory, name + LOCK_SUFFIX);
+    }
+
+    /**
+     * Lists the segments not written anymore, every segment but the one in the header of the lock file,
+     * which any process can still append to.
+     *
+     * @return the segment files, from the oldest, none if the lock file can not be read.
+     */
+    @Override
+    public List<File> getClosedSegments() {
+        synchronized (processLock) {
+            FileLock lock = null;
+            try {
+                openLockFile();
+                lock = lockChannel.lock(0, HEADER_SIZE, false);
+                List<File> segments = new ArrayList<File>(FileLogSink.listSegments(directory, name));
+                segments.remove(FileLogSink.getSegmentFile(directory, name, readSegmentNumber()));
+                return segments;
+            } catch (IOException e) {
+                closeFiles();
+                return Collections.<File>emptyList();
+            } finally {
+                release(lock);
+            }
+        }
+    }
+
+    /**
+     * Returns the time this sink waited for the lock of the files, to measure the contention.
+     *
+     * @return the time in nanoseconds.
+     */
+    public long getLockWaitNanos() {
+        synchronized (processLock) {
+            return lockWaitNanos;
+        }
+    }
+
+    /**
+     * Returns the count of batches appended.
+     *
+     * @return the count.
+     */
+    public int getBatchCount() {
+        synchronized (processLock) {
+            return batchCount;
+        }
+    }
+
+    @Override
+    public synchronized void write(LEVEL level, String tag, String message, LogEvent event) {
+        append(level, tag, message, event.getTimeMillis());
+        if (batch.size() >= batchSize) {
+            appendBatch();
+        }
+    }
+
+    @Override
+    public synchronized void write(List<LogEvent> events) {
+        for (int i = 0, size = events.size(); i < size; i++) {
+            LogEvent event = events.get(i);
+            append(event.getLevel(), event.getTag(), event.getMessage(), event.getTimeMillis());
+        }
+        if (batch.size() >= batchSize) {
+            appendBatch();
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        appendBatch();
+    }
+
+    /**
+     * Appends the batch, stops the periodic flush and closes the files. The next message
+     * opens them again and restarts the periodic flush.
+     */
+    public synchronized void close() {
+        appendBatch();
+        if (null != flushFuture) {
+            flushFuture.cancel(false);
+            flushFuture = null;
+        }
+        synchronized (processLock) {
+            closeFiles();
+        }
+    }
+
+    private void append(LEVEL level, String tag, String message, long timeMillis) {
+        if (null == flushFuture && flushMillis > 0) {
+            scheduleFlush();
+        }
+        builder.setLength(0);
+        date.setTime(timeMillis);
+        FileLogSink.appendRecord(builder, dateFormat.format(date), level, tag, message);
+        byte[] bytes;
+        try {
+            bytes = builder.toString().getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+        if (batch.size() == 0) {
+            batchMinTime = timeMillis;
+            batchMaxTime = timeMillis;
+        }
+        batchMinTime = Math.min(batchMinTime, timeMillis);
+        batchMaxTime = Math.max(batchMaxTime, timeMillis);
+        batchCounts[level.ordinal()]++;
+        batch.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Appends the batch to the current segment and its entry to the index, under the lock.
+     */
+    private void appendBatch() {
+        if (batch.size() == 0) {
+            return;
+        }
+        byte[] bytes = batch.toByteArray();
+        synchronized (processLock) {
+            FileLock lock = null;
+            try {
+                openLockFile();
+                long start = System.nanoTime();
+                lock = lockChannel.lock(0, HEADER_SIZE, false);
+                lockWaitNanos += System.nanoTime() - start;
+                int current = readSegmentNumber();
+                if (current != segment || null == segmentChannel) {
+                    openSegment(current);
+                }
+                long offset = segmentChannel.size();
+                if (offset > 0 && offset + bytes.length > segmentSize) {
+                    openSegment(current + 1);
+                    writeSegmentNumber(current + 1);
+                    deleteOldSegments();
+                    offset = 0;
+                }
+                writeFully(segmentChannel, ByteBuffer.wrap(bytes), offset);
+                writeFully(indexChannel, indexEntry(offset, offset + bytes.length), indexChannel.size());
+                batchCount++;
+            } catch (IOException e) {
+                // drop the batch, open the files again for the next one
+                closeFiles();
+            } finally {
+                release(lock);
+            }
+        }
+        batch.reset();
+        Arrays.fill(batchCounts, 0);
+    }
+
+    private ByteBuffer indexEntry(long offset, long end) {
+        ByteBuffer entry = ByteBuffer.allocate(FileLogSink.INDEX_ENTRY_SIZE);
+        entry.putLong(offset).putLong(end).putLong(batchMinTime).putLong(batchMaxTime);
+        for (int i = 0; i < FileLogSink.LEVEL_COUNT; i++) {
+            entry.putInt(batchCounts[i]);
+        }
+        entry.flip();
+        return entry;
+    }
+
+    private void openLockFile() throws IOException {
+        if (null != lockChannel) {
+            return;
+        }
+        if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+            throw new IOException("can not create " + directory);
+        }
+        lockChannel = new RandomAccessFile(getLockFile(), "rw").getChannel();
+    }
+
+    /**
+     * Reads the current segment, the last segment of the files if the header is not written yet.
+     */
+    private int readSegmentNumber() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(4);
+        while (header.hasRemaining() && lockChannel.read(header, header.position()) > 0) {
+            // read the int
+        }
+        if (!header.hasRemaining()) {
+            int current = header.getInt(0);
+            if (current > 0) {
+                return current;
+            }
+        }
+        List<File> segments = FileLogSink.listSegments(directory, name);
+        int current = segments.isEmpty() ? 1 : FileLogSink.getSegmentNumber(segments.get(segments.size() - 1), name);
+        writeSegmentNumber(current);
+        return current;
+    }
+
+    private void writeSegmentNumber(int current) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(4);
+        header.putInt(0, current);
+        writeFully(lockChannel, header, 0);
+        lockChannel.force(false);
+    }
+
+    private void openSegment(int number) throws IOException {
+        closeSegment();
+        File segmentFile = FileLogSink.getSegmentFile(directory, name, number);
+        segmentChannel = new RandomAccessFile(segmentFile, "rw").getChannel();
+        indexChannel = new RandomAccessFile(FileLogSink.getIndexFile(segmentFile), "rw").getChannel();
+        segment = number;
+    }
+
+    private void closeSegment() {
+        close(segmentChannel);
+        close(indexChannel);
+        segmentChannel = null;
+        indexChannel = null;
+    }
+
+    private void closeFiles() {
+        closeSegment();
+        close(lockChannel);
+        lockChannel = null;
+        segment = 0;
+    }
+
+    private void deleteOldSegments() {
+        List<File> segments = FileLogSink.listSegments(directory, name);
+        for (int i = 0; i < segments.size() - segmentCount; i++) {
+            File file = segments.get(i);
+            file.delete();
+            FileLogSink.getIndexFile(file).delete();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void release(FileLock lock) {
+        if (null != lock) {
+            try {
+                lock.release();
+            } catch (IOException e) {
+                // closed with the channel
+            }
+        }
+    }
+
+    private static void close(FileChannel channel) {
+        if (null != channel) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    private void scheduleFlush() {
+        synchronized (SharedFileLogSink.class) {
+            if (flushExecutor == null) {
+                flushExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "SharedFileLogSink");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+            flushFuture = flushExecutor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            }, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+}
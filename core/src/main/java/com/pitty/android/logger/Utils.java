@@ -1,5 +1,11 @@
 package com.pitty.android.logger;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
 public final class Utils {
 
     private Utils() {
@@ -7,6 +13,12 @@ public final class Utils {
     }
 
     private static final String PACKAGE_NAME = Utils.class.getPackage().getName();
+    // the SLF4J binding calls the handlers from this package.
+    private static final String SLF4J_PACKAGE_NAME = "org.slf4j.";
+
+    private static boolean isLibraryClass(String className) {
+        return className.startsWith(PACKAGE_NAME) || className.startsWith(SLF4J_PACKAGE_NAME);
+    }
 
     private static final class CallerResolver extends SecurityManager {
         public Class<?> getCaller() {
@@ -19,11 +31,11 @@ public final class Utils {
             boolean packageFound = false;
             for (Class aClass : classContext) {
                 if (!packageFound) {
-                    if (aClass.getPackage().getName().startsWith(PACKAGE_NAME)) {
+                    if (aClass.getName().startsWith(PACKAGE_NAME)) {
                         packageFound = true;
                     }
                 } else {
-                    if (!aClass.getPackage().getName().startsWith(PACKAGE_NAME)) {
+                    if (!isLibraryClass(aClass.getName())) {
                         return aClass;
                     }
                 }
@@ -47,7 +59,7 @@ public final class Utils {
                     packageFound = true;
                 }
             } else {
-                if (!stackTraceElement.getClassName().startsWith(PACKAGE_NAME)) {
+                if (!isLibraryClass(stackTraceElement.getClassName())) {
                     return stackTraceElement;
                 }
             }
@@ -87,6 +99,118 @@ public final class Utils {
         return getCallerStackTrace();
     }
 
+    // captured when the library is loaded, System.nanoTime() does not jump with the wall clock
+    private static final long START_NANOS = System.nanoTime();
+
+    // the id of the thread as a string, rendered once per thread
+    private static final ThreadLocal<String> THREAD_ID = new ThreadLocal<String>() {
+        @Override
+        protected String initialValue() {
+            return String.valueOf(Thread.currentThread().getId());
+        }
+    };
+
+    /**
+     * Returns the name of the current thread, read on every call: it can be renamed at any time.
+     *
+     * @return the thread name.
+     */
+    public static String getThreadName() {
+        return Thread.currentThread().getName();
+    }
+
+    /**
+     * Returns the id of the current thread as a string, rendered once per thread.
+     *
+     * @return the thread id.
+     */
+    public static String getThreadId() {
+        return THREAD_ID.get();
+    }
+
+    /**
+     * Returns the milliseconds since the library was loaded, by the monotonic clock.
+     *
+     * @return the elapsed time.
+     */
+    public static long getRelativeMillis() {
+        return (System.nanoTime() - START_NANOS) / 1000000L;
+    }
+
+    /**
+     * Returns a printable representation of the throwable and its stack trace,
+     * like {@code android.util.Log.getStackTraceString(Throwable)} does.
+     *
+     * @param throwable the throwable, can be {@code null}.
+     * @return the stack trace, or an empty string for {@code null}.
+     */
+    public static String getStackTraceString(Throwable throwable) {
+        if (throwable == null) {
+            return "";
+        }
+        StringWriter writer = new StringWriter();
+        PrintWriter printWriter = new PrintWriter(writer);
+        throwable.printStackTrace(printWriter);
+        printWriter.flush();
+        return writer.toString();
+    }
+
+    /**
+     * Reads the stream to the end.
+     *
+     * @param in the stream, it is not closed.
+     * @return the content of the stream.
+     * @throws IOException if the stream fails.
+     */
+    public static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(in.available(), 512));
+        byte[] buffer = new byte[4096];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            out.write(buffer, 0, count);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Returns true if the string is null or 0-length.
+     *
+     * @param str the string to be examined.
+     * @return true if str is null or zero length.
+     */
+    public static boolean isEmpty(CharSequence str) {
+        return str == null || str.length() == 0;
+    }
+
+    /**
+     * Removes all the whitespace characters from the string.
+     *
+     * @param str the string, can be {@code null}.
+     * @return the string without whitespaces, the same instance if there are none.
+     */
+    public static String removeWhitespace(String str) {
+        if (str == null) {
+            return null;
+        }
+        int length = str.length();
+        int i = 0;
+        while (i < length && !Character.isWhitespace(str.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return str;
+        }
+        StringBuilder builder = new StringBuilder(length);
+        builder.append(str, 0, i);
+        for (; i < length; i++) {
+            char c = str.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
     /**
      * Shorten string.
      *
@@ -248,4 +372,70 @@ public final class Utils {
         }
         return builder.toString();
     }
+
+    /**
+     * Tag names cannot be longer than 23  characters on Android platform.
+     *
+     * Returns the short logger tag (up to 23 characters) for the given logger name.
+     * Traditionally loggers are named by fully-qualified Java classes; this
+     * method attempts to return a concise identifying part of such names.
+     *
+     * See also:
+     * android/system/core/include/cutils/property.h
+     * android/frameworks/base/core/jni/android_util_Log.cpp
+     * dalvik.system.DalvikLogging
+     *
+     */
+    public static String loggerNameToTag(String loggerName) {
+        // Anonymous logger
+        if (loggerName == null) {
+            return Constant.ANONYMOUS_TAG;
+        }
+
+        int length = loggerName.length();
+        if (length <= Constant.TAG_MAX_LENGTH) {
+            return loggerName;
+        }
+
+        int tagLength = 0;
+        int lastTokenIndex = 0;
+        int lastPeriodIndex;
+        StringBuilder tagName = new StringBuilder(Constant.TAG_MAX_LENGTH + 3);
+        while ((lastPeriodIndex = loggerName.indexOf('.', lastTokenIndex)) != -1) {
+            tagName.append(loggerName.charAt(lastTokenIndex));
+            // token of one character appended as is otherwise truncate it to one character
+            int tokenLength = lastPeriodIndex - lastTokenIndex;
+            if (tokenLength > 1) {
+                tagName.append('*');
+            }
+            tagName.append('.');
+            lastTokenIndex = lastPeriodIndex + 1;
+
+            // check if name is already too long
+            tagLength = tagName.length();
+            if (tagLength > Constant.TAG_MAX_LENGTH) {
+                return getSimpleName(loggerName);
+            }
+        }
+
+        // Either we had no useful dot location at all
+        // or last token would exceed TAG_MAX_LENGTH
+        int tokenLength = length - lastTokenIndex;
+        if (tagLength == 0 || (tagLength + tokenLength) > Constant.TAG_MAX_LENGTH) {
+            return getSimpleName(loggerName);
+        }
+
+        // last token (usually class name) appended as is
+        tagName.append(loggerName, lastTokenIndex, length);
+        return tagName.toString();
+    }
+
+    private static String getSimpleName(String loggerName) {
+        // Take leading part and append '*' to indicate that it was truncated
+        int length = loggerName.length();
+        int lastPeriodIndex = loggerName.lastIndexOf('.');
+        return lastPeriodIndex != -1 && length - (lastPeriodIndex + 1) <= Constant.TAG_MAX_LENGTH
+            ? loggerName.substring(lastPeriodIndex + 1)
+            : '*' + loggerName.substring(length - Constant.TAG_MAX_LENGTH + 1);
+    }
 }
@@ -0,0 +1,70 @@
+package com.pitty.android.logger;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * {@link LogSink} appending messages to a {@link Writer}, e.g. a file on the JVM.
+ * <p/>
+ * Each message is written as "yyyy-MM-dd HH:mm:ss.SSS LEVEL/TAG: MESSAGE".
+ * A batch is written with a single {@link Writer#write(String)} call.
+ * Errors of the writer are ignored, logging must never break the application.
+ */
+public class WriterSink extends AbstractLogSink {
+    private final Writer writer;
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+    private final Date date = new Date();
+    private final StringBuilder builder = new StringBuilder();
+
+    /**
+     * Creates new {@link WriterSink}.
+     *
+     * @param writer the writer, it should be buffered.
+     */
+    public WriterSink(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public synchronized void write(LEVEL level, String tag, String message, LogEvent event) {
+        builder.setLength(0);
+        append(level, tag, message, event);
+        writeBuilder();
+    }
+
+    @Override
+    public synchronized void write(List<LogEvent> events) {
+        builder.setLength(0);
+        for (int i = 0, size = events.size(); i < size; i++) {
+            LogEvent event = events.get(i);
+            append(event.getLevel(), event.getTag(), event.getMessage(), event);
+        }
+        writeBuilder();
+    }
+
+    @Override
+    public synchronized void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    private void append(LEVEL level, String tag, String message, LogEvent event) {
+        date.setTime(event.getTimeMillis());
+        builder.append(dateFormat.format(date)).append(' ')
+                .append(level).append('/').append(tag).append(": ").append(message).append('\n');
+    }
+
+    private void writeBuilder() {
+        try {
+            writer.write(builder.toString());
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.pitty.android.logger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class CoalescingLogSinkTest {
+    MemorySink memory = new MemorySink();
+
+    private void write(LogSink sink, LEVEL level, String tag, String message, long time, Throwable throwable) {
+        sink.write(level, tag, message, new LogEvent(time, level, "logger", tag, message, throwable, null));
+    }
+
+    @Test
+    public void coalesceTest() {
+        CoalescingLogSink sink = new CoalescingLogSink(memory, 1000, 12);
+        long now = System.currentTimeMillis();
+        write(sink, LEVEL.D, "A", "one", now, null);
+        write(sink, LEVEL.D, "A", "two", now, null);
+        // level change
+        write(sink, LEVEL.I, "A", "three", now, null);
+        // tag change
+        write(sink, LEVEL.I, "B", "four", now, null);
+        write(sink, LEVEL.I, "B", "five", now, null);
+        // too long
+        write(sink, LEVEL.I, "B", "six", now, null);
+        // window elapsed
+        write(sink, LEVEL.I, "B", "seven", now + 1000, null);
+        write(sink, LEVEL.I, "B", "eight", now + 1000, new IllegalStateException());
+        write(sink, LEVEL.I, "B", "nine", now + 1000, null);
+        Assert.assertEquals(6, memory.getEvents().size());
+        sink.flush();
+
+        List<LogEvent> events = memory.getEvents();
+        Assert.assertEquals(7, events.size());
+        Assert.assertEquals("one\ntwo", events.get(0).getMessage());
+        Assert.assertEquals(LEVEL.D, events.get(0).getLevel());
+        Assert.assertEquals("three", events.get(1).getMessage());
+        Assert.assertEquals("four\nfive", events.get(2).getMessage());
+        Assert.assertEquals("B", events.get(2).getTag());
+        Assert.assertEquals("six", events.get(3).getMessage());
+        Assert.assertEquals("seven", events.get(4).getMessage());
+        Assert.assertNotNull(events.get(5).getThrowable());
+        Assert.assertEquals("nine", events.get(6).getMessage());
+
+        Assert.assertEquals(9, sink.getEventCount());
+        Assert.assertEquals(7, sink.getWriteCount());
+        Assert.assertEquals(2, sink.getSavedWriteCount());
+    }
+
+    @Test
+    public void timerTest() throws InterruptedException {
+        CoalescingLogSink sink = new CoalescingLogSink(memory, 10);
+        write(sink, LEVEL.D, "A", "one", System.currentTimeMillis(), null);
+        write(sink, LEVEL.D, "A", "two", System.currentTimeMillis(), null);
+        for (int i = 0; i < 100 && memory.getEvents().isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, memory.getEvents().size());
+        Assert.assertEquals("one\ntwo", memory.getEvents().get(0).getMessage());
+    }
+}
@@ -0,0 +1,60 @@
+package com.pitty.android.logger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Properties;
+
+public class ConfigSnapshotTest {
+    String config = "root = D: com.example.db.*\n"
+            + "sink = memory\n"
+            + "coalesce = 5\n"
+            + "module\\:com.example.* = W: EXAMPLE: %logger{-1}: [%5level %-10(%logger{.-25})]%n\n"
+            + "module\\:com.example.db.* = V: DB: : %d{yyyy} %caller{-1}: console\n";
+
+    @Test
+    public void snapshotTest() throws IOException {
+        byte[] bytes = config.getBytes("ISO-8859-1");
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(bytes));
+        LoggerConfiguration parsed = LoggerConfiguration.parse(properties);
+        long checksum = ConfigSnapshot.checksum(bytes);
+
+        LoggerConfiguration loaded = ConfigSnapshot.read(ConfigSnapshot.write(parsed, checksum), checksum);
+        Assert.assertNotNull(loaded);
+        Assert.assertEquals(LEVEL.D, loaded.getGlobalLevel());
+        Assert.assertEquals("memory", loaded.getSink());
+        Assert.assertEquals(parsed.getModules().keySet(), loaded.getModules().keySet());
+        Assert.assertEquals(5, loaded.getIntOption("coalesce", 0));
+        Assert.assertEquals(1, loaded.getIntOption("missing", 1));
+
+        LoggerConfiguration.Module example = loaded.getModules().get("com.example.*");
+        Assert.assertEquals(LEVEL.D, example.getLevel());
+        Assert.assertEquals("EXAMPLE", example.getTag());
+        Assert.assertNull(example.getSink());
+        StackTraceElement caller = new StackTraceElement("com.example.Main", "run", "Main.java", 7);
+        Assert.assertEquals(
+                parsed.getModules().get("com.example.*").getCompiledMessagePattern().apply(caller, "com.example.Main", LEVEL.I),
+                example.getCompiledMessagePattern().apply(caller, "com.example.Main", LEVEL.I));
+
+        LoggerConfiguration.Module db = loaded.getModules().get("com.example.db.*");
+        Assert.assertEquals(LEVEL.V, db.getLevel());
+        Assert.assertEquals("console", db.getSink());
+        Assert.assertEquals("example.Main#run:7",
+                db.getCompiledMessagePattern().apply(caller, "com.example.Main", LEVEL.I).substring(4));
+    }
+
+    @Test
+    public void staleSnapshotTest() throws IOException {
+        byte[] bytes = config.getBytes("ISO-8859-1");
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(bytes));
+        byte[] snapshot = ConfigSnapshot.write(LoggerConfiguration.parse(properties), ConfigSnapshot.checksum(bytes));
+
+        Assert.assertNull(ConfigSnapshot.read(snapshot, ConfigSnapshot.checksum("root = V".getBytes("ISO-8859-1"))));
+        Assert.assertNull(ConfigSnapshot.read(null, 0));
+        Assert.assertNull(ConfigSnapshot.read(new byte[]{1, 2, 3}, 0));
+    }
+}
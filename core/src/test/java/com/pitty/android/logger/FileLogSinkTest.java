@@ -0,0 +1,104 @@
+package com.pitty.android.logger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+public class FileLogSinkTest {
+    private static final long START = 1414117230000L;
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("logs", "");
+        directory.delete();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (null != files) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private static void write(LogSink sink, LEVEL level, String tag, String message, long time) {
+        sink.write(level, tag, message, new LogEvent(time, level, "logger", tag, message, null, null));
+    }
+
+    @Test
+    public void searchTest() throws IOException {
+        FileLogSink sink = new FileLogSink(directory, "app", 64 * 1024, 100, 1024);
+        // one event every 10 ms for 100 s
+        for (int i = 0; i < 10000; i++) {
+            LEVEL level = i % 100 == 0 ? LEVEL.E : LEVEL.D;
+            write(sink, level, i % 2 == 0 ? "EVEN" : "ODD", "event " + i, START + i * 10L);
+        }
+        sink.write(LEVEL.W, "TAG", "first\nsecond", new LogEvent(START + 100000, LEVEL.W, "logger", "TAG",
+                "first\nsecond", null, null));
+        sink.flush();
+        Assert.assertTrue(FileLogSink.listSegments(directory, "app").size() > 5);
+
+        LogFileReader reader = new LogFileReader(sink);
+        List<LogFileReader.Record> records = reader.search(START + 50000, START + 50990, null, null);
+        Assert.assertEquals(100, records.size());
+        Assert.assertEquals("event 5000", records.get(0).getMessage());
+        Assert.assertEquals(START + 50000, records.get(0).getTimeMillis());
+        Assert.assertEquals(LEVEL.E, records.get(0).getLevel());
+        Assert.assertEquals("EVEN", records.get(0).getTag());
+        Assert.assertEquals("event 5099", records.get(99).getMessage());
+        // the index skips the other blocks
+        long fileBytes = 0;
+        for (File file : FileLogSink.listSegments(directory, "app")) {
+            fileBytes += file.length();
+        }
+        Assert.assertTrue(reader.getScannedBytes() * 20 < fileBytes);
+
+        records = reader.search(START, START + 100000, LEVEL.E, null);
+        Assert.assertEquals(100, records.size());
+        records = reader.search(START + 50000, START + 50990, null, "ODD");
+        Assert.assertEquals(50, records.size());
+        Assert.assertEquals("event 5001", records.get(0).getMessage());
+
+        // the last block is not indexed yet
+        records = reader.search(START + 100000, START + 100000, null, null);
+        Assert.assertEquals(1, records.size());
+        Assert.assertEquals("first\nsecond", records.get(0).getMessage());
+        sink.close();
+        Assert.assertEquals(1, new LogFileReader(directory, "app").search(START + 100000, Long.MAX_VALUE, null, null).size());
+    }
+
+    @Test
+    public void rotationTest() throws IOException {
+        FileLogSink sink = new FileLogSink(directory, "app", 1000, 3, 256);
+        for (int i = 0; i < 200; i++) {
+            write(sink, LEVEL.I, "TAG", "event " + i, START + i);
+        }
+        sink.close();
+        List<File> segments = FileLogSink.listSegments(directory, "app");
+        Assert.assertEquals(3, segments.size());
+        for (File segment : segments) {
+            Assert.assertTrue(segment.length() <= 1000);
+            Assert.assertTrue(FileLogSink.getIndexFile(segment).isFile());
+        }
+        List<LogFileReader.Record> records = new LogFileReader(directory, "app").search(0, Long.MAX_VALUE, null, null);
+        Assert.assertEquals("event 199", records.get(records.size() - 1).getMessage());
+
+        // a new sink starts a new segment
+        FileLogSink next = new FileLogSink(directory, "app", 1000, 3, 256);
+        write(next, LEVEL.I, "TAG", "next", START + 1000);
+        next.close();
+        segments = FileLogSink.listSegments(directory, "app");
+        Assert.assertEquals(3, segments.size());
+        Assert.assertEquals("2014-10-24 10:20:31.000 I/TAG: next\n".length(), segments.get(2).length());
+    }
+}
@@ -0,0 +1,195 @@
+package com.pitty.android.logger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class FlightRecorderTest {
+
+    @After
+    public void tearDown() {
+        FlightRecorder.setLevel(null);
+        FlightRecorder.setDefault(null);
+    }
+
+    @Test
+    public void ringTest() throws IOException {
+        FlightRecorder recorder = new FlightRecorder(5);
+        Assert.assertEquals(8, recorder.getCapacity());
+        for (int i = 0; i < 20; i++) {
+            recorder.record("Main", LEVEL.D, null, "event {}", new Object[]{i});
+        }
+        List<FlightRecorder.Event> events = recorder.snapshot();
+        Assert.assertEquals(8, events.size());
+        Assert.assertEquals("event 12", events.get(0).getMessage());
+        Assert.assertEquals("event 19", events.get(7).getMessage());
+        Assert.assertEquals(20, recorder.getRecordedCount());
+
+        LogArguments arguments = new LogArguments().add(1).add(true);
+        recorder.record("Main", LEVEL.I, null, "{} {}", arguments);
+        // the arguments are reused by the caller
+        arguments.clear();
+        recorder.recordPrintf("Main", LEVEL.W, null, "%d%%", new Object[]{50});
+        recorder.record("Main", LEVEL.E, null, "failed {}", new Object[]{"x", new IllegalStateException("boom")});
+
+        StringWriter writer = new StringWriter();
+        Assert.assertEquals(8, recorder.dump(writer));
+        String dump = writer.toString();
+        Assert.assertTrue(dump, dump.contains("I/Main(" + Thread.currentThread().getName() + "): 1 true\n"));
+        Assert.assertTrue(dump, dump.contains("W/Main(" + Thread.currentThread().getName() + "): 50%\n"));
+        Assert.assertTrue(dump, dump.contains("): failed x\njava.lang.IllegalStateException: boom"));
+
+        File file = File.createTempFile("recorder", ".log");
+        try {
+            Assert.assertEquals(8, recorder.dump(file));
+            Assert.assertTrue(file.length() > 0);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void supplierTest() {
+        FlightRecorder recorder = new FlightRecorder(8);
+        LogSupplier supplier = new LogSupplier() {
+            @Override
+            public Object get() {
+                return "VALUE";
+            }
+        };
+        LogSupplier failing = new LogSupplier() {
+            @Override
+            public Object get() {
+                throw new IllegalStateException();
+            }
+        };
+        recorder.record("Main", LEVEL.D, null, "y={}", new Object[]{supplier});
+        recorder.recordPrintf("Main", LEVEL.D, null, "x=%s", new Object[]{supplier});
+        recorder.recordPrintf("Main", LEVEL.D, null, "z=%s", new Object[]{failing});
+
+        // the suppliers are called by the dump, with both formats
+        List<FlightRecorder.Event> events = recorder.snapshot();
+        Assert.assertEquals("y=VALUE", events.get(0).getMessage());
+        Assert.assertEquals("x=VALUE", events.get(1).getMessage());
+        Assert.assertEquals("z=[FAILED get()]", events.get(2).getMessage());
+    }
+
+    @Test
+    public void handlerTest() {
+        MemorySink sink = new MemorySink();
+        PatternLoggerHandler handler = new PatternLoggerHandler(LEVEL.W, "TAG", null, "", sink);
+        LoggerBinding binding = LoggerBinding.create("com.example.Main", null, handler);
+        Assert.assertFalse(binding.isEnabled(LEVEL.D));
+
+        // no recorder by default, the level alone does not open the binding
+        Assert.assertNull(FlightRecorder.getDefault());
+        FlightRecorder.setLevel(LEVEL.D);
+        Assert.assertFalse(binding.isEnabled(LEVEL.D));
+        handler.log(null, "TAG", LEVEL.D, null, "not recorded");
+
+        FlightRecorder.setDefault(new FlightRecorder(FlightRecorder.DEFAULT_CAPACITY));
+        Assert.assertTrue(binding.isEnabled(LEVEL.D));
+        Assert.assertFalse(binding.isEnabled(LEVEL.V));
+        handler.log(null, "TAG", LEVEL.D, null, "debug {}", 1);
+        handler.log(null, "TAG", LEVEL.W, null, "warn");
+        handler.log(null, "TAG", LEVEL.V, null, "verbose");
+
+        // only the warning is printed, both are recorded
+        Assert.assertEquals(1, sink.getEvents().size());
+        List<FlightRecorder.Event> events = FlightRecorder.getDefault().snapshot();
+        Assert.assertEquals(2, events.size());
+        Assert.assertEquals("debug 1", events.get(0).getMessage());
+        Assert.assertEquals(LEVEL.W, events.get(1).getLevel());
+    }
+
+    @Test
+    public void concurrentDumpTest() throws InterruptedException {
+        final FlightRecorder recorder = new FlightRecorder(64);
+        final AtomicBoolean stop = new AtomicBoolean();
+        final CountDownLatch started = new CountDownLatch(4);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final int thread = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    started.countDown();
+                    for (int j = 0; !stop.get(); j++) {
+                        recorder.record("T" + thread, LEVEL.D, null, "{} {}", new Object[]{thread, j});
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        started.await();
+        for (int i = 0; i < 200; i++) {
+            for (FlightRecorder.Event event : recorder.snapshot()) {
+                // a slot is never copied while it is written
+                String[] parts = event.getMessage().split(" ");
+                Assert.assertEquals(event.getLoggerName(), "T" + parts[0]);
+            }
+        }
+        stop.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // the slots skipped by racing producers are written again by the next lap
+        for (int i = 0; i < 64; i++) {
+            recorder.record("Main", LEVEL.D, null, "event", (Object[]) null);
+        }
+        Assert.assertEquals(64, recorder.snapshot().size());
+    }
+
+    @Test
+    public void concurrentFieldsTest() throws InterruptedException {
+        final FlightRecorder recorder = new FlightRecorder(16);
+        final LEVEL[] levels = {LEVEL.V, LEVEL.D, LEVEL.I, LEVEL.W, LEVEL.E};
+        final AtomicBoolean stop = new AtomicBoolean();
+        final CountDownLatch started = new CountDownLatch(4);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final int thread = i;
+            threads[i] = new Thread("W" + thread) {
+                @Override
+                public void run() {
+                    started.countDown();
+                    for (int j = 0; !stop.get(); j++) {
+                        // every field tells the event: the logger, the level, the format and the arguments
+                        String loggerName = thread + ":" + j;
+                        Object[] args = {thread, j};
+                        if (j % 2 == 0) {
+                            recorder.record(loggerName, levels[j % levels.length], null, "{}:{}", args);
+                        } else {
+                            recorder.recordPrintf(loggerName, levels[j % levels.length], null, "%s:%s", args);
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        started.await();
+        int checked = 0;
+        for (int i = 0; i < 500; i++) {
+            for (FlightRecorder.Event event : recorder.snapshot()) {
+                String[] parts = event.getLoggerName().split(":");
+                int j = Integer.parseInt(parts[1]);
+                Assert.assertEquals(event.getLoggerName(), event.getMessage());
+                Assert.assertEquals(levels[j % levels.length], event.getLevel());
+                Assert.assertEquals("W" + parts[0], event.getThreadName());
+                checked++;
+            }
+        }
+        stop.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertTrue(checked > 0);
+    }
+}
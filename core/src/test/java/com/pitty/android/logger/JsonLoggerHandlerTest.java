@@ -0,0 +1,52 @@
+package com.pitty.android.logger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Properties;
+
+public class JsonLoggerHandlerTest {
+    MemorySink sink = new MemorySink(4);
+
+    @Test
+    public void jsonTest() {
+        JsonLoggerHandler handler = new JsonLoggerHandler(LEVEL.D, "TAG", "%logger{-1}", LoggerPattern.compile("%logger{-1}"),
+                JsonLoggerHandler.PATTERN, sink);
+
+        handler.log(null, "com.example.Main", LEVEL.I, null, "say \"{}\"\n\t{}", "hi\\", '\u0001');
+
+        String expected = "{\"timestamp\":" + sink.getEvents().get(0).getTimeMillis()
+                + ",\"level\":\"I\",\"logger\":\"com.example.Main\",\"tag\":\"example.Main\""
+                + ",\"thread\":\"" + Thread.currentThread().getName() + "\""
+                + ",\"message\":\"say \\\"hi\\\\\\\"\\n\\t\\u0001\"}";
+        Assert.assertEquals(expected, sink.getEvents().get(0).getMessage());
+    }
+
+    @Test
+    public void callerAndThrowableTest() {
+        JsonLoggerHandler handler = new JsonLoggerHandler(LEVEL.D, "TAG", null, null, JsonLoggerHandler.PATTERN, sink);
+        CallSite callSite = new CallSite("com.example.Main", "run", "Main.java", 7);
+
+        handler.log(callSite, "TAG", LEVEL.E, new IllegalStateException("bad"), "failed");
+
+        String message = sink.getEvents().get(0).getMessage();
+        Assert.assertTrue(message, message.contains(",\"caller\":\"com.example.Main.run:7\","));
+        Assert.assertTrue(message, message.contains(",\"message\":\"failed\",\"throwable\":\"java.lang.IllegalStateException: bad\\n"));
+        Assert.assertTrue(message.endsWith("\"}"));
+        Assert.assertEquals(-1, message.indexOf('\n'));
+    }
+
+    @Test
+    public void configurationTest() {
+        Properties properties = new Properties();
+        properties.setProperty("module:com.example.*", "D:TAG::%json{caller}");
+        LoggerConfiguration configuration = LoggerConfiguration.parse(properties);
+
+        PatternLoggerHandler handler = configuration.getModules().get("com.example.*").createHandler(sink);
+        Assert.assertTrue(handler instanceof JsonLoggerHandler);
+        handler.log(null, "TAG", LEVEL.D, null, "message");
+        String message = sink.getEvents().get(0).getMessage();
+        // the frames of this package are skipped, only check the caller was looked for
+        Assert.assertTrue(message, message.contains(",\"caller\":\""));
+    }
+}
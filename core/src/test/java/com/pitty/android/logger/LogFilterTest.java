@@ -0,0 +1,92 @@
+package com.pitty.android.logger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Marker;
+import org.slf4j.helpers.BasicMarkerFactory;
+
+public class LogFilterTest {
+    private static final String RULE =
+            "((logger=com.foo.db.*&level>=W)|(logger~/Sync/&level>=D))&!marker=HEARTBEAT";
+
+    private final BasicMarkerFactory markers = new BasicMarkerFactory();
+
+    @Test
+    public void acceptTest() {
+        LogFilter filter = LogFilter.compile(RULE);
+        Marker heartbeat = markers.getMarker("HEARTBEAT");
+        Assert.assertTrue(filter.accept("com.foo.db.Dao", LEVEL.W, null));
+        Assert.assertTrue(filter.accept("com.foo.db.Dao", LEVEL.E, null));
+        Assert.assertFalse(filter.accept("com.foo.db.Dao", LEVEL.I, null));
+        Assert.assertFalse(filter.accept("com.foo.dbx.Dao", LEVEL.E, null));
+        Assert.assertTrue(filter.accept("com.foo.net.SyncService", LEVEL.D, null));
+        Assert.assertFalse(filter.accept("com.foo.net.SyncService", LEVEL.V, null));
+        Assert.assertFalse(filter.accept("com.foo.net.SyncService", LEVEL.D, heartbeat));
+        Assert.assertTrue(filter.accept("com.foo.net.SyncService", LEVEL.D, markers.getMarker("OTHER")));
+
+        // a marker referencing HEARTBEAT
+        Marker beat = markers.getDetachedMarker("BEAT");
+        beat.add(heartbeat);
+        Assert.assertFalse(filter.accept("com.foo.db.Dao", LEVEL.E, beat));
+
+        Assert.assertTrue(LogFilter.compile("level=I").accept("a", LEVEL.I, null));
+        Assert.assertFalse(LogFilter.compile("level>I").accept("a", LEVEL.I, null));
+        Assert.assertTrue(LogFilter.compile("level<I").accept("a", LEVEL.D, null));
+        Assert.assertTrue(LogFilter.compile("level<=I").accept("a", LEVEL.I, null));
+        Assert.assertTrue(LogFilter.compile("logger=a?c").accept("abc", LEVEL.I, null));
+        Assert.assertFalse(LogFilter.compile("logger=a.c").accept("abc", LEVEL.I, null));
+        Assert.assertTrue(LogFilter.compile("logger~/^a\\/b$/").accept("a/b", LEVEL.I, null));
+        // '&' binds tighter than '|'
+        Assert.assertTrue(LogFilter.compile("level=E|level=W&logger=x").accept("y", LEVEL.E, null));
+    }
+
+    @Test
+    public void bindTest() {
+        LogFilter filter = LogFilter.compile(RULE);
+        Assert.assertTrue(filter.isMarkerNeeded());
+        Assert.assertSame(LogFilter.REJECT, filter.bind("com.example.Main"));
+        Assert.assertSame(LogFilter.ACCEPT, LogFilter.compile("logger=com.*|level=E").bind("com.example.Main"));
+
+        LogFilter bound = filter.bind("com.foo.db.Dao");
+        Assert.assertTrue(bound.accept("ignored", LEVEL.W, null));
+        Assert.assertFalse(bound.accept("ignored", LEVEL.I, null));
+    }
+
+    @Test
+    public void bindingTest() {
+        MemorySink sink = new MemorySink();
+        PatternLoggerHandler handler = new PatternLoggerHandler(LEVEL.V, "TAG", null, "", sink);
+        LogFilter filter = LogFilter.compile(RULE);
+        Marker heartbeat = markers.getMarker("HEARTBEAT");
+
+        LoggerBinding db = LoggerBinding.create("com.foo.db.Dao", null, handler, filter);
+        Assert.assertTrue(db.isEnabled(LEVEL.W));
+        Assert.assertFalse(db.isEnabled(LEVEL.D));
+        Assert.assertFalse(db.isEnabled(LEVEL.W, heartbeat));
+        Assert.assertTrue(db.isEnabled(LEVEL.W, markers.getMarker("OTHER")));
+
+        LoggerBinding other = LoggerBinding.create("com.example.Main", null, handler, filter);
+        Assert.assertFalse(other.isEnabled(LEVEL.E));
+        Assert.assertFalse(other.isEnabled(LEVEL.E, markers.getMarker("OTHER")));
+
+        // the filter can not print more than the level
+        LoggerBinding sync = LoggerBinding.create("com.foo.Sync", null,
+                new PatternLoggerHandler(LEVEL.I, "TAG", null, "", sink), filter);
+        Assert.assertTrue(sync.isEnabled(LEVEL.I));
+        Assert.assertFalse(sync.isEnabled(LEVEL.D));
+    }
+
+    @Test
+    public void syntaxTest() {
+        String[] invalid = {"", "level", "level>=X", "logger=", "logger~/[/", "logger~/a", "(level=E",
+                "level=E)", "level=E&", "name=a", "marker="};
+        for (String expression : invalid) {
+            try {
+                LogFilter.compile(expression);
+                Assert.fail(expression);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+}
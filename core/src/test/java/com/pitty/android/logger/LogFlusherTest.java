@@ -0,0 +1,75 @@
+package com.pitty.android.logger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+
+public class LogFlusherTest {
+    private final Thread.UncaughtExceptionHandler previousHandler = Thread.getDefaultUncaughtExceptionHandler();
+
+    @After
+    public void tearDown() {
+        Thread.setDefaultUncaughtExceptionHandler(previousHandler);
+    }
+
+    @Test
+    public void crashTest() throws InterruptedException {
+        MemorySink memory = new MemorySink();
+        CoalescingLogSink sink = new CoalescingLogSink(memory, 60000);
+        final Throwable[] chained = new Throwable[1];
+        Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(Thread thread, Throwable throwable) {
+                chained[0] = throwable;
+            }
+        });
+        new LogFlusher(Collections.<LogSink>singletonList(sink), 1000).installUncaughtExceptionHandler();
+
+        sink.write(LEVEL.D, "TAG", "last words", new LogEvent(System.currentTimeMillis(), LEVEL.D, "TAG", "TAG",
+                "last words", null, null));
+        Assert.assertTrue(memory.getEvents().isEmpty());
+        final IllegalStateException crash = new IllegalStateException("crash");
+        Thread thread = new Thread("worker") {
+            @Override
+            public void run() {
+                throw crash;
+            }
+        };
+        thread.start();
+        thread.join();
+
+        Assert.assertSame(crash, chained[0]);
+        Assert.assertEquals(2, memory.getEvents().size());
+        Assert.assertEquals("last words", memory.getEvents().get(0).getMessage());
+        Assert.assertEquals(LogFlusher.FATAL_TAG, memory.getEvents().get(1).getTag());
+        Assert.assertTrue(memory.getEvents().get(1).getMessage().startsWith("FATAL EXCEPTION: worker\n"));
+    }
+
+    @Test
+    public void budgetTest() {
+        final CountDownLatch release = new CountDownLatch(1);
+        LogSink stuck = new AbstractLogSink() {
+            @Override
+            public void write(LEVEL level, String tag, String message, LogEvent event) {
+            }
+
+            @Override
+            public void flush() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        long start = System.currentTimeMillis();
+        Assert.assertFalse(new LogFlusher(Arrays.asList(stuck), 50).flush());
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+        release.countDown();
+        Assert.assertTrue(new LogFlusher(Arrays.asList(stuck), 5000).flush());
+    }
+}
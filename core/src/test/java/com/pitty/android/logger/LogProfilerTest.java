@@ -0,0 +1,64 @@
+package com.pitty.android.logger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class LogProfilerTest {
+
+    @After
+    public void tearDown() {
+        LogProfiler.setEnabled(false);
+    }
+
+    @Test
+    public void spaceSavingTest() {
+        LogProfiler profiler = new LogProfiler(4);
+        for (int i = 0; i < 1000; i++) {
+            profiler.record("hot", 0, 100, 0);
+            if (i % 2 == 0) {
+                profiler.record("warm", 0, 10, 0);
+            }
+            // a new statement every time
+            profiler.record("cold " + i, 0, 1, 0);
+        }
+        Assert.assertEquals(2500, profiler.getTotal());
+
+        List<LogProfiler.Entry> top = profiler.top(2);
+        Assert.assertEquals(2, top.size());
+        Assert.assertEquals("hot", top.get(0).getKey());
+        Assert.assertEquals(1000, top.get(0).getCount());
+        Assert.assertEquals(0, top.get(0).getError());
+        Assert.assertEquals(100000, top.get(0).getFormatNanos());
+        Assert.assertEquals("warm", top.get(1).getKey());
+        Assert.assertEquals(4, profiler.top(10).size());
+    }
+
+    @Test
+    public void handlerTest() {
+        LogProfiler profiler = new LogProfiler(8);
+        LogProfiler.setDefault(profiler);
+        LogProfiler.setEnabled(true);
+        PatternLoggerHandler handler = new PatternLoggerHandler(LEVEL.V, "TAG", null, "%d", new MemorySink());
+        CallSite callSite = new CallSite("com.example.Main", "run", "Main.java", 7);
+
+        for (int i = 0; i < 3; i++) {
+            handler.log(null, "TAG", LEVEL.D, null, "value {}", i);
+            handler.print("TAG", LEVEL.D, null, "value %d", i);
+        }
+        handler.log(callSite, "TAG", LEVEL.D, null, "value {}", 1);
+        LogProfiler.setEnabled(false);
+        handler.log(null, "TAG", LEVEL.D, null, "disabled {}", 1);
+
+        Assert.assertEquals(7, profiler.getTotal());
+        List<LogProfiler.Entry> top = profiler.top(10);
+        Assert.assertEquals(3, top.size());
+        for (LogProfiler.Entry entry : top) {
+            Assert.assertTrue(entry.getKey() == callSite || "value {}".equals(entry.getKey())
+                    || "value %d".equals(entry.getKey()));
+            Assert.assertTrue(entry.getFormatNanos() > 0);
+        }
+    }
+}
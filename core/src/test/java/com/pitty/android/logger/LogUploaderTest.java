@@ -0,0 +1,273 @@
+package com.pitty.android.logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+public class LogUploaderTest {
+    private File directory;
+    private File outbox;
+    private HttpServer server;
+    private final List<Integer> responses = Collections.synchronizedList(new ArrayList<Integer>());
+    private final List<String> batchIds = Collections.synchronizedList(new ArrayList<String>());
+    private final StringBuffer received = new StringBuffer();
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("logs", "");
+        directory.delete();
+        outbox = new File(directory, "outbox");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/upload", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int code = responses.isEmpty() ? 200 : responses.remove(0);
+                batchIds.add(exchange.getRequestHeaders().getFirst(HttpLogTransport.BATCH_HEADER));
+                // the whole body before the response: GZIPInputStream stops at the gzip trailer, and the
+                // server closes a connection whose body was not read to the end, without telling the client
+                byte[] gzip = Utils.readFully(exchange.getRequestBody());
+                InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip));
+                String body = new String(Utils.readFully(in), "UTF-8");
+                if (code == 200) {
+                    received.append(body);
+                }
+                exchange.sendResponseHeaders(code, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        delete(directory);
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (null != files) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private LogUploader.Transport transport() throws IOException {
+        return new HttpLogTransport(new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/upload"), 5000);
+    }
+
+    private static void write(LogSink sink, int count, String prefix) {
+        for (int i = 0; i < count; i++) {
+            String message = prefix + " " + i;
+            sink.write(LEVEL.I, "TAG", message, new LogEvent(System.currentTimeMillis(), LEVEL.I, "logger", "TAG",
+                    message, null, null));
+        }
+    }
+
+    @Test
+    public void uploadTest() throws IOException {
+        FileLogSink sink = new FileLogSink(directory, "app", 1000, 100, 256);
+        write(sink, 100, "event");
+        LogUploader uploader = new LogUploader(sink, outbox, transport(), 2500, 1024 * 1024, 1000, 8000);
+
+        // a server error, then the batches are sent in order
+        responses.add(503);
+        long delay = uploader.upload();
+        Assert.assertTrue(delay >= 500 && delay <= 1000);
+        int batches = uploader.listBatches().size();
+        Assert.assertTrue(batches > 1);
+        Assert.assertEquals(-1, uploader.upload());
+        Assert.assertEquals(batches, uploader.getSentCount());
+        Assert.assertTrue(uploader.listBatches().isEmpty());
+        // the failed batch was retried with the same id
+        Assert.assertEquals(batchIds.get(0), batchIds.get(1));
+
+        // the last segment is sent once closed
+        sink.close();
+        Assert.assertEquals(-1, uploader.upload());
+        String text = received.toString();
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(text.indexOf("I/TAG: event " + i + "\n"), text.lastIndexOf("I/TAG: event " + i + "\n"));
+            Assert.assertTrue(text.contains("I/TAG: event " + i + "\n"));
+        }
+
+        // a rejected batch is dropped
+        write(sink, 10, "rejected");
+        sink.close();
+        responses.add(400);
+        Assert.assertEquals(-1, uploader.upload());
+        Assert.assertEquals(1, uploader.getDroppedCount());
+        Assert.assertFalse(received.toString().contains("rejected"));
+    }
+
+    @Test
+    public void sharedTest() throws IOException {
+        // two processes, the segment written last stays in the files
+        SharedFileLogSink sink = new SharedFileLogSink(directory, "app", 1000, 100, 200, 0);
+        SharedFileLogSink other = new SharedFileLogSink(directory, "app", 1000, 100, 200, 0);
+        write(sink, 50, "first");
+        write(other, 50, "second");
+        sink.flush();
+        other.flush();
+        List<File> closed = sink.getClosedSegments();
+        Assert.assertEquals(closed, other.getClosedSegments());
+        Assert.assertEquals(FileLogSink.listSegments(directory, "app").size() - 1, closed.size());
+
+        LogUploader uploader = new LogUploader(other, outbox, transport(), 2500, 1024 * 1024, 1000, 8000);
+        Assert.assertEquals(-1, uploader.upload());
+        Assert.assertFalse(received.toString().contains("I/TAG: second 49\n"));
+
+        // the records appended to the open segment are sent once another process closes it
+        write(sink, 50, "third");
+        sink.flush();
+        Assert.assertEquals(-1, uploader.upload());
+        String text = received.toString();
+        Assert.assertTrue(text.contains("I/TAG: second 49\n"));
+        for (String prefix : new String[]{"first", "second"}) {
+            for (int i = 0; i < 50; i++) {
+                String record = "I/TAG: " + prefix + " " + i + "\n";
+                Assert.assertTrue(record, text.contains(record));
+                Assert.assertEquals(text.indexOf(record), text.lastIndexOf(record));
+            }
+        }
+        sink.close();
+        other.close();
+    }
+
+    @Test
+    public void resumeTest() throws IOException {
+        FileLogSink sink = new FileLogSink(directory, "app", 1000, 100, 256);
+        write(sink, 50, "event");
+        sink.close();
+        LogUploader uploader = new LogUploader(sink, outbox, transport(), 1000, 1024 * 1024, 1000, 8000);
+        responses.add(500);
+        uploader.upload();
+        int batches = uploader.listBatches().size();
+
+        // a new process: the batches left are sent, the segments are not packed again
+        LogUploader next = new LogUploader(sink, outbox, transport(), 1000, 1024 * 1024, 1000, 8000);
+        next.pack();
+        Assert.assertEquals(batches, next.listBatches().size());
+        Assert.assertEquals(-1, next.upload());
+        Assert.assertTrue(received.toString().contains("I/TAG: event 49\n"));
+    }
+
+    @Test
+    public void redirectTest() throws IOException {
+        FileLogSink sink = new FileLogSink(directory, "app", 1000, 100, 256);
+        write(sink, 10, "event");
+        sink.close();
+        LogUploader uploader = new LogUploader(sink, outbox, transport(), 2500, 1024 * 1024, 1000, 8000);
+
+        // a redirect is retried, not dropped
+        responses.add(302);
+        Assert.assertTrue(uploader.upload() > 0);
+        Assert.assertEquals(0, uploader.getDroppedCount());
+        Assert.assertEquals(1, uploader.listBatches().size());
+        Assert.assertEquals(-1, uploader.upload());
+        Assert.assertEquals(1, uploader.getSentCount());
+    }
+
+    @Test
+    public void sendLockTest() throws Exception {
+        FileLogSink sink = new FileLogSink(directory, "app", 1000, 100, 256);
+        write(sink, 10, "event");
+        sink.close();
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final LogUploader uploader = new LogUploader(sink, outbox, new LogUploader.Transport() {
+            @Override
+            public void send(String batchId, File batch) throws IOException {
+                sending.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e.toString());
+                }
+            }
+        }, 2500, 1024 * 1024, 1000, 8000);
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                uploader.upload();
+            }
+        };
+        thread.start();
+        Assert.assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        // the uploader is not locked while a batch is sent
+        Assert.assertEquals(0, uploader.getSentCount());
+        uploader.pack();
+        uploader.stop();
+        Assert.assertEquals(1, uploader.listBatches().size());
+        release.countDown();
+        thread.join();
+        Assert.assertEquals(1, uploader.getSentCount());
+        Assert.assertTrue(uploader.listBatches().isEmpty());
+    }
+
+    @Test
+    public void outboxTest() throws IOException {
+        FileLogSink sink = new FileLogSink(directory, "app", 1000, 100, 256);
+        write(sink, 200, "event");
+        sink.close();
+        LogUploader uploader = new LogUploader(sink, outbox, transport(), 1000, 600, 1000, 8000);
+        uploader.setCondition(new LogUploader.Condition() {
+            @Override
+            public boolean canUpload(long batchBytes) {
+                return false;
+            }
+        });
+        Assert.assertEquals(1000, uploader.upload());
+        long total = 0;
+        for (File batch : uploader.listBatches()) {
+            total += batch.length();
+        }
+        Assert.assertTrue(total <= 600);
+        Assert.assertTrue(uploader.getDroppedCount() > 0);
+        Assert.assertEquals(0, batchIds.size());
+    }
+
+    @Test
+    public void backoffTest() {
+        LogUploader uploader = new LogUploader(new FileLogSink(directory, "app"), outbox, new LogUploader.Transport() {
+            @Override
+            public void send(String batchId, File batch) throws IOException {
+                throw new IOException();
+            }
+        }, 1000, 1000, 1000, 8000);
+        long[] max = {1000, 2000, 4000, 8000, 8000};
+        for (long expected : max) {
+            // upload() counts the failures, without a batch count them here
+            failOnce(uploader);
+            long delay = uploader.getRetryDelay();
+            Assert.assertTrue(delay + " " + expected, delay >= expected / 2 && delay <= expected);
+        }
+    }
+
+    private void failOnce(LogUploader uploader) {
+        FileLogSink sink = new FileLogSink(directory, "app");
+        write(sink, 1, "event");
+        sink.close();
+        uploader.upload();
+    }
+}
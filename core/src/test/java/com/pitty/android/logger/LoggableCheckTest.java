@@ -0,0 +1,138 @@
+package com.pitty.android.logger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class LoggableCheckTest {
+
+    /**
+     * The levels set by tag like "setprop log.tag.X", INFO by default.
+     */
+    private static class PropertyCheck extends LoggableCheck {
+        final Map<String, LEVEL> levels = new HashMap<String, LEVEL>();
+        int calls;
+
+        @Override
+        protected boolean isLoggable(String tag, LEVEL level) {
+            calls++;
+            LEVEL allowed = levels.containsKey(tag) ? levels.get(tag) : LEVEL.I;
+            return level.ordinal() <= allowed.ordinal();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        LoggableCheck.setDefault(null);
+        LoggableCheck.stopRefresh();
+        FlightRecorder.setLevel(null);
+        FlightRecorder.setDefault(null);
+    }
+
+    @Test
+    public void bindingTest() {
+        PatternLoggerHandler handler = new PatternLoggerHandler(LEVEL.D, "TAG", null, "", new MemorySink());
+        LoggerBinding binding = LoggerBinding.create("com.example.Main", null, handler);
+        Assert.assertTrue(binding.isEnabled(LEVEL.D));
+
+        PropertyCheck check = new PropertyCheck();
+        LoggableCheck.setDefault(check);
+        Assert.assertFalse(binding.isEnabled(LEVEL.D));
+        Assert.assertTrue(binding.isEnabled(LEVEL.I));
+        Assert.assertFalse(binding.isEnabled(LEVEL.V));
+        // the tag is checked once
+        int calls = check.calls;
+        for (int i = 0; i < 100; i++) {
+            binding.isEnabled(LEVEL.D);
+        }
+        Assert.assertEquals(calls, check.calls);
+
+        // the change is seen after a refresh, the handler level stays the most verbose
+        check.levels.put("TAG", LEVEL.V);
+        Assert.assertFalse(binding.isEnabled(LEVEL.D));
+        check.refresh();
+        Assert.assertTrue(binding.isEnabled(LEVEL.D));
+        Assert.assertFalse(binding.isEnabled(LEVEL.V));
+        check.levels.put("TAG", LEVEL.O);
+        check.refresh();
+        Assert.assertFalse(binding.isEnabled(LEVEL.E));
+
+        // the scope of the thread opens the closed levels
+        LoggerScope.Token token = LoggerScope.enter(LEVEL.V);
+        try {
+            Assert.assertTrue(binding.isEnabled(LEVEL.D));
+        } finally {
+            token.close();
+        }
+    }
+
+    @Test
+    public void recorderTest() {
+        MemorySink sink = new MemorySink();
+        PatternLoggerHandler handler = new PatternLoggerHandler(LEVEL.D, "TAG", null, "", sink);
+        LoggerBinding binding = LoggerBinding.create("com.example.Main", null, handler);
+        PropertyCheck check = new PropertyCheck();
+        check.levels.put("TAG", LEVEL.O);
+        LoggableCheck.setDefault(check);
+        FlightRecorder recorder = new FlightRecorder(16);
+        FlightRecorder.setDefault(recorder);
+        FlightRecorder.setLevel(LEVEL.D);
+
+        // the tag is silenced, its events are still recorded but not printed
+        Assert.assertTrue(binding.isEnabled(LEVEL.W));
+        binding.getHandler(LEVEL.W).log(null, binding.getTag(), LEVEL.W, null, "silenced {}", 1);
+        Assert.assertTrue(sink.getEvents().isEmpty());
+        Assert.assertEquals(1, recorder.snapshot().size());
+        Assert.assertEquals("silenced 1", recorder.snapshot().get(0).getMessage());
+
+        // an open tag is printed and recorded by the handler
+        check.levels.put("TAG", LEVEL.V);
+        check.refresh();
+        Assert.assertSame(handler, binding.getHandler(LEVEL.W));
+        binding.getHandler(LEVEL.W).log(null, binding.getTag(), LEVEL.W, null, "open");
+        Assert.assertEquals(1, sink.getEvents().size());
+        Assert.assertEquals(2, recorder.snapshot().size());
+    }
+
+    @Test
+    public void tagPatternTest() {
+        PropertyCheck check = new PropertyCheck();
+        check.levels.put("App-TAG", LEVEL.D);
+        check.levels.put("TAG", LEVEL.W);
+        LoggableCheck.setDefault(check);
+
+        // the tag printed is checked
+        PatternLoggerHandler handler = new PatternLoggerHandler(LEVEL.V, "TAG", "App-%logger", "", new MemorySink());
+        LoggerBinding binding = LoggerBinding.create("com.example.Main", null, handler);
+        Assert.assertEquals("App-TAG", binding.getLoggableTag());
+        Assert.assertTrue(binding.isEnabled(LEVEL.D));
+        Assert.assertFalse(binding.isEnabled(LEVEL.V));
+
+        // a tag by event, the tag of the module is checked
+        handler = new PatternLoggerHandler(LEVEL.V, "TAG", "App-%logger-%level", "", new MemorySink());
+        binding = LoggerBinding.create("com.example.Main", null, handler);
+        Assert.assertEquals("TAG", binding.getLoggableTag());
+        Assert.assertFalse(binding.isEnabled(LEVEL.I));
+        Assert.assertTrue(binding.isEnabled(LEVEL.W));
+    }
+
+    @Test
+    public void refreshTest() throws InterruptedException {
+        PatternLoggerHandler handler = new PatternLoggerHandler(LEVEL.V, "TAG", null, "", new MemorySink());
+        LoggerBinding binding = LoggerBinding.create("com.example.Main", null, handler);
+        PropertyCheck check = new PropertyCheck();
+        LoggableCheck.setDefault(check);
+        Assert.assertFalse(binding.isEnabled(LEVEL.D));
+
+        check.levels.put("TAG", LEVEL.D);
+        LoggableCheck.startRefresh(1);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!binding.isEnabled(LEVEL.D) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertTrue(binding.isEnabled(LEVEL.D));
+    }
+}
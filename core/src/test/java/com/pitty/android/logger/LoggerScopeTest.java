@@ -0,0 +1,75 @@
+package com.pitty.android.logger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class LoggerScopeTest {
+    MemorySink sink = new MemorySink();
+
+    @Test
+    public void scopeTest() {
+        final PatternLoggerHandler handler = new PatternLoggerHandler(LEVEL.W, "TAG", null, "", sink);
+        final LoggerBinding binding = LoggerBinding.create("com.example.Main", null, handler);
+        Assert.assertFalse(binding.isEnabled(LEVEL.D));
+        Assert.assertNull(LoggerScope.getLevel());
+
+        LoggerScope.Token outer = LoggerScope.enter(LEVEL.I);
+        try {
+            Assert.assertTrue(binding.isEnabled(LEVEL.I));
+            Assert.assertFalse(binding.isEnabled(LEVEL.D));
+            LoggerScope.verbose(new Runnable() {
+                @Override
+                public void run() {
+                    Assert.assertTrue(binding.isEnabled(LEVEL.V));
+                    handler.log(null, "TAG", LEVEL.D, null, "scoped");
+                }
+            });
+            Assert.assertEquals(LEVEL.I, LoggerScope.getLevel());
+        } finally {
+            outer.close();
+        }
+        // closing twice does nothing
+        outer.close();
+        Assert.assertNull(LoggerScope.getLevel());
+        Assert.assertFalse(handler.isEnabled(LEVEL.D));
+        Assert.assertEquals(1, sink.getEvents().size());
+        Assert.assertEquals("scoped", sink.getEvents().get(0).getMessage());
+
+        // the scope can not open a closed log
+        LoggerBinding closed = LoggerBinding.create("com.example.Main", null, null);
+        LoggerScope.Token token = LoggerScope.enter(LEVEL.V);
+        try {
+            Assert.assertFalse(closed.isEnabled(LEVEL.E));
+        } finally {
+            token.close();
+        }
+    }
+
+    @Test
+    public void executorTest() throws InterruptedException {
+        ExecutorService service = Executors.newSingleThreadExecutor();
+        final PatternLoggerHandler handler = new PatternLoggerHandler(LEVEL.W, "TAG", null, "", sink);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                handler.log(null, "TAG", LEVEL.D, null, "from the executor");
+            }
+        };
+        LoggerScope.Token token = LoggerScope.enter(LEVEL.D);
+        try {
+            LoggerScope.wrap(service).execute(task);
+        } finally {
+            token.close();
+        }
+        LoggerScope.wrap(service).execute(task);
+        service.shutdown();
+        Assert.assertTrue(service.awaitTermination(10, TimeUnit.SECONDS));
+
+        Assert.assertEquals(1, sink.getEvents().size());
+        Assert.assertEquals("from the executor", sink.getEvents().get(0).getMessage());
+    }
+}
@@ -0,0 +1,76 @@
+package com.pitty.android.logger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Properties;
+
+public class LoggerStatsTest {
+
+    @After
+    public void tearDown() {
+        LoggerStats.setEnabled(false);
+    }
+
+    @Test
+    public void countersTest() throws InterruptedException {
+        Properties properties = new Properties();
+        properties.setProperty("module:stats.test.*", "I:TAG");
+        LoggerConfiguration configuration = LoggerConfiguration.parse(properties);
+        final PatternLoggerHandler handler = configuration.getModules().get("stats.test.*").createHandler(new MemorySink());
+        LoggerStats stats = handler.getStats();
+        Assert.assertEquals("stats.test.*", stats.getName());
+
+        handler.print(LEVEL.I, null, "not counted");
+        Assert.assertEquals(0, stats.snapshot().getAccepted());
+
+        LoggerStats.setEnabled(true);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        if (handler.isEnabled(LEVEL.D)) {
+                            handler.print(LEVEL.D, null, "hidden");
+                        }
+                        handler.print(LEVEL.W, null, "12345");
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        LoggerStats.Snapshot snapshot = stats.snapshot();
+        Assert.assertEquals(4000, snapshot.getAccepted(LEVEL.W));
+        Assert.assertEquals(4000, snapshot.getFiltered(LEVEL.D));
+        Assert.assertEquals(4000 * 5, snapshot.getChars(LEVEL.W));
+        Assert.assertEquals(0, snapshot.getDropped());
+        Assert.assertSame(stats, LoggerStats.get("stats.test.*"));
+        Assert.assertTrue(LoggerStats.snapshots().containsKey("stats.test.*"));
+
+        stats.reset();
+        Assert.assertEquals(0, stats.snapshot().getAccepted());
+    }
+
+    @Test
+    public void droppedTest() {
+        LoggerStats.setEnabled(true);
+        PatternLoggerHandler handler = new PatternLoggerHandler(LEVEL.V, "TAG", null, null, new AbstractLogSink() {
+            @Override
+            public void write(LEVEL level, String tag, String message, LogEvent event) {
+                throw new IllegalStateException();
+            }
+        });
+        handler.setStats(LoggerStats.get("stats.dropped"));
+
+        handler.print(LEVEL.E, null, "lost");
+
+        Assert.assertEquals(1, handler.getStats().snapshot().getDropped(LEVEL.E));
+        Assert.assertEquals(0, handler.getStats().snapshot().getAccepted());
+    }
+}
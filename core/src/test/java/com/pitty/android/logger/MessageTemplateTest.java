@@ -0,0 +1,95 @@
+package com.pitty.android.logger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.helpers.FormattingTuple;
+import org.slf4j.helpers.MessageFormatter;
+
+public class MessageTemplateTest {
+    String[] formats = {
+            "", "plain", "{}", "{}{}", "a {} b {} c", "{} tail", "head {}",
+            "escaped \\{} and {}", "double \\\\{} escaped", "\\{}\\{}{}", "{", "}", "{ }", "{}}", "{{}",
+            "100% {} %s %d",
+    };
+    Object[][] argArrays = {
+            null, {}, {"x"}, {1, 2L}, {null, "y", 3.5}, {"a", "b", "c", "d"},
+            {new int[]{1, 2}, new boolean[]{true}, new String[]{"s", null}},
+            {"only", new IllegalStateException("boom")}, {new RuntimeException("consumed")},
+    };
+
+    @Test
+    public void sameAsSlf4jTest() {
+        for (String format : formats) {
+            MessageTemplate template = MessageTemplate.parse(format);
+            for (Object[] args : argArrays) {
+                FormattingTuple expected = MessageFormatter.arrayFormat(format, args);
+                StringBuilder builder = new StringBuilder();
+                template.render(builder, args);
+                String message = format + " " + java.util.Arrays.deepToString(args);
+                Assert.assertEquals(message, expected.getMessage(), builder.toString());
+                Assert.assertSame(message, expected.getThrowable(), template.getThrowable(args));
+            }
+        }
+    }
+
+    @Test
+    public void argumentsTest() {
+        LogArguments arguments = new LogArguments();
+        for (int i = 0; i < 10; i++) {
+            arguments.add(i);
+        }
+        arguments.add(Long.MAX_VALUE).add(-1.5).add(0.1f).add(false).add('x').add(null);
+        Object[] args = new Object[arguments.size()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = arguments.get(i);
+        }
+        for (String format : formats) {
+            MessageTemplate template = MessageTemplate.parse(format);
+            StringBuilder boxed = new StringBuilder();
+            template.render(boxed, args);
+            StringBuilder unboxed = new StringBuilder();
+            template.render(unboxed, arguments);
+            Assert.assertEquals(format, boxed.toString(), unboxed.toString());
+        }
+        arguments.clear();
+        Assert.assertEquals(0, arguments.size());
+    }
+
+    @Test
+    public void selfReferenceTest() {
+        Object[] array = new Object[1];
+        array[0] = array;
+        StringBuilder builder = new StringBuilder();
+        MessageTemplate.parse("{}").render(builder, new Object[]{array});
+        Assert.assertEquals("[[...]]", builder.toString());
+    }
+
+    @Test
+    public void cacheTest() {
+        MessageTemplateCache cache = new MessageTemplateCache(4);
+        String format = "value {}";
+        Assert.assertSame(cache.get(format), cache.get(format));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.getSize());
+
+        // formats built at runtime do not evict the used literal
+        for (int i = 0; i < 100; i++) {
+            cache.get(new StringBuilder("value ").append(i).append(" {}").toString());
+            cache.get(format);
+        }
+        Assert.assertEquals(101, cache.getHitCount());
+        Assert.assertTrue(cache.getSize() <= cache.getCapacity());
+
+        StringBuilder longFormat = new StringBuilder();
+        for (int i = 0; i <= MessageTemplateCache.MAX_FORMAT_LENGTH; i++) {
+            longFormat.append('x');
+        }
+        String tooLong = longFormat.toString();
+        cache.clear();
+        cache.get(tooLong);
+        cache.get(tooLong);
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(0, cache.getSize());
+    }
+}
@@ -0,0 +1,98 @@
+package com.pitty.android.logger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class ModuleHandlersTest {
+
+    private static LoggerConfiguration configuration(int count) {
+        Properties properties = new Properties();
+        for (int i = 0; i < count; i++) {
+            properties.setProperty("module:com.example.m" + i + ".*", "D:M" + i + ":%level:%caller{-1}:");
+        }
+        return LoggerConfiguration.parse(properties);
+    }
+
+    @Test
+    public void lazyTest() {
+        MemorySink sink = new MemorySink();
+        ModuleHandlers handlers = new ModuleHandlers(configuration(100).getModules().values(), sink);
+        Assert.assertEquals(0, handlers.getCreatedCount());
+        Assert.assertEquals(1, handlers.getSinks().size());
+
+        String module = handlers.findModule("com.example.m42.Main");
+        Assert.assertEquals("com.example.m42.*", module);
+        PatternLoggerHandler handler = handlers.get(module);
+        Assert.assertEquals("M42", handler.getTag());
+        Assert.assertSame(sink, handler.getSink());
+        Assert.assertSame(handler, handlers.get(module));
+        Assert.assertEquals(1, handlers.getCreatedCount());
+
+        Assert.assertNull(handlers.get(null));
+        Assert.assertNull(handlers.get(handlers.findModule("org.example.Main")));
+        Assert.assertEquals(1, handlers.getCreatedCount());
+    }
+
+    @Test
+    public void concurrentTest() throws InterruptedException {
+        final ModuleHandlers handlers = new ModuleHandlers(configuration(10).getModules().values(), new MemorySink());
+        final int threadCount = 8;
+        final AtomicReferenceArray<PatternLoggerHandler> results =
+                new AtomicReferenceArray<PatternLoggerHandler>(threadCount);
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            final int index = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    results.set(index, handlers.get("com.example.m7.*"));
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // one handler for all the threads
+        for (int i = 0; i < threadCount; i++) {
+            Assert.assertSame(results.get(0), results.get(i));
+        }
+        Assert.assertEquals(1, handlers.getCreatedCount());
+    }
+
+    @Test
+    public void sharedTest() {
+        Properties properties = new Properties();
+        properties.setProperty("module:com.example.a.*", "D::%level:%caller{-1}:");
+        properties.setProperty("module:com.example.b.*", "D::%level:%caller{-1}:");
+        properties.setProperty("module:com.example.c.*", "D:C:%level:%caller{-1}:");
+        LoggerConfiguration configuration = LoggerConfiguration.parse(properties);
+        ModuleHandlers handlers = new ModuleHandlers(configuration.getModules().values(), new MemorySink());
+        PatternLoggerHandler a = handlers.get("com.example.a.*");
+        Assert.assertSame(a, handlers.get("com.example.b.*"));
+        Assert.assertNotSame(a, handlers.get("com.example.c.*"));
+        // the same pattern is compiled once
+        Assert.assertSame(configuration.getModules().get("com.example.a.*").getCompiledMessagePattern(),
+                configuration.getModules().get("com.example.c.*").getCompiledMessagePattern());
+
+        // a handler by module to count the messages by module
+        LoggerStats.setEnabled(true);
+        try {
+            handlers = new ModuleHandlers(configuration.getModules().values(), new MemorySink());
+            Assert.assertNotSame(handlers.get("com.example.a.*"), handlers.get("com.example.b.*"));
+        } finally {
+            LoggerStats.setEnabled(false);
+        }
+    }
+}
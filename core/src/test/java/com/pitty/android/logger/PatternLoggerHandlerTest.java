@@ -0,0 +1,146 @@
+package com.pitty.android.logger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class PatternLoggerHandlerTest {
+    MemorySink sink = new MemorySink(2);
+
+    @Test
+    public void sinkTest() {
+        PatternLoggerHandler handler = new PatternLoggerHandler(LEVEL.I, "TAG", "%logger", "[%level]", sink);
+
+        handler.print("com.pitty.android", LEVEL.D, null, "hidden");
+        handler.print("com.pitty.android", LEVEL.I, null, "message %d", 1);
+        handler.print(LEVEL.W, null, "second");
+        handler.print(LEVEL.E, null, "third");
+
+        List<LogEvent> events = sink.getEvents();
+        Assert.assertEquals(2, events.size());
+        Assert.assertEquals(LEVEL.W, events.get(0).getLevel());
+        Assert.assertEquals("TAG", events.get(0).getTag());
+        Assert.assertEquals("[W] second", events.get(0).getMessage());
+        Assert.assertEquals("[E] third", events.get(1).getMessage());
+
+        sink.clear();
+        Assert.assertTrue(sink.getEvents().isEmpty());
+    }
+
+    @Test
+    public void sinksTest() {
+        Assert.assertSame(LogSinks.get(LogSinks.MEMORY), LogSinks.get(LogSinks.MEMORY));
+        Assert.assertTrue(LogSinks.get(LogSinks.CONSOLE) instanceof ConsoleSink);
+        Assert.assertTrue(LogSinks.get(MemorySink.class.getName()) instanceof MemorySink);
+        Assert.assertNull(LogSinks.get("unknown"));
+        Assert.assertNotNull(LogSinks.get("console,memory"));
+    }
+
+    @Test
+    public void eventBuilderTest() {
+        PatternLoggerHandler handler = new PatternLoggerHandler(LEVEL.D, "TAG", "%logger", "", sink);
+        Throwable cause = new IllegalStateException();
+
+        HandlerEventBuilder.get(handler, "TAG", LEVEL.D)
+                .add(1).add(2L).add(0.5f).add(0.25).add('c').add(true).add(new int[]{3})
+                .log("{} {} {} {} {} {} {}");
+        HandlerEventBuilder.get(handler, "TAG", LEVEL.W).add("last").setCause(cause).log("{}");
+
+        List<LogEvent> events = sink.getEvents();
+        Assert.assertEquals(2, events.size());
+        Assert.assertEquals("1 2 0.5 0.25 c true [3]", events.get(0).getMessage());
+        Assert.assertSame(cause, events.get(1).getThrowable());
+        Assert.assertTrue(events.get(1).getMessage().startsWith("last\n"));
+    }
+
+    @Test
+    public void abandonedBuilderTest() {
+        MemorySink sink = new MemorySink();
+        PatternLoggerHandler handler = new PatternLoggerHandler(LEVEL.D, "TAG", "%logger", "", sink);
+        LogEventBuilder abandoned = HandlerEventBuilder.get(handler, "TAG", LEVEL.D).add("lost");
+
+        // one new builder, then it is reused
+        LogEventBuilder builder = HandlerEventBuilder.get(handler, "TAG", LEVEL.D);
+        Assert.assertNotSame(abandoned, builder);
+        builder.add(1).log("first {}");
+        Assert.assertSame(builder, HandlerEventBuilder.get(handler, "TAG", LEVEL.D).add(2));
+        builder.log("second {}");
+
+        // a builder used while the arguments of another one are added
+        LogEventBuilder outer = HandlerEventBuilder.get(handler, "TAG", LEVEL.D).add("outer");
+        HandlerEventBuilder.get(handler, "TAG", LEVEL.D).add("inner").log("{}");
+        outer.log("{}");
+
+        List<LogEvent> events = sink.getEvents();
+        Assert.assertEquals(4, events.size());
+        Assert.assertEquals("first 1", events.get(0).getMessage());
+        Assert.assertEquals("second 2", events.get(1).getMessage());
+        Assert.assertEquals("inner", events.get(2).getMessage());
+        Assert.assertEquals("outer", events.get(3).getMessage());
+    }
+
+    @Test
+    public void supplierTest() {
+        PatternLoggerHandler handler = new PatternLoggerHandler(LEVEL.I, "TAG", "%logger", "", sink);
+        final int[] calls = new int[1];
+        LogSupplier supplier = new LogSupplier() {
+            @Override
+            public Object get() {
+                calls[0]++;
+                return "value";
+            }
+        };
+
+        handler.log(null, "TAG", LEVEL.D, null, "hidden {}", supplier);
+        Assert.assertEquals(0, calls[0]);
+
+        handler.log(null, "TAG", LEVEL.I, null, "slf4j {}", supplier);
+        handler.print("TAG", LEVEL.I, null, "format %s", supplier);
+        Assert.assertEquals(2, calls[0]);
+        List<LogEvent> events = sink.getEvents();
+        Assert.assertEquals("slf4j value", events.get(0).getMessage());
+        Assert.assertEquals("format value", events.get(1).getMessage());
+    }
+
+    @Test
+    public void failedSupplierTest() {
+        PatternLoggerHandler handler = new PatternLoggerHandler(LEVEL.I, "TAG", "%logger", "", sink);
+        LogSupplier supplier = new LogSupplier() {
+            @Override
+            public Object get() {
+                throw new IllegalStateException();
+            }
+        };
+
+        // the same marker with both formats, the message is still written
+        handler.log(null, "TAG", LEVEL.I, null, "slf4j {}", supplier);
+        handler.print("TAG", LEVEL.I, null, "format %s", supplier);
+        List<LogEvent> events = sink.getEvents();
+        Assert.assertEquals("slf4j [FAILED get()]", events.get(0).getMessage());
+        Assert.assertEquals("format [FAILED get()]", events.get(1).getMessage());
+    }
+
+    @Test
+    public void bindingTest() {
+        PatternLoggerHandler shared = new PatternLoggerHandler(LEVEL.I, null, null, "", sink);
+        LoggerBinding first = LoggerBinding.create("com.example.First", null, shared);
+        LoggerBinding second = LoggerBinding.create("com.example.Second", "Second", shared);
+        Assert.assertEquals("com.example.First", first.getTag());
+        Assert.assertEquals("Second", second.getTag());
+        Assert.assertTrue(first.isEnabled(LEVEL.I));
+        Assert.assertFalse(first.isEnabled(LEVEL.D));
+
+        first.getHandler().log(null, first.getTag(), LEVEL.I, null, "first");
+        second.getHandler().log(null, second.getTag(), LEVEL.I, null, "second");
+        Assert.assertEquals("com.example.First", sink.getEvents().get(0).getTag());
+        Assert.assertEquals("Second", sink.getEvents().get(1).getTag());
+
+        PatternLoggerHandler tagged = new PatternLoggerHandler(LEVEL.I, "MODULE", null, "", sink);
+        Assert.assertEquals("MODULE", LoggerBinding.create("com.example.First", null, tagged).getTag());
+
+        LoggerBinding closed = LoggerBinding.create("com.example.First", null, null);
+        Assert.assertNull(closed.getHandler());
+        Assert.assertFalse(closed.isEnabled(LEVEL.E));
+    }
+}
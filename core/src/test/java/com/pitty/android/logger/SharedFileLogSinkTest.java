@@ -0,0 +1,158 @@
+package com.pitty.android.logger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SharedFileLogSinkTest {
+    private static final int RECORD_COUNT = 5000;
+    private static final String PAYLOAD = "0123456789abcdefghijklmnopqrstuvwxyz0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final long SEGMENT_SIZE = 64 * 1024;
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("logs", "");
+        directory.delete();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (null != files) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    /**
+     * Writes the records of one process: "seq=N PAYLOAD", the second line of every tenth one is "line 2".
+     * Prints the lock wait, the count of batches and the time.
+     */
+    public static final class Writer {
+        public static void main(String[] args) {
+            File directory = new File(args[0]);
+            String tag = args[1];
+            int count = Integer.parseInt(args[2]);
+            SharedFileLogSink sink = new SharedFileLogSink(directory, "app", SEGMENT_SIZE, 1000, 1024, 0);
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                String message = "seq=" + i + " " + PAYLOAD + (i % 10 == 0 ? "\nline 2" : "");
+                sink.write(LEVEL.I, tag, message, new LogEvent(System.currentTimeMillis(), LEVEL.I, "logger", tag,
+                        message, null, null));
+            }
+            sink.close();
+            System.out.println(sink.getLockWaitNanos() + " " + sink.getBatchCount() + " " + (System.nanoTime() - start));
+        }
+    }
+
+    private static List<Process> startWriters(File directory, int processCount) throws IOException {
+        String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+        List<Process> processes = new ArrayList<Process>();
+        for (int i = 0; i < processCount; i++) {
+            processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    Writer.class.getName(), directory.getPath(), "P" + i, String.valueOf(RECORD_COUNT))
+                    .redirectErrorStream(true).start());
+        }
+        return processes;
+    }
+
+    /**
+     * Waits for the writers and returns the average lock wait by batch in microseconds.
+     */
+    private static double waitFor(List<Process> processes) throws IOException, InterruptedException {
+        long lockWaitNanos = 0;
+        long batchCount = 0;
+        for (Process process : processes) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"));
+            String line = reader.readLine();
+            reader.close();
+            Assert.assertEquals(0, process.waitFor());
+            String[] values = line.split(" ");
+            lockWaitNanos += Long.parseLong(values[0]);
+            batchCount += Long.parseLong(values[1]);
+        }
+        return lockWaitNanos / 1000.0 / batchCount;
+    }
+
+    @Test
+    public void processesTest() throws IOException, InterruptedException {
+        int processCount = 4;
+        File single = new File(directory, "single");
+        double singleWait = waitFor(startWriters(single, 1));
+        double sharedWait = waitFor(startWriters(directory, processCount));
+        System.out.println(String.format("lock wait by batch: %.1f us with 1 process, %.1f us with %d processes",
+                singleWait, sharedWait, processCount));
+
+        // the segments were rotated between the processes
+        List<File> segments = FileLogSink.listSegments(directory, "app");
+        Assert.assertTrue(segments.size() > 5);
+        for (File segment : segments) {
+            Assert.assertTrue(segment.length() <= SEGMENT_SIZE);
+        }
+
+        // every record is complete, the records of a process are in order
+        int[] next = new int[processCount];
+        List<LogFileReader.Record> records = new LogFileReader(directory, "app").search(0, Long.MAX_VALUE, null, null);
+        Assert.assertEquals(processCount * RECORD_COUNT, records.size());
+        for (LogFileReader.Record record : records) {
+            int process = Integer.parseInt(record.getTag().substring(1));
+            int sequence = next[process]++;
+            String expected = "seq=" + sequence + " " + PAYLOAD + (sequence % 10 == 0 ? "\nline 2" : "");
+            Assert.assertEquals(expected, record.getMessage());
+        }
+        for (int count : next) {
+            Assert.assertEquals(RECORD_COUNT, count);
+        }
+        for (File file : single.listFiles()) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void reopenTest() throws IOException, InterruptedException {
+        SharedFileLogSink sink = new SharedFileLogSink(directory, "app", SEGMENT_SIZE, 10, 1024 * 1024, 20);
+        sink.write(LEVEL.I, "A", "first", new LogEvent(1000, LEVEL.I, "logger", "A", "first", null, null));
+        sink.close();
+        // the periodic flush is restarted by the next record
+        sink.write(LEVEL.I, "A", "second", new LogEvent(2000, LEVEL.I, "logger", "A", "second", null, null));
+        LogFileReader reader = new LogFileReader(sink);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (reader.search(0, Long.MAX_VALUE, null, null).size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Assert.assertEquals(2, reader.search(0, Long.MAX_VALUE, null, null).size());
+        sink.close();
+    }
+
+    @Test
+    public void flushTest() throws IOException {
+        SharedFileLogSink sink = new SharedFileLogSink(directory, "app", SEGMENT_SIZE, 10, 1024 * 1024, 0);
+        SharedFileLogSink other = new SharedFileLogSink(directory, "app", SEGMENT_SIZE, 10, 1024 * 1024, 0);
+        sink.write(LEVEL.W, "A", "first", new LogEvent(1000, LEVEL.W, "logger", "A", "first", null, null));
+        other.write(LEVEL.W, "B", "second", new LogEvent(2000, LEVEL.W, "logger", "B", "second", null, null));
+        // nothing is written before the batch is full or flushed
+        Assert.assertTrue(new LogFileReader(directory, "app").search(0, Long.MAX_VALUE, null, null).isEmpty());
+        other.flush();
+        sink.flush();
+        List<LogFileReader.Record> records = new LogFileReader(directory, "app").search(0, Long.MAX_VALUE, null, null);
+        Assert.assertEquals(2, records.size());
+        Assert.assertEquals("second", records.get(0).getMessage());
+        Assert.assertEquals("first", records.get(1).getMessage());
+        // the index entries of the batches are used
+        Assert.assertEquals(1, new LogFileReader(directory, "app").search(1000, 1000, LEVEL.W, null).size());
+        sink.close();
+        other.close();
+    }
+}
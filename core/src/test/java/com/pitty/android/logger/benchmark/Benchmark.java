@@ -0,0 +1,59 @@
+package com.pitty.android.logger.benchmark;
+
+/**
+ * A minimal benchmark runner, good enough to compare implementations
+ * with each other. Use a real profiler to analyse the results.
+ */
+public abstract class Benchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURE_ROUNDS = 10;
+
+    private final String name;
+    private final int operations;
+
+    /**
+     * Creates new {@link Benchmark}.
+     *
+     * @param name       the name printed with the result.
+     * @param operations count of operations in one round.
+     */
+    protected Benchmark(String name, int operations) {
+        this.name = name;
+        this.operations = operations;
+    }
+
+    /**
+     * Runs one operation.
+     *
+     * @param index the index of the operation in the round.
+     */
+    protected abstract void operation(int index);
+
+    /**
+     * Runs the benchmark and prints the best and the average time of one operation.
+     *
+     * @return the best time of one operation in nanoseconds.
+     */
+    public double run() {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            round();
+        }
+        double best = Double.MAX_VALUE;
+        double total = 0;
+        for (int round = 0; round < MEASURE_ROUNDS; round++) {
+            double time = round();
+            best = Math.min(best, time);
+            total += time;
+        }
+        System.out.println(String.format("%-40s %10.1f ns/op (avg %.1f)", name, best, total / MEASURE_ROUNDS));
+        return best;
+    }
+
+    private double round() {
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            operation(i);
+        }
+        return (double) (System.nanoTime() - start) / operations;
+    }
+}
@@ -0,0 +1,139 @@
+package com.pitty.android.logger.benchmark;
+
+import com.pitty.android.logger.AbstractLogSink;
+import com.pitty.android.logger.HandlerEventBuilder;
+import com.pitty.android.logger.LEVEL;
+import com.pitty.android.logger.LogEvent;
+import com.pitty.android.logger.LoggerPattern;
+import com.pitty.android.logger.MessageTemplateCache;
+import com.pitty.android.logger.PatternLoggerHandler;
+import org.slf4j.helpers.MessageFormatter;
+
+/**
+ * Benchmarks of the pattern engine and the handler pipeline on the JVM.
+ */
+public class HandlerBenchmark {
+    private static final int OPERATIONS = 200000;
+    private static final String LOGGER_NAME = "com.pitty.android.logger.benchmark.HandlerBenchmark";
+
+    /**
+     * Consumes messages without printing them.
+     */
+    private static class BlackholeSink extends AbstractLogSink {
+        int length;
+
+        @Override
+        public void write(LEVEL level, String tag, String message, LogEvent event) {
+            length += tag.length() + message.length();
+        }
+    }
+
+    public static void main(String[] args) {
+        final LoggerPattern plain = LoggerPattern.compile("%level %logger{-1}");
+        final LoggerPattern date = LoggerPattern.compile("%d{HH:mm:ss.SSS} %5level %-30(%logger{.-25})");
+        final LoggerPattern caller = LoggerPattern.compile("%caller{-2} %source");
+
+        new Benchmark("pattern: level logger", OPERATIONS) {
+            @Override
+            protected void operation(int index) {
+                plain.apply(null, LOGGER_NAME, LEVEL.D);
+            }
+        }.run();
+        new Benchmark("pattern: date level group", OPERATIONS) {
+            @Override
+            protected void operation(int index) {
+                date.apply(null, LOGGER_NAME, LEVEL.D);
+            }
+        }.run();
+        final StackTraceElement element = new StackTraceElement(LOGGER_NAME, "main", "HandlerBenchmark.java", 42);
+        new Benchmark("pattern: caller source", OPERATIONS) {
+            @Override
+            protected void operation(int index) {
+                caller.apply(element, LOGGER_NAME, LEVEL.D);
+            }
+        }.run();
+
+        // the same patterns run by the flat program
+        final StringBuilder builder = new StringBuilder();
+        new Benchmark("program: level logger", OPERATIONS) {
+            @Override
+            protected void operation(int index) {
+                builder.setLength(0);
+                plain.appendTo(builder, null, LOGGER_NAME, LEVEL.D);
+            }
+        }.run();
+        new Benchmark("program: date level group", OPERATIONS) {
+            @Override
+            protected void operation(int index) {
+                builder.setLength(0);
+                date.appendTo(builder, null, LOGGER_NAME, LEVEL.D);
+            }
+        }.run();
+        new Benchmark("program: caller source", OPERATIONS) {
+            @Override
+            protected void operation(int index) {
+                builder.setLength(0);
+                caller.appendTo(builder, element, LOGGER_NAME, LEVEL.D);
+            }
+        }.run();
+
+        BlackholeSink sink = new BlackholeSink();
+        final PatternLoggerHandler disabled = new PatternLoggerHandler(LEVEL.I, "TAG", null, "%d %level", sink);
+        final PatternLoggerHandler simple = new PatternLoggerHandler(LEVEL.V, "TAG", null, "%d %level", sink);
+        final PatternLoggerHandler callerHandler = new PatternLoggerHandler(LEVEL.V, "TAG", null, "%caller", sink);
+
+        new Benchmark("handler: disabled level", OPERATIONS) {
+            @Override
+            protected void operation(int index) {
+                disabled.print(LOGGER_NAME, LEVEL.D, null, "message %d", index);
+            }
+        }.run();
+        new Benchmark("handler: date level", OPERATIONS) {
+            @Override
+            protected void operation(int index) {
+                simple.print(LOGGER_NAME, LEVEL.D, null, "message");
+            }
+        }.run();
+        new Benchmark("handler: caller", OPERATIONS / 10) {
+            @Override
+            protected void operation(int index) {
+                callerHandler.print(LOGGER_NAME, LEVEL.D, null, "message");
+            }
+        }.run();
+        final String format = "rtt={} seq={} peer={}";
+        final Object[] arguments = {12, 34L, "10.0.0.1"};
+        new Benchmark("format: MessageFormatter", OPERATIONS) {
+            @Override
+            protected void operation(int index) {
+                MessageFormatter.arrayFormat(format, arguments).getMessage();
+            }
+        }.run();
+        new Benchmark("format: cached template", OPERATIONS) {
+            @Override
+            protected void operation(int index) {
+                builder.setLength(0);
+                MessageTemplateCache.getDefault().get(format).render(builder, arguments);
+            }
+        }.run();
+        new Benchmark("handler: slf4j format", OPERATIONS) {
+            @Override
+            protected void operation(int index) {
+                simple.log(null, LOGGER_NAME, LEVEL.D, null, format, arguments);
+            }
+        }.run();
+        new Benchmark("handler: boxed arguments", OPERATIONS) {
+            @Override
+            protected void operation(int index) {
+                simple.log(null, LOGGER_NAME, LEVEL.D, null, "rtt={} seq={}", index, (long) index);
+            }
+        }.run();
+        new Benchmark("handler: event builder", OPERATIONS) {
+            @Override
+            protected void operation(int index) {
+                HandlerEventBuilder.get(simple, LOGGER_NAME, LEVEL.D).add(index).add((long) index).log("rtt={} seq={}");
+            }
+        }.run();
+        System.out.println(MessageTemplateCache.getDefault());
+        System.out.println("(" + sink.length + " chars rendered)");
+    }
+}
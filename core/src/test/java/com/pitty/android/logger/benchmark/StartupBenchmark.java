@@ -0,0 +1,78 @@
+package com.pitty.android.logger.benchmark;
+
+import com.pitty.android.logger.AbstractLogSink;
+import com.pitty.android.logger.LEVEL;
+import com.pitty.android.logger.LogEvent;
+import com.pitty.android.logger.LoggerBinding;
+import com.pitty.android.logger.LoggerConfiguration;
+import com.pitty.android.logger.ModuleHandlers;
+import com.pitty.android.logger.PatternLoggerHandler;
+
+import java.util.Properties;
+
+/**
+ * Time to the first message with many configured modules: the config is parsed, the logger
+ * resolved to its module and one message printed, the way the first logger of an app does.
+ * <p/>
+ * The JVM is warm after the first rounds, the times are lower than on a cold start
+ * but the lazy and the eager creation of the handlers compare the same.
+ */
+public class StartupBenchmark {
+    private static final String LOGGER_NAME = "com.example.m0.MainActivity";
+
+    /**
+     * Consumes messages without printing them.
+     */
+    private static class BlackholeSink extends AbstractLogSink {
+        int length;
+
+        @Override
+        public void write(LEVEL level, String tag, String message, LogEvent event) {
+            length += tag.length() + message.length();
+        }
+    }
+
+    private static Properties properties(int count) {
+        Properties properties = new Properties();
+        properties.setProperty("root", "D");
+        for (int i = 0; i < count; i++) {
+            properties.setProperty("module:com.example.m" + i + ".*",
+                    "D:M" + i + ":%d{HH:mm:ss}%-5level:[%-20logger{-1}] %caller{-2.30} %source:");
+        }
+        return properties;
+    }
+
+    public static void main(String[] args) {
+        final BlackholeSink sink = new BlackholeSink();
+        for (int count : new int[]{10, 100, 1000}) {
+            final Properties properties = properties(count);
+            int operations = Math.max(5, 2000 / count);
+            new Benchmark("first log: " + count + " modules, lazy", operations) {
+                @Override
+                protected void operation(int index) {
+                    LoggerConfiguration configuration = LoggerConfiguration.parse(properties);
+                    ModuleHandlers handlers = new ModuleHandlers(configuration.getModules().values(), sink);
+                    firstLog(handlers.get(handlers.findModule(LOGGER_NAME)));
+                }
+            }.run();
+            new Benchmark("first log: " + count + " modules, eager", operations) {
+                @Override
+                protected void operation(int index) {
+                    LoggerConfiguration configuration = LoggerConfiguration.parse(properties);
+                    ModuleHandlers handlers = new ModuleHandlers(configuration.getModules().values(), sink);
+                    for (LoggerConfiguration.Module module : configuration.getModules().values()) {
+                        handlers.get(module.getName());
+                    }
+                    firstLog(handlers.get(handlers.findModule(LOGGER_NAME)));
+                }
+            }.run();
+        }
+    }
+
+    private static void firstLog(PatternLoggerHandler handler) {
+        LoggerBinding binding = LoggerBinding.create(LOGGER_NAME, null, handler);
+        if (binding.isEnabled(LEVEL.I)) {
+            binding.getHandler().print(binding.getTag(), LEVEL.I, null, "started");
+        }
+    }
+}
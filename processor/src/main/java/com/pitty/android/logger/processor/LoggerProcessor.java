@@ -0,0 +1,231 @@
+package com.pitty.android.logger.processor;
+
+import com.pitty.android.logger.LoggerConfiguration;
+import com.pitty.android.logger.Logged;
+import com.pitty.android.logger.Utils;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.Trees;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates the logger bindings of the classes annotated with {@link Logged}.
+ * <p/>
+ * The tag and the config module of the logger are computed at compile time,
+ * the same way the runtime does. The config module is resolved only if the option
+ * {@value #OPTION_CONFIG} points to the config file, e.g.
+ * {@code -Aandroidlogger.config=src/main/assets/android-logger.properties}.
+ * <p/>
+ * Line numbers of the call sites are found with the javac tree API.
+ * With other compilers they are unknown (-1).
+ */
+@SupportedAnnotationTypes("com.pitty.android.logger.Logged")
+@SupportedOptions(LoggerProcessor.OPTION_CONFIG)
+public class LoggerProcessor extends AbstractProcessor {
+    public static final String OPTION_CONFIG = "androidlogger.config";
+    // suffix of the generated class names
+    private static final String SUFFIX = "Logger";
+    // names of the generated fields which call sites must not use
+    private static final Set<String> RESERVED_NAMES = new HashSet<String>();
+
+    static {
+        Collections.addAll(RESERVED_NAMES, "NAME", "TAG", "HANDLER_KEY", "LOG");
+    }
+
+    private Trees trees;
+    private Map<String, LoggerConfiguration.Module> modules;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        try {
+            trees = Trees.instance(processingEnv);
+        } catch (IllegalArgumentException e) {
+            // not javac
+            trees = null;
+        }
+        String config = processingEnv.getOptions().get(OPTION_CONFIG);
+        if (config != null) {
+            try {
+                modules = loadModules(config);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                        "cannot read " + config + ", handler keys are resolved at runtime: " + e);
+            }
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Logged.class)) {
+            if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.ENUM) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "@Logged can only be applied to classes", element);
+                continue;
+            }
+            try {
+                generate((TypeElement) element);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "cannot generate the logger: " + e, element);
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String loggerName = type.getAnnotation(Logged.class).value();
+        if (loggerName.length() == 0) {
+            loggerName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        }
+        String handlerKey = modules == null ? null : LoggerConfiguration.findModule(modules, loggerName);
+        String simpleName = generatedName(type);
+        String fileName = sourceFileName(type);
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("// Generated by ").append(LoggerProcessor.class.getName()).append(", do not edit.\n");
+        if (packageName.length() > 0) {
+            builder.append("package ").append(packageName).append(";\n\n");
+        }
+        builder.append("import com.pitty.android.logger.AndroidLogger;\n")
+                .append("import com.pitty.android.logger.CallSite;\n")
+                .append("import org.slf4j.impl.AndroidLoggerFactory;\n")
+                .append("import org.slf4j.impl.StaticLoggerBinder;\n\n")
+                .append("public final class ").append(simpleName).append(" {\n")
+                .append("    public static final String NAME = ").append(literal(loggerName)).append(";\n")
+                .append("    public static final String TAG = ").append(literal(Utils.loggerNameToTag(loggerName))).append(";\n")
+                .append("    public static final String HANDLER_KEY = ").append(literal(handlerKey)).append(";\n")
+                .append("    public static final AndroidLogger LOG = ((AndroidLoggerFactory) StaticLoggerBinder.getSingleton()\n")
+                .append("            .getLoggerFactory()).getLogger(NAME, TAG, HANDLER_KEY);\n\n");
+
+        Set<String> fieldNames = new HashSet<String>(RESERVED_NAMES);
+        for (Element enclosed : type.getEnclosedElements()) {
+            if (enclosed.getKind() != ElementKind.METHOD && enclosed.getKind() != ElementKind.CONSTRUCTOR) {
+                continue;
+            }
+            ExecutableElement method = (ExecutableElement) enclosed;
+            String methodName = method.getSimpleName().toString();
+            String fieldName = enclosed.getKind() == ElementKind.CONSTRUCTOR ? "init" : methodName;
+            if (fieldNames.contains(fieldName)) {
+                int index = 2;
+                while (fieldNames.contains(fieldName + "_" + index)) {
+                    index++;
+                }
+                fieldName = fieldName + "_" + index;
+            }
+            fieldNames.add(fieldName);
+            builder.append("    public static final CallSite ").append(fieldName)
+                    .append(" = new CallSite(NAME, ").append(literal(methodName))
+                    .append(", ").append(literal(fileName))
+                    .append(", ").append(lineNumber(method)).append(");\n");
+        }
+        builder.append("\n    private ").append(simpleName).append("() {\n    }\n}\n");
+
+        String qualifiedName = packageName.length() > 0 ? packageName + "." + simpleName : simpleName;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+        Writer writer = file.openWriter();
+        try {
+            writer.write(builder.toString());
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Returns the name of the generated class: the names of the class and the enclosing classes
+     * joined by '_', with the suffix.
+     */
+    private static String generatedName(TypeElement type) {
+        StringBuilder builder = new StringBuilder(type.getSimpleName());
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing.getKind().isClass() || enclosing.getKind().isInterface()) {
+            builder.insert(0, '_').insert(0, enclosing.getSimpleName());
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return builder.append(SUFFIX).toString();
+    }
+
+    private String sourceFileName(TypeElement type) {
+        if (trees != null) {
+            TreePath path = trees.getPath(type);
+            if (path != null) {
+                String name = path.getCompilationUnit().getSourceFile().getName();
+                int index = Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\'));
+                return name.substring(index + 1);
+            }
+        }
+        // the name of the top level class by convention
+        Element element = type;
+        while (element.getEnclosingElement().getKind().isClass() || element.getEnclosingElement().getKind().isInterface()) {
+            element = element.getEnclosingElement();
+        }
+        return element.getSimpleName() + ".java";
+    }
+
+    private int lineNumber(ExecutableElement method) {
+        if (trees == null) {
+            return -1;
+        }
+        TreePath path = trees.getPath(method);
+        if (path == null) {
+            return -1;
+        }
+        CompilationUnitTree unit = path.getCompilationUnit();
+        long position = trees.getSourcePositions().getStartPosition(unit, path.getLeaf());
+        return position < 0 ? -1 : (int) unit.getLineMap().getLineNumber(position);
+    }
+
+    private static String literal(String string) {
+        if (string == null) {
+            return "null";
+        }
+        StringBuilder builder = new StringBuilder(string.length() + 2).append('"');
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\');
+            }
+            builder.append(c);
+        }
+        return builder.append('"').toString();
+    }
+
+    private static Map<String, LoggerConfiguration.Module> loadModules(String path) throws IOException {
+        Properties properties = new Properties();
+        InputStream in = new FileInputStream(path);
+        try {
+            properties.load(in);
+        } finally {
+            in.close();
+        }
+        return LoggerConfiguration.parse(properties).getModules();
+    }
+}
@@ -0,0 +1,122 @@
+package com.pitty.android.logger.processor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+public class LoggerProcessorTest {
+    String source = "package com.example;\n"
+            + "\n"
+            + "@com.pitty.android.logger.Logged\n"
+            + "public class Sample {\n"
+            + "    void onCreate() {\n"
+            + "    }\n"
+            + "\n"
+            + "    void onCreate(int state) {\n"
+            + "    }\n"
+            + "\n"
+            + "    static class Inner {\n"
+            + "    }\n"
+            + "}\n";
+
+    // the binding API of the generated code, which is in the Android module
+    String[][] stubs = {
+            {"com/pitty/android/logger/AndroidLogger.java",
+                    "package com.pitty.android.logger;\n"
+                            + "public interface AndroidLogger {\n"
+                            + "}\n"},
+            {"org/slf4j/impl/AndroidLoggerFactory.java",
+                    "package org.slf4j.impl;\n"
+                            + "public class AndroidLoggerFactory {\n"
+                            + "    public com.pitty.android.logger.AndroidLogger getLogger(String name, String tag, String handlerKey) {\n"
+                            + "        return null;\n"
+                            + "    }\n"
+                            + "}\n"},
+            {"org/slf4j/impl/StaticLoggerBinder.java",
+                    "package org.slf4j.impl;\n"
+                            + "public class StaticLoggerBinder {\n"
+                            + "    public static StaticLoggerBinder getSingleton() {\n"
+                            + "        return null;\n"
+                            + "    }\n"
+                            + "    public Object getLoggerFactory() {\n"
+                            + "        return null;\n"
+                            + "    }\n"
+                            + "}\n"},
+    };
+
+    @Test
+    public void generateTest() throws IOException {
+        File dir = createTempDir();
+        File config = new File(dir, "android-logger.properties");
+        FileWriter writer = new FileWriter(config);
+        writer.write("module\\:com.example.* = D\n");
+        writer.close();
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<JavaFileObject> files = new ArrayList<JavaFileObject>();
+        files.add(sourceFile("com/example/Sample.java", source));
+        for (String[] stub : stubs) {
+            files.add(sourceFile(stub[0], stub[1]));
+        }
+        Boolean success = compiler.getTask(null, null, null,
+                Arrays.asList("-proc:only", "-s", dir.getPath(),
+                        "-classpath", System.getProperty("java.class.path"),
+                        "-A" + LoggerProcessor.OPTION_CONFIG + "=" + config.getPath()),
+                null, files).call();
+        Assert.assertTrue(success);
+
+        String generated = read(new File(dir, "com/example/SampleLogger.java"));
+        Assert.assertTrue(generated, generated.contains("package com.example;"));
+        Assert.assertTrue(generated, generated.contains("public final class SampleLogger {"));
+        Assert.assertTrue(generated, generated.contains("NAME = \"com.example.Sample\";"));
+        Assert.assertTrue(generated, generated.contains("TAG = \"com.example.Sample\";"));
+        Assert.assertTrue(generated, generated.contains("HANDLER_KEY = \"com.example.*\";"));
+        Assert.assertTrue(generated, generated.contains(
+                "onCreate = new CallSite(NAME, \"onCreate\", \"Sample.java\", 5);"));
+        Assert.assertTrue(generated, generated.contains(
+                "onCreate_2 = new CallSite(NAME, \"onCreate\", \"Sample.java\", 8);"));
+    }
+
+    private static JavaFileObject sourceFile(String path, final String content) {
+        return new SimpleJavaFileObject(URI.create("string:///" + path), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return content;
+            }
+        };
+    }
+
+    private static File createTempDir() throws IOException {
+        File dir = File.createTempFile("processor", "");
+        Assert.assertTrue(dir.delete() && dir.mkdirs());
+        return dir;
+    }
+
+    private static String read(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] bytes = new byte[(int) file.length()];
+            int offset = 0;
+            while (offset < bytes.length) {
+                offset += in.read(bytes, offset, bytes.length - offset);
+            }
+            return new String(bytes, "UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+}
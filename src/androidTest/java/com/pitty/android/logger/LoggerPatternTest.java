@@ -101,5 +101,79 @@ public class LoggerPatternTest {
                 "HH:mm:ss DEBUG                      com.pitty.android PatternTest#<init>:15:\n".substring(8),
                 compiler.compile("%d{HH:mm:ss} %5level %60(%logger{30.30} %caller{-2.20}):%n").apply(caller, loggerName, level).substring(8));
     }
-}
 
+    @Test
+    public void programTest() {
+        StackTraceElement element = new StackTraceElement("com.pitty.android.logger.Main", "run", "Main.java", 42);
+        StackTraceElement unknown = new StackTraceElement("com.pitty.android.logger.Main", "run", null, -1);
+        String[] patterns = {"", "plain", "%%%n%%", "%level", "%5level|%-5level|%.-1level|%5.1p",
+                "%logger %c{1} %logger{-1} %.8logger %20.-8logger{.20} %-30logger",
+                "%caller %C{2} %caller{-2.-20} %caller{.+20} %.10caller %30caller",
+                "%source %s %10.5source", "%d{yyyy}-%date{yyyy}", "%12(%level:%logger{1}) %-12.5(%source %level)",
+                "%8(%4(%level)|%.-2(%logger))", "%thread %t %-20thread %.3t [%tid] %5tid",
+                "%d{HH:mm:ss} %5level %60(%logger{30.30} %caller{-2.20}):%n"};
+        LoggerPattern.Compiler compiler = new LoggerPattern.Compiler();
+        for (String string : patterns) {
+            LoggerPattern pattern = compiler.compile(string);
+            for (StackTraceElement caller : new StackTraceElement[]{element, unknown}) {
+                for (LEVEL level : new LEVEL[]{LEVEL.D, LEVEL.E}) {
+                    StringBuilder builder = new StringBuilder("head");
+                    pattern.appendTo(builder, caller, loggerName, level);
+                    Assert.assertEquals(string, "head" + pattern.apply(caller, loggerName, level), builder.toString());
+                }
+            }
+        }
+        // the literals are merged into one instruction
+        Assert.assertEquals(2, compiler.compile("a%%b%nc").getProgram().getCode().length);
+
+        try {
+            compiler.compile("%caller").appendTo(new StringBuilder(), null, loggerName, level);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // the tree throws too
+        }
+    }
+
+    @Test
+    public void threadTest() throws InterruptedException {
+        LoggerPattern.Compiler compiler = new LoggerPattern.Compiler();
+        final LoggerPattern pattern = compiler.compile("%thread|%tid|%-8.4t|[%5tid]");
+        String id = String.valueOf(Thread.currentThread().getId());
+        String name = Thread.currentThread().getName();
+        String expected = name + "|" + id + "|" + Utils.shorten(name, -8, 4) + "|[" + Utils.shorten(id, 5, 0) + "]";
+        Assert.assertEquals(expected, pattern.apply(caller, loggerName, level));
+        StringBuilder builder = new StringBuilder();
+        pattern.appendTo(builder, caller, loggerName, level);
+        Assert.assertEquals(expected, builder.toString());
+
+        // the cached name follows a rename, every thread has its own
+        final String[] names = new String[2];
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                names[0] = compiler().compile("%thread").apply(null, null, LEVEL.D);
+                Thread.currentThread().setName("renamed");
+                names[1] = compiler().compile("%t").apply(null, null, LEVEL.D);
+            }
+        }, "worker");
+        thread.start();
+        thread.join();
+        Assert.assertEquals("worker", names[0]);
+        Assert.assertEquals("renamed", names[1]);
+        Assert.assertEquals(name, compiler.compile("%thread").apply(caller, loggerName, level));
+
+        // the relative time is monotonic
+        LoggerPattern relative = compiler.compile("%relative");
+        long first = Long.parseLong(relative.apply(caller, loggerName, level));
+        Thread.sleep(20);
+        builder.setLength(0);
+        relative.appendTo(builder, caller, loggerName, level);
+        long second = Long.parseLong(builder.toString());
+        Assert.assertTrue(first >= 0 && second >= first + 20);
+        Assert.assertTrue(Long.parseLong(compiler.compile("%r").apply(caller, loggerName, level)) >= second);
+    }
+
+    private static LoggerPattern.Compiler compiler() {
+        return new LoggerPattern.Compiler();
+    }
+}
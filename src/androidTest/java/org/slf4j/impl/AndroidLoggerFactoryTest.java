@@ -0,0 +1,66 @@
+package org.slf4j.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AndroidLoggerFactoryTest {
+    private static final int LOGGER_COUNT = 20000;
+
+    private static long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // the lowest of a few collections
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(20);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    private static String name(int index) {
+        return "com.example.footprint.p" + (index % 100) + ".Class" + index;
+    }
+
+    /**
+     * Reports the bytes retained per logger: the adapter, its binding, its map entry and its name.
+     */
+    @Test
+    public void footprintTest() throws InterruptedException {
+        AndroidLoggerFactory factory = new AndroidLoggerFactory(null);
+        List<Logger> loggers = new ArrayList<Logger>(LOGGER_COUNT);
+        long before = usedMemory();
+        for (int i = 0; i < LOGGER_COUNT; i++) {
+            loggers.add(factory.getLogger(name(i)));
+        }
+        long after = usedMemory();
+        double bytesPerLogger = (double) (after - before) / LOGGER_COUNT;
+        System.out.println(String.format("retained per logger: %.0f bytes", bytesPerLogger));
+        Assert.assertEquals(LOGGER_COUNT, factory.size());
+        Assert.assertSame(loggers.get(42), factory.getLogger(name(42)));
+        Assert.assertTrue(bytesPerLogger < 1024);
+    }
+
+    @Test
+    public void weakTest() throws InterruptedException {
+        AndroidLoggerFactory factory = new AndroidLoggerFactory(AndroidLoggerFactory.REFERENCES_WEAK);
+        Logger kept = factory.getLogger(name(0));
+        for (int i = 1; i < 1000; i++) {
+            factory.getLogger(name(i));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (factory.size() > 1 && System.currentTimeMillis() < deadline) {
+            usedMemory();
+        }
+        // the loggers not referenced are collected, the other one is still returned
+        Assert.assertEquals(1, factory.size());
+        Assert.assertSame(kept, factory.getLogger(name(0)));
+        // a collected logger is created again
+        Assert.assertNotNull(factory.getLogger(name(1)));
+        Assert.assertEquals(2, factory.size());
+    }
+}
@@ -0,0 +1,220 @@
+package org.slf4j.impl;
+
+import com.pitty.android.logger.AbstractLogSink;
+import com.pitty.android.logger.LEVEL;
+import com.pitty.android.logger.LogEvent;
+import com.pitty.android.logger.LoggerBinding;
+import com.pitty.android.logger.PatternLoggerHandler;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Drives 1..N threads through {@link AndroidLoggerAdapter}, checks every message written
+ * and reports the throughput and the latency by thread count.
+ * <p/>
+ * Run {@link #main(String[])} for a longer run.
+ */
+public class AndroidLoggerStressTest {
+    private static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss.SSS";
+    private static final String TAG = "STRESS";
+
+    /**
+     * Checks the messages as they are written: the date, the level, the tag
+     * and the order of the messages of every thread.
+     */
+    private static class CheckingSink extends AbstractLogSink {
+        private final ThreadLocal<SimpleDateFormat> dateFormat = new ThreadLocal<SimpleDateFormat>() {
+            @Override
+            protected SimpleDateFormat initialValue() {
+                return new SimpleDateFormat(DATE_FORMAT);
+            }
+        };
+        private final long start = System.currentTimeMillis();
+        private final int[] lastSequences;
+        final AtomicInteger count = new AtomicInteger();
+        final AtomicReference<String> error = new AtomicReference<String>();
+
+        CheckingSink(int threads) {
+            lastSequences = new int[threads];
+            Arrays.fill(lastSequences, -1);
+        }
+
+        @Override
+        public void write(LEVEL level, String tag, String message, LogEvent event) {
+            count.incrementAndGet();
+            try {
+                check(level, tag, message);
+            } catch (RuntimeException e) {
+                // the handler would swallow it
+                fail("corrupted message: " + message + " " + e);
+            }
+        }
+
+        private void check(LEVEL level, String tag, String message) {
+            // "2014-10-24 10:20:30.456 D thread=1 sequence=2"
+            String date = message.substring(0, DATE_FORMAT.length());
+            try {
+                Date parsed = dateFormat.get().parse(date);
+                if (!date.equals(dateFormat.get().format(parsed))
+                        || parsed.getTime() < start - 1000 || parsed.getTime() > System.currentTimeMillis() + 1000) {
+                    fail("corrupted date: " + message);
+                    return;
+                }
+            } catch (ParseException e) {
+                fail("corrupted date: " + message);
+                return;
+            }
+            if (!TAG.equals(tag) || level != LEVEL.D) {
+                fail("wrong tag or level: " + tag + " " + level);
+                return;
+            }
+            String[] parts = message.substring(DATE_FORMAT.length() + 1).split(" ");
+            if (parts.length != 3 || !"D".equals(parts[0])
+                    || !parts[1].startsWith("thread=") || !parts[2].startsWith("sequence=")) {
+                fail("corrupted message: " + message);
+                return;
+            }
+            int thread = Integer.parseInt(parts[1].substring("thread=".length()));
+            int sequence = Integer.parseInt(parts[2].substring("sequence=".length()));
+            // only the thread itself writes its slot
+            if (sequence != lastSequences[thread] + 1) {
+                fail("thread " + thread + " wrote " + sequence + " after " + lastSequences[thread]);
+            }
+            lastSequences[thread] = sequence;
+        }
+
+        private void fail(String message) {
+            error.compareAndSet(null, message);
+        }
+    }
+
+    /**
+     * The result of a run with a thread count.
+     */
+    private static class Result {
+        final int threads;
+        final long operations;
+        final long elapsedNanos;
+        final long[] latencies;
+
+        Result(int threads, long operations, long elapsedNanos, long[] latencies) {
+            this.threads = threads;
+            this.operations = operations;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+        }
+
+        long percentile(double percentile) {
+            return latencies[(int) Math.min(latencies.length - 1, Math.ceil(latencies.length * percentile) - 1)];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%3d threads %12.0f ops/s   p50 %8d ns   p99 %8d ns   max %10d ns",
+                    threads, operations * 1e9 / elapsedNanos, percentile(0.50), percentile(0.99),
+                    latencies[latencies.length - 1]);
+        }
+    }
+
+    private static Result run(final int threads, final int operations) throws InterruptedException {
+        final CheckingSink sink = new CheckingSink(threads);
+        final AndroidLoggerAdapter logger = new AndroidLoggerAdapter(LoggerBinding.create("com.example.Stress", null,
+                new PatternLoggerHandler(LEVEL.D, TAG, null, "%d{" + DATE_FORMAT + "} %level", sink)));
+        final long[][] latencies = new long[threads][operations];
+        final CountDownLatch ready = new CountDownLatch(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            final int thread = i;
+            new Thread("stress-" + i) {
+                @Override
+                public void run() {
+                    long[] threadLatencies = latencies[thread];
+                    ready.countDown();
+                    try {
+                        start.await();
+                        for (int j = 0; j < operations; j++) {
+                            long begin = System.nanoTime();
+                            logger.debug("thread={} sequence={}", thread, j);
+                            threadLatencies[j] = System.nanoTime() - begin;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+        ready.await();
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+
+        Assert.assertNull(sink.error.get(), sink.error.get());
+        Assert.assertEquals(threads * operations, sink.count.get());
+        long[] all = new long[threads * operations];
+        for (int i = 0; i < threads; i++) {
+            System.arraycopy(latencies[i], 0, all, i * operations, operations);
+        }
+        Arrays.sort(all);
+        return new Result(threads, all.length, elapsed, all);
+    }
+
+    private static void runAll(int operations) throws InterruptedException {
+        int maxThreads = Math.max(8, Runtime.getRuntime().availableProcessors());
+        // warm up
+        run(2, operations);
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            System.out.println(run(threads, operations));
+        }
+    }
+
+    @Test
+    public void stressTest() throws InterruptedException {
+        runAll(5000);
+    }
+
+    @Test
+    public void factoryRaceTest() throws InterruptedException {
+        final AndroidLoggerFactory factory = new AndroidLoggerFactory();
+        final Object[] loggers = new Object[8];
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[loggers.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    loggers[index] = factory.getLogger("com.example.Race");
+                }
+            };
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (Object logger : loggers) {
+            Assert.assertSame(loggers[0], logger);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        runAll(args.length > 0 ? Integer.parseInt(args[0]) : 200000);
+    }
+}
@@ -0,0 +1,20 @@
+package com.pitty.android.logger;
+
+import android.util.Log;
+
+/**
+ * {@link LoggableCheck} of {@link android.util.Log#isLoggable(String, int)}, so the level of a tag
+ * can be set with {@code adb shell setprop log.tag.<TAG> <LEVEL>}.
+ */
+public class AndroidLoggableCheck extends LoggableCheck {
+
+    @Override
+    protected boolean isLoggable(String tag, LEVEL level) {
+        try {
+            return Log.isLoggable(tag, level.toLog());
+        } catch (IllegalArgumentException e) {
+            // a tag longer than 23 characters before Android N, the handler level decides
+            return true;
+        }
+    }
+}
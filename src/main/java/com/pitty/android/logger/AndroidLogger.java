@@ -0,0 +1,46 @@
+package com.pitty.android.logger;
+
+import org.slf4j.Logger;
+
+/**
+ * The extensions of {@link Logger} supported by the loggers of this library.
+ * <p/>
+ * All loggers returned by {@link org.slf4j.LoggerFactory} can be cast to this interface.
+ */
+public interface AndroidLogger extends Logger {
+
+    /**
+     * Logs a message with the caller known in advance, see {@link Logged}.
+     *
+     * @param callSite  the caller, {@code null} means it is found in the stack trace if needed.
+     * @param level     the level.
+     * @param throwable a throwable object or {@code null}.
+     * @param format    the SLF4J format string.
+     * @param arguments the arguments.
+     */
+    public void log(CallSite callSite, LEVEL level, Throwable throwable, String format, Object... arguments);
+
+    /**
+     * Starts a log call at the trace level, the arguments of which are not boxed.
+     *
+     * @return the builder of the log call.
+     * @see LogEventBuilder
+     */
+    public LogEventBuilder atTrace();
+
+    public LogEventBuilder atDebug();
+
+    public LogEventBuilder atInfo();
+
+    public LogEventBuilder atWarn();
+
+    public LogEventBuilder atError();
+
+    /**
+     * Starts a log call at the level.
+     *
+     * @param level the level.
+     * @return the builder of the log call, a no-op one if the level is disabled.
+     */
+    public LogEventBuilder at(LEVEL level);
+}
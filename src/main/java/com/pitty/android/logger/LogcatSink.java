@@ -0,0 +1,14 @@
+package com.pitty.android.logger;
+
+import android.util.Log;
+
+/**
+ * {@link LogSink} printing messages with {@link android.util.Log#println(int, String, String)}.
+ */
+public class LogcatSink extends AbstractLogSink {
+
+    @Override
+    public void write(LEVEL level, String tag, String message, LogEvent event) {
+        Log.println(level.toLog(), tag, message);
+    }
+}
@@ -1,14 +1,9 @@
 package com.pitty.android.logger;
 
-import android.text.TextUtils;
-
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
-import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
+import java.util.LinkedHashSet;
 import java.util.Properties;
 import java.util.Set;
 
@@ -31,132 +26,196 @@ public class LoggerProperties {
         return Holder.instance;
     }
 
-    private final Map<String, LoggerHandler> mHandlerMap;
+    // the handlers of the modules, created when a logger first resolves to them
+    private final ModuleHandlers mHandlers;
     private LEVEL mGlobalLevel = LEVEL.V;
+    private LogSink mDefaultSink;
+    // shared by the loggers of no module
+    private PatternLoggerHandler mDefaultHandler;
+    // the filter of the config file, null for none
+    private LogFilter mFilter;
+    // how the factory holds the loggers, null for strong references
+    private String mLoggerReferences;
 
     private LoggerProperties() {
-        mHandlerMap = loadConfiguration();
+        LogSinks.register(LogSinks.LOGCAT, new LogcatSink());
+        LogSinks.setDefault(LogSinks.LOGCAT);
+        mHandlers = loadConfiguration();
+    }
+
+    /**
+     * Get how the logger factory holds the loggers.
+     * @return "weak", "soft", or null for strong references.
+     */
+    public String getLoggerReferences() {
+        return mLoggerReferences;
     }
 
     public LoggerHandler getHandler(String tag) {
-        if (null == mHandlerMap || mHandlerMap.isEmpty()) {
+        return getBinding(tag, null, null).getHandler();
+    }
+
+    /**
+     * Get the binding of a logger with the values computed at compile time.
+     * @param name the logger name.
+     * @param tag the tag computed from the logger name, or null.
+     * @param handlerKey the config module name, or null.
+     * @return the binding, its handler is null if the log is closed.
+     */
+    public LoggerBinding getBinding(String name, String tag, String handlerKey) {
+        if (null == mHandlers || mHandlers.isEmpty()) {
             // No Config, close log.
-            return null;
+            return LoggerBinding.create(name, tag, null, null);
+        }
+        PatternLoggerHandler handler = mHandlers.get(handlerKey);
+        if (null == handler) {
+            handler = mHandlers.get(mHandlers.findModule(name));
         }
-        LoggerHandler handler = mHandlerMap.get(tag);
-        if (null != handler) {
-            handler.setTagName(tag);
-            return handler;
-        }
-        String tmp = tag;
-        while (tmp.lastIndexOf(Constant.CONF_LOGGER_PACKAGE_SPLIT) > 0) {
-            tmp = tmp.substring(0, tmp.lastIndexOf(Constant.CONF_LOGGER_PACKAGE_SPLIT));
-            handler = mHandlerMap.get(tmp + ".*");
-            if (null != handler) {
-                handler.setTagName(tag);
-                return handler;
+        if (null == handler) {
+            // Default handler.
+            synchronized (this) {
+                if (null == mDefaultHandler) {
+                    mDefaultHandler = new PatternLoggerHandler(mGlobalLevel, null, null, null, mDefaultSink);
+                }
+                handler = mDefaultHandler;
             }
         }
-        // Default handler.
-        return new PatternLoggerHandler(mGlobalLevel, tag, null, null);
+        return LoggerBinding.create(name, tag, handler, mFilter);
     }
 
     /**
-     * Load Config to Map.
+     * Load the config, the handlers of the modules are created on first use.
+     * <p/>
+     * The precompiled snapshot is used if it was made from the current config file,
+     * otherwise the config file is parsed.
      *
-     * @return
+     * @return the module handlers, or null if the log is closed.
      */
-    private Map<String, LoggerHandler> loadConfiguration() {
+    private ModuleHandlers loadConfiguration() {
         if (!Constant.LOG) {
             mGlobalLevel = LEVEL.O;
             return null;
         }
-        Map<String, LoggerHandler> handlerMap = new HashMap<String, LoggerHandler>();
-        // read properties file
-        Properties properties = new Properties();
+        LoggerConfiguration configuration;
         try {
-            loadProperties(properties);
+            byte[] propertiesBytes = loadResource(Constant.PROPERTIES_PATH);
+            if (null == propertiesBytes) {
+                mGlobalLevel = LEVEL.O;
+                return null;
+            }
+            configuration = ConfigSnapshot.read(loadResource(Constant.SNAPSHOT_PATH),
+                    ConfigSnapshot.checksum(propertiesBytes));
+            if (null == configuration) {
+                // read properties file
+                Properties properties = new Properties();
+                properties.load(new ByteArrayInputStream(propertiesBytes));
+                // property file is empty
+                if (!properties.propertyNames().hasMoreElements()) {
+                    mGlobalLevel = LEVEL.O;
+                    return null;
+                }
+                configuration = LoggerConfiguration.parse(properties);
+            }
         } catch (IOException e) {
             mGlobalLevel = LEVEL.O;
-            return handlerMap;
+            return null;
         }
 
-        // property file is empty
-        if (!properties.propertyNames().hasMoreElements()) {
-            mGlobalLevel = LEVEL.O;
-            return handlerMap;
-        }
-        Map<String, String> handlerTempMap = new HashMap<String, String>();
-        String globalLogger = null;
-        // parse properties
-        for (Enumeration<?> names = properties.propertyNames(); names.hasMoreElements(); ) {
-            String propertyName = ((String) names.nextElement()).replaceAll("\\s|\\t|\\r|\\n", "");
-            String propertyValue = properties.getProperty(propertyName).replaceAll("\\s|\\t|\\r|\\n", "");
-
-            if (propertyName.startsWith(Constant.CONF_LOGGER_MODULE)) {
-                String loggerName = propertyName.substring(Constant.CONF_LOGGER_MODULE.length());
-                handlerTempMap.put(loggerName, propertyValue);
-            } else if (propertyName.equals(Constant.CONF_ROOT)){
-                globalLogger = propertyValue;
-            }
+        LogSink defaultSink = LogSinks.get(configuration.getSink());
+        if (null == defaultSink) {
+            defaultSink = LogSinks.getDefault();
         }
-        // parse global (root) config.
-        LEVEL globalLevel = null;
-        HashSet<String> exListString = new HashSet<String>();
-        if (!TextUtils.isEmpty(globalLogger)) {
-            String[] globalLoggers = globalLogger.split(Constant.CONF_LOGGER_SPLIT);
-            if (null != globalLoggers) {
-                try {
-                    globalLevel = globalLoggers.length > 0 ? LEVEL.valueOf(globalLoggers[0]) : null;
-                } catch (IllegalArgumentException e) {
-                }
-                if (globalLoggers.length > 1) {
-                    exListString.addAll(Arrays.asList(globalLoggers[1].split(Constant.CONF_LOGGER_ITEM_SPLIT)));
-                }
-            }
+        int coalesceMillis = configuration.getIntOption(Constant.CONF_COALESCE, 0);
+        if (coalesceMillis > 0) {
+            defaultSink = new CoalescingLogSink(defaultSink, coalesceMillis);
         }
-        // Set module configs to map.
-        Set<String> keys = handlerTempMap.keySet();
-        for (String key : keys) {
-            String value = handlerTempMap.get(key);
-            if (!TextUtils.isEmpty(value)) {
-                String[] values = value.split(Constant.CONF_LOGGER_SPLIT);
-                if (null != values) {
-                    LEVEL loggerLevel = globalLevel;
-                    if (null == globalLevel || exListString.contains(key)) {
-                        // global not set, or in expect list. use the module set.
-                        try {
-                            loggerLevel = values.length > 0 ? LEVEL.valueOf(values[0]) : globalLevel;
-                        } catch (IllegalArgumentException e) {
-                        }
-                    } else {
-                    // global set and not in expect list, use global set.
-                    }
-                    String tag = values.length > 1 ? values[1] : null;
-                    String tagPattern = values.length > 2 ? values[2] : null;
-                    String messagePattern = values.length > 3 ? values[3] : null;
-                    handlerMap.put(key, new PatternLoggerHandler(loggerLevel, tag, tagPattern, messagePattern));
-                }
+        mDefaultSink = defaultSink;
+        int statsPeriod = configuration.getIntOption(Constant.CONF_STATS, -1);
+        if (statsPeriod >= 0) {
+            LoggerStats.setEnabled(true);
+            LoggerStats.startDump(statsPeriod, defaultSink);
+        }
+        int profileCapacity = configuration.getIntOption(Constant.CONF_PROFILE, 0);
+        if (profileCapacity > 0) {
+            LogProfiler.setDefault(new LogProfiler(profileCapacity));
+            LogProfiler.setEnabled(true);
+        }
+        installRecorder(configuration.getOptions().get(Constant.CONF_RECORDER));
+        mLoggerReferences = configuration.getOptions().get(Constant.CONF_LOGGERS);
+        int loggablePeriod = configuration.getIntOption(Constant.CONF_LOGGABLE, -1);
+        if (loggablePeriod >= 0) {
+            LoggableCheck.setDefault(new AndroidLoggableCheck());
+            LoggableCheck.startRefresh(loggablePeriod);
+        }
+        String filter = configuration.getOptions().get(Constant.CONF_FILTER);
+        if (!Utils.isEmpty(filter)) {
+            try {
+                mFilter = LogFilter.compile(filter);
+            } catch (IllegalArgumentException e) {
+                // invalid filter, print everything rather than nothing
+                mFilter = null;
             }
         }
-        if (null != globalLevel) {
-            mGlobalLevel = globalLevel;
+        // the handlers and their patterns are created on first use
+        ModuleHandlers handlers = new ModuleHandlers(configuration.getModules().values(), defaultSink);
+        if (null != configuration.getGlobalLevel()) {
+            mGlobalLevel = configuration.getGlobalLevel();
         }
-        return handlerMap;
+        installFlusher(configuration, defaultSink, handlers);
+        return handlers;
     }
 
     /**
-     * Load Properties for config file.
-     * @param properties
+     * Install the flight recorder if configured, e.g. "D:2048".
+     */
+    private void installRecorder(String recorder) {
+        if (Utils.isEmpty(recorder)) {
+            return;
+        }
+        String[] items = recorder.split(Constant.CONF_LOGGER_SPLIT);
+        try {
+            LEVEL level = LEVEL.valueOf(items[0]);
+            int capacity = items.length > 1 ? Integer.parseInt(items[1]) : FlightRecorder.DEFAULT_CAPACITY;
+            FlightRecorder.setDefault(new FlightRecorder(capacity));
+            FlightRecorder.setLevel(level);
+        } catch (IllegalArgumentException e) {
+            // invalid level or capacity, no recorder
+        }
+    }
+
+    /**
+     * Install the flush of the sinks on crash and on exit, if configured.
+     */
+    private void installFlusher(LoggerConfiguration configuration, LogSink defaultSink,
+                                ModuleHandlers handlers) {
+        int crashBudget = configuration.getIntOption(Constant.CONF_FLUSH_CRASH, 0);
+        int exitBudget = configuration.getIntOption(Constant.CONF_FLUSH_EXIT, 0);
+        if (crashBudget <= 0 && exitBudget <= 0) {
+            return;
+        }
+        // the default sink first, it gets the uncaught throwables
+        Set<LogSink> sinks = new LinkedHashSet<LogSink>();
+        sinks.add(defaultSink);
+        sinks.addAll(handlers.getSinks());
+        if (crashBudget > 0) {
+            new LogFlusher(sinks, crashBudget).installUncaughtExceptionHandler();
+        }
+        if (exitBudget > 0) {
+            new LogFlusher(sinks, exitBudget).installShutdownHook();
+        }
+    }
+
+    /**
+     * Load a resource from the class path.
+     * @param path
+     * @return the resource content, or null if there is no such resource.
      * @throws IOException
      */
-    private void loadProperties(Properties properties) throws IOException {
+    private byte[] loadResource(String path) throws IOException {
         InputStream inputStream = null;
         try {
-            inputStream = LoggerProperties.class.getClassLoader().getResourceAsStream(Constant.PROPERTIES_PATH);
-            if (inputStream != null) {
-                properties.load(inputStream);
-            }
+            inputStream = LoggerProperties.class.getClassLoader().getResourceAsStream(path);
+            return inputStream == null ? null : Utils.readFully(inputStream);
         } finally {
             if (inputStream != null) {
                 inputStream.close();
@@ -1,18 +1,21 @@
 package org.slf4j.impl;
 
+import com.pitty.android.logger.AndroidLogger;
+import com.pitty.android.logger.CallSite;
 import com.pitty.android.logger.Constant;
+import com.pitty.android.logger.HandlerEventBuilder;
 import com.pitty.android.logger.LEVEL;
+import com.pitty.android.logger.LogEventBuilder;
+import com.pitty.android.logger.LoggerBinding;
 import com.pitty.android.logger.LoggerProperties;
-import com.pitty.android.logger.LoggerHandler;
-import org.slf4j.helpers.FormattingTuple;
-import org.slf4j.helpers.MarkerIgnoringBase;
-import org.slf4j.helpers.MessageFormatter;
+import org.slf4j.Logger;
+import org.slf4j.Marker;
 
 /**
  * <p>A simple implementation that delegates all log requests to the Google Android
- * logging facilities. Note that this logger does not support {@link org.slf4j.Marker}.
- * Methods taking marker data as parameter simply invoke the eponymous method
- * without the Marker argument, discarding any marker data in the process.</p>
+ * logging facilities. Methods taking a {@link org.slf4j.Marker} pass it to the
+ * {@link com.pitty.android.logger.LogFilter} of the logger, e.g. {@code filter = !marker=HEARTBEAT},
+ * and then log like the eponymous method without the marker: the marker is not printed.</p>
  *
  * <p>The logging levels specified for SLF4J can be almost directly mapped to
  * the levels that exist in the Google Android platform. The following table
@@ -57,18 +60,42 @@ import org.slf4j.helpers.MessageFormatter;
  *
  * @author Andrey Korzhevskiy <a.korzhevskiy@gmail.com>
  */
-class AndroidLoggerAdapter extends MarkerIgnoringBase {
-    LoggerHandler handler;
+class AndroidLoggerAdapter implements Logger, AndroidLogger {
+    private final String name;
+    private final LoggerBinding binding;
 
     /**
      * Package access allows only {@link AndroidLoggerFactory} to instantiate
      * SimpleLogger instances.
      */
     AndroidLoggerAdapter(String tag) {
-        this.handler = LoggerProperties.getInstance().getHandler(tag);
-        if (null != this.handler) {
-            this.name = handler.getTagName();
-        }
+        this(tag, null, null);
+    }
+
+    /**
+     * Creates the logger with the values computed at compile time.
+     *
+     * @param name       the logger name.
+     * @param tag        the tag computed from the name, {@code null} to compute it now.
+     * @param handlerKey the config module name, {@code null} to resolve it now.
+     */
+    AndroidLoggerAdapter(String name, String tag, String handlerKey) {
+        this(LoggerProperties.getInstance().getBinding(name, tag, handlerKey));
+    }
+
+    /**
+     * Creates the logger with its binding.
+     *
+     * @param binding the binding.
+     */
+    AndroidLoggerAdapter(LoggerBinding binding) {
+        this.binding = binding;
+        this.name = binding.getTag();
+    }
+
+    @Override
+    public String getName() {
+        return name;
     }
 
     /**
@@ -508,10 +535,253 @@ class AndroidLoggerAdapter extends MarkerIgnoringBase {
         log(LEVEL.E, msg, t);
     }
 
+    /**
+     * Is this logger instance enabled for the TRACE level with the marker?
+     * The marker is checked by the filter of the config file.
+     *
+     * @param marker the marker data specific to this log request.
+     * @return True if this Logger is enabled for level TRACE and the marker, false otherwise.
+     */
+    @Override
+    public boolean isTraceEnabled(Marker marker) {
+        return isLoggable(LEVEL.V, marker);
+    }
+
+    @Override
+    public void trace(Marker marker, String msg) {
+        log(LEVEL.V, marker, msg, null);
+    }
+
+    @Override
+    public void trace(Marker marker, String format, Object arg) {
+        formatAndLog(LEVEL.V, marker, format, arg);
+    }
+
+    @Override
+    public void trace(Marker marker, String format, Object arg1, Object arg2) {
+        formatAndLog(LEVEL.V, marker, format, arg1, arg2);
+    }
+
+    @Override
+    public void trace(Marker marker, String format, Object... argArray) {
+        formatAndLog(LEVEL.V, marker, format, argArray);
+    }
+
+    @Override
+    public void trace(Marker marker, String msg, Throwable t) {
+        log(LEVEL.V, marker, msg, t);
+    }
+
+    /**
+     * Is this logger instance enabled for the DEBUG level with the marker?
+     * The marker is checked by the filter of the config file.
+     *
+     * @param marker the marker data specific to this log request.
+     * @return True if this Logger is enabled for level DEBUG and the marker, false otherwise.
+     */
+    @Override
+    public boolean isDebugEnabled(Marker marker) {
+        return isLoggable(LEVEL.D, marker);
+    }
+
+    @Override
+    public void debug(Marker marker, String msg) {
+        log(LEVEL.D, marker, msg, null);
+    }
+
+    @Override
+    public void debug(Marker marker, String format, Object arg) {
+        formatAndLog(LEVEL.D, marker, format, arg);
+    }
+
+    @Override
+    public void debug(Marker marker, String format, Object arg1, Object arg2) {
+        formatAndLog(LEVEL.D, marker, format, arg1, arg2);
+    }
+
+    @Override
+    public void debug(Marker marker, String format, Object... argArray) {
+        formatAndLog(LEVEL.D, marker, format, argArray);
+    }
+
+    @Override
+    public void debug(Marker marker, String msg, Throwable t) {
+        log(LEVEL.D, marker, msg, t);
+    }
+
+    /**
+     * Is this logger instance enabled for the INFO level with the marker?
+     * The marker is checked by the filter of the config file.
+     *
+     * @param marker the marker data specific to this log request.
+     * @return True if this Logger is enabled for level INFO and the marker, false otherwise.
+     */
+    @Override
+    public boolean isInfoEnabled(Marker marker) {
+        return isLoggable(LEVEL.I, marker);
+    }
+
+    @Override
+    public void info(Marker marker, String msg) {
+        log(LEVEL.I, marker, msg, null);
+    }
+
+    @Override
+    public void info(Marker marker, String format, Object arg) {
+        formatAndLog(LEVEL.I, marker, format, arg);
+    }
+
+    @Override
+    public void info(Marker marker, String format, Object arg1, Object arg2) {
+        formatAndLog(LEVEL.I, marker, format, arg1, arg2);
+    }
+
+    @Override
+    public void info(Marker marker, String format, Object... argArray) {
+        formatAndLog(LEVEL.I, marker, format, argArray);
+    }
+
+    @Override
+    public void info(Marker marker, String msg, Throwable t) {
+        log(LEVEL.I, marker, msg, t);
+    }
+
+    /**
+     * Is this logger instance enabled for the WARN level with the marker?
+     * The marker is checked by the filter of the config file.
+     *
+     * @param marker the marker data specific to this log request.
+     * @return True if this Logger is enabled for level WARN and the marker, false otherwise.
+     */
+    @Override
+    public boolean isWarnEnabled(Marker marker) {
+        return isLoggable(LEVEL.W, marker);
+    }
+
+    @Override
+    public void warn(Marker marker, String msg) {
+        log(LEVEL.W, marker, msg, null);
+    }
+
+    @Override
+    public void warn(Marker marker, String format, Object arg) {
+        formatAndLog(LEVEL.W, marker, format, arg);
+    }
+
+    @Override
+    public void warn(Marker marker, String format, Object arg1, Object arg2) {
+        formatAndLog(LEVEL.W, marker, format, arg1, arg2);
+    }
+
+    @Override
+    public void warn(Marker marker, String format, Object... argArray) {
+        formatAndLog(LEVEL.W, marker, format, argArray);
+    }
+
+    @Override
+    public void warn(Marker marker, String msg, Throwable t) {
+        log(LEVEL.W, marker, msg, t);
+    }
+
+    /**
+     * Is this logger instance enabled for the ERROR level with the marker?
+     * The marker is checked by the filter of the config file.
+     *
+     * @param marker the marker data specific to this log request.
+     * @return True if this Logger is enabled for level ERROR and the marker, false otherwise.
+     */
+    @Override
+    public boolean isErrorEnabled(Marker marker) {
+        return isLoggable(LEVEL.E, marker);
+    }
+
+    @Override
+    public void error(Marker marker, String msg) {
+        log(LEVEL.E, marker, msg, null);
+    }
+
+    @Override
+    public void error(Marker marker, String format, Object arg) {
+        formatAndLog(LEVEL.E, marker, format, arg);
+    }
+
+    @Override
+    public void error(Marker marker, String format, Object arg1, Object arg2) {
+        formatAndLog(LEVEL.E, marker, format, arg1, arg2);
+    }
+
+    @Override
+    public void error(Marker marker, String format, Object... argArray) {
+        formatAndLog(LEVEL.E, marker, format, argArray);
+    }
+
+    @Override
+    public void error(Marker marker, String msg, Throwable t) {
+        log(LEVEL.E, marker, msg, t);
+    }
+
+    /**
+     * Log a message with the caller known in advance.
+     *
+     * @param callSite  the caller.
+     * @param level     the level.
+     * @param throwable a throwable object or {@code null}.
+     * @param format    the format string.
+     * @param arguments a list of arguments.
+     */
+    @Override
+    public void log(CallSite callSite, LEVEL level, Throwable throwable, String format, Object... arguments) {
+        if (isLoggable(level)) {
+            binding.getHandler(level).log(callSite, binding.getTag(), level, throwable, format, arguments);
+        }
+    }
+
+    @Override
+    public LogEventBuilder atTrace() {
+        return at(LEVEL.V);
+    }
+
+    @Override
+    public LogEventBuilder atDebug() {
+        return at(LEVEL.D);
+    }
+
+    @Override
+    public LogEventBuilder atInfo() {
+        return at(LEVEL.I);
+    }
+
+    @Override
+    public LogEventBuilder atWarn() {
+        return at(LEVEL.W);
+    }
+
+    @Override
+    public LogEventBuilder atError() {
+        return at(LEVEL.E);
+    }
+
+    @Override
+    public LogEventBuilder at(LEVEL level) {
+        if (isLoggable(level)) {
+            return HandlerEventBuilder.get(binding.getHandler(level), binding.getTag(), level);
+        }
+        return HandlerEventBuilder.NOOP;
+    }
+
+    /**
+     * The format is rendered by the handler, straight into its buffer,
+     * with the templates of {@link com.pitty.android.logger.MessageTemplateCache}.
+     */
     private void formatAndLog(LEVEL priority, String format, Object... argArray) {
         if (isLoggable(priority)) {
-            FormattingTuple ft = MessageFormatter.arrayFormat(format, argArray);
-            _log(priority, ft.getMessage(), ft.getThrowable());
+            binding.getHandler(priority).log(null, binding.getTag(), priority, null, format, argArray);
+        }
+    }
+
+    private void formatAndLog(LEVEL priority, Marker marker, String format, Object... argArray) {
+        if (isLoggable(priority, marker)) {
+            binding.getHandler(priority).log(null, binding.getTag(), priority, null, format, argArray);
         }
     }
 
@@ -521,11 +791,31 @@ class AndroidLoggerAdapter extends MarkerIgnoringBase {
         }
     }
 
+    private void log(LEVEL priority, Marker marker, String message, Throwable throwable) {
+        if (isLoggable(priority, marker)) {
+            _log(priority, message, throwable);
+        }
+    }
+
     private boolean isLoggable(LEVEL level) {
-        return Constant.LOG && handler != null && handler.isEnabled(level);
+        return Constant.LOG && binding.isEnabled(level);
+    }
+
+    /**
+     * The level and the filter are checked before the message is formatted
+     * and before the caller is resolved.
+     */
+    private boolean isLoggable(LEVEL level, Marker marker) {
+        return Constant.LOG && binding.isEnabled(level, marker);
     }
 
     private void _log(LEVEL level, String message, Throwable throwable) {
-        handler.print(level, throwable, message);
+        // no arguments: the message is printed as is.
+        binding.getHandler(level).log(null, binding.getTag(), level, throwable, message, (Object[]) null);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getName() + "(" + getName() + ")";
     }
 }
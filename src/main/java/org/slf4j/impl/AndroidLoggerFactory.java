@@ -24,19 +24,72 @@
  */
 package org.slf4j.impl;
 
+import com.pitty.android.logger.AndroidLogger;
+import com.pitty.android.logger.LoggerProperties;
 import com.pitty.android.logger.Utils;
 import org.slf4j.ILoggerFactory;
 import org.slf4j.Logger;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 /**
  * Implementation of {@link org.slf4j.ILoggerFactory} returning
  * the appropriate named {@link AndroidLoggerAdapter} instance.
+ * <p/>
+ * The loggers are kept forever by default. With "loggers=weak" in the config file a logger
+ * is kept while it is referenced, e.g. by a static field of a loaded class, with "loggers=soft"
+ * until the memory runs low. A logger collected meanwhile is created again with the same binding.
  */
 public class AndroidLoggerFactory implements ILoggerFactory {
-    private final ConcurrentMap<String, Logger> loggerMap = new ConcurrentHashMap<String, Logger>();
+    static final String REFERENCES_WEAK = "weak";
+    static final String REFERENCES_SOFT = "soft";
+
+    /**
+     * A weak logger value, with its name to remove it once collected.
+     */
+    private static final class WeakLogger extends WeakReference<Logger> {
+        final String name;
+
+        WeakLogger(String name, Logger logger, ReferenceQueue<Logger> queue) {
+            super(logger, queue);
+            this.name = name;
+        }
+    }
+
+    /**
+     * A soft logger value, with its name to remove it once collected.
+     */
+    private static final class SoftLogger extends SoftReference<Logger> {
+        final String name;
+
+        SoftLogger(String name, Logger logger, ReferenceQueue<Logger> queue) {
+            super(logger, queue);
+            this.name = name;
+        }
+    }
+
+    // the loggers, or the references to them if they can be collected
+    private final ConcurrentMap<String, Object> loggerMap = new ConcurrentHashMap<String, Object>();
+    private final String references;
+    private final ReferenceQueue<Logger> queue;
+
+    public AndroidLoggerFactory() {
+        this(LoggerProperties.getInstance().getLoggerReferences());
+    }
+
+    /**
+     * Creates the factory.
+     * @param references "weak", "soft", or anything else for strong references.
+     */
+    AndroidLoggerFactory(String references) {
+        this.references = REFERENCES_WEAK.equals(references) || REFERENCES_SOFT.equals(references) ? references : null;
+        this.queue = null == this.references ? null : new ReferenceQueue<Logger>();
+    }
 
     /**
      * Return an appropriate {@link AndroidLoggerAdapter} instance by name.
@@ -45,13 +98,27 @@ public class AndroidLoggerFactory implements ILoggerFactory {
      */
     @Override
     public Logger getLogger(String name) {
-        Logger logger = loggerMap.get(name);
+        return getLogger(name, null, null);
+    }
+
+    /**
+     * Return the logger with the values computed at compile time, used by the code
+     * generated for {@link com.pitty.android.logger.Logged} classes.
+     * @param name the name.
+     * @param tag the tag computed from the name.
+     * @param handlerKey the config module name, {@code null} if not resolved.
+     * @return the {@link AndroidLogger} implementation.
+     */
+    public AndroidLogger getLogger(String name, String tag, String handlerKey) {
+        Logger logger = unwrap(loggerMap.get(name));
         if (logger == null) {
-            Logger newInstance = new AndroidLoggerAdapter(name);
-            Logger oldInstance = loggerMap.putIfAbsent(name, newInstance);
-            logger = oldInstance == null ? newInstance : oldInstance;
+            purge();
+            // the name is kept by the map and the binding
+            name = name.intern();
+            Logger newInstance = new AndroidLoggerAdapter(name, tag, handlerKey);
+            logger = putIfAbsent(name, newInstance);
         }
-        return logger;
+        return (AndroidLogger) logger;
     }
 
     /**
@@ -72,4 +139,59 @@ public class AndroidLoggerFactory implements ILoggerFactory {
     public Logger getLogger() {
         return getLogger(Utils.getCallerClassName());
     }
+
+    /**
+     * Returns the count of loggers kept.
+     */
+    int size() {
+        purge();
+        return loggerMap.size();
+    }
+
+    private Logger putIfAbsent(String name, Logger newInstance) {
+        Object value = wrap(name, newInstance);
+        while (true) {
+            Object oldValue = loggerMap.putIfAbsent(name, value);
+            if (oldValue == null) {
+                return newInstance;
+            }
+            Logger oldInstance = unwrap(oldValue);
+            if (oldInstance != null) {
+                return oldInstance;
+            }
+            // collected, not purged yet
+            if (loggerMap.replace(name, oldValue, value)) {
+                return newInstance;
+            }
+        }
+    }
+
+    private Object wrap(String name, Logger logger) {
+        if (null == references) {
+            return logger;
+        }
+        return REFERENCES_WEAK.equals(references)
+                ? new WeakLogger(name, logger, queue) : new SoftLogger(name, logger, queue);
+    }
+
+    private static Logger unwrap(Object value) {
+        if (value instanceof Reference) {
+            return (Logger) ((Reference<?>) value).get();
+        }
+        return (Logger) value;
+    }
+
+    /**
+     * Removes the entries of the collected loggers.
+     */
+    private void purge() {
+        if (null == queue) {
+            return;
+        }
+        for (Reference<? extends Logger> reference; (reference = queue.poll()) != null; ) {
+            String name = reference instanceof WeakLogger
+                    ? ((WeakLogger) reference).name : ((SoftLogger) reference).name;
+            loggerMap.remove(name, reference);
+        }
+    }
 }
@@ -0,0 +1,33 @@
+package org.slf4j.impl;
+
+import org.slf4j.helpers.BasicMDCAdapter;
+import org.slf4j.spi.MDCAdapter;
+
+/**
+ * The binding of {@link org.slf4j.MDC} class with an actual instance of
+ * {@link org.slf4j.spi.MDCAdapter}, so the MDC can be printed by
+ * {@link com.pitty.android.logger.JsonLoggerHandler}.
+ */
+public class StaticMDCBinder {
+
+    /**
+     * The unique instance of this class.
+     */
+    public static final StaticMDCBinder SINGLETON = new StaticMDCBinder();
+
+    private StaticMDCBinder() {
+    }
+
+    /**
+     * Return the adapter of {@link org.slf4j.MDC}.
+     *
+     * @return the adapter.
+     */
+    public MDCAdapter getMDCA() {
+        return new BasicMDCAdapter();
+    }
+
+    public String getMDCAdapterClassStr() {
+        return BasicMDCAdapter.class.getName();
+    }
+}